@@ -0,0 +1,29 @@
+package com.rivelbop.flappybird.benchmarks;
+
+import com.rivelbop.flappybird.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Bird integration (gravity, flapping and rotation) from {@link World#updateBird(float, boolean)}.
+ */
+@State(Scope.Thread)
+public class BirdBenchmark {
+    private static final float TICK = 1f / 120f;
+
+    private World world;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        world = new World(0L);
+    }
+
+    @Benchmark
+    public boolean updateBird() {
+        // Flap twice a second so the bird keeps bouncing instead of falling forever
+        return world.updateBird(TICK, ++tick % 60 == 0);
+    }
+}
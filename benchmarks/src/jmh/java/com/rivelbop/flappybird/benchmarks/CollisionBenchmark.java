@@ -0,0 +1,46 @@
+package com.rivelbop.flappybird.benchmarks;
+
+import com.rivelbop.flappybird.sim.Course;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Collision from {@link World#collides()} and scoring from {@link Course#updateScore()}.
+ * Both are measured with a pipe group right next to the bird ("near") and with every group off-screen ("far").
+ */
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    private static final float TICK = 1f / 120f;
+
+    @Param({"near", "far"})
+    public String position;
+
+    private World world;
+
+    @Setup
+    public void setup() {
+        world = new World(0L);
+        if (position.equals("near")) {
+            // Let the bot play until the first pipe group horizontally overlaps the bird
+            GapBot bot = new GapBot();
+            while (world.getPipeX(0) > World.BIRD_X) {
+                world.step(TICK, bot.shouldFlap(world));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean collides() {
+        return world.collides();
+    }
+
+    @Benchmark
+    public boolean updateScore() {
+        return world.getCourse().updateScore();
+    }
+}
@@ -0,0 +1,60 @@
+package com.rivelbop.flappybird.benchmarks;
+
+import com.rivelbop.flappybird.sim.FixedTimestep;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A whole frame of game logic the way {@code FlappyBird.render()} runs it: bot input, fixed timestep,
+ * world steps (bird, pipes, ground, collision and scoring) and restarts, at several obstacle counts.
+ */
+@State(Scope.Thread)
+public class FrameBenchmark {
+    private static final float FRAME_TIME = 1f / 60f;
+
+    @Param({"480", "240", "120", "60"}) // 2, 3, 5 and 10 pipe groups
+    public float pipeSpacing;
+
+    private World world;
+    private FixedTimestep timestep;
+    private GapBot bot;
+
+    @Setup
+    public void setup() {
+        world = new World(0L, pipeSpacing);
+        timestep = new FixedTimestep(120);
+        bot = new GapBot();
+    }
+
+    @Benchmark
+    public int frame() {
+        if (world.isDead()) {
+            world.reset();
+            timestep.reset();
+        }
+
+        boolean flap = bot.shouldFlap(world);
+        int events = 0;
+        for (int ticks = timestep.advance(FRAME_TIME); ticks > 0; ticks--) {
+            events |= world.step(timestep.getTickTime(), flap);
+            flap = false;
+        }
+        return events;
+    }
+
+    /**
+     * A single simulation tick, the unit used when training bots or balancing.
+     */
+    @Benchmark
+    public int step() {
+        if (world.isDead()) {
+            world.reset();
+        }
+        return world.step(1f / 120f, bot.shouldFlap(world));
+    }
+}
@@ -0,0 +1,35 @@
+package com.rivelbop.flappybird.benchmarks;
+
+import com.rivelbop.flappybird.sim.Course;
+import com.rivelbop.flappybird.sim.CourseGenerator;
+import com.rivelbop.flappybird.sim.Difficulty;
+import com.rivelbop.flappybird.sim.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Pipe scrolling and recycling from {@link Course#updatePipes(float)}.
+ * A group is recycled about every two seconds of game time, so respawns are part of the measurement.
+ */
+@State(Scope.Thread)
+public class PipeBenchmark {
+    private static final float TICK = 1f / 120f;
+
+    @Param({"480", "240", "120"}) // 2, 3 and 5 pipe groups
+    public float pipeSpacing;
+
+    private Course course;
+
+    @Setup
+    public void setup() {
+        course = new Course(new CourseGenerator(0L, Difficulty.constant(World.PIPE_GAP, pipeSpacing)));
+    }
+
+    @Benchmark
+    public void updatePipes() {
+        course.updatePipes(TICK);
+    }
+}
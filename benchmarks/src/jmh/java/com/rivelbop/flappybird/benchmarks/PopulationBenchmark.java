@@ -0,0 +1,46 @@
+package com.rivelbop.flappybird.benchmarks;
+
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Population throughput from {@link Population#run(Population.Controller, int, float, ForkJoinPool)}
+ * on a single worker thread, reported per bird-step (one bird simulated for one tick).
+ * The bot survives the whole run on the default course, so every bird is stepped on every tick.
+ */
+@State(Scope.Thread)
+public class PopulationBenchmark {
+    private static final int SIZE = 16_384, TICKS = 1200; // 10 seconds of game time
+    private static final float TICK = 1f / 120f;
+
+    private Population population;
+    private GapBot bot;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        population = new Population(SIZE, 0L);
+        bot = new GapBot();
+        pool = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE * TICKS)
+    public int run() {
+        population.run(bot, TICKS, TICK, pool);
+        return population.getAliveCount();
+    }
+}
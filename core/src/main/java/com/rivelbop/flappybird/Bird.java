@@ -1,104 +1,91 @@
 package com.rivelbop.flappybird;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
-import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.sim.World;
 
+/**
+ * Draws the bird simulated by the {@link World}.
+ */
 public class Bird implements Disposable {
-    /* Movement */
-    private final float
-        GRAVITY = -900f, // Constant downward acceleration
-        FLAP_FORCE = 450f, // Value to set velocity to when the bird flaps
-        MAX_DEG = 25f, // The maximum upwards angle the bird can reach when flapped
-        ROT_ACCEL = -200f; // The acceleration applied to the rotation of the bird when falling
-    private float
-        velocity, // Keeps track of the bird's current velocity to apply
-        rotVel; // Keeps track of the bird's current rotation velocity to apply
-
-    // Flap sound effect
-    private final Sound FLAP_SOUND = Gdx.audio.newSound(Gdx.files.internal("flap.ogg"));
+    private static final String[] FRAMES = {"bird_0", "bird_1", "bird_2"}; // Images of the atlas
 
     /* Bird Visuals */
-    private final Animation<Texture> ANIMATION = new Animation<>(
+    private final Animation<TextureRegion> ANIMATION = new Animation<>(
         0.167f, // Change the frame every 1/6th of a second (each frame below is shown twice every second)
-        new Array<>(new Texture[]{
-            new Texture("bird_0.png"),
-            new Texture("bird_1.png"),
-            new Texture("bird_2.png")
+        new Array<>(new TextureRegion[]{
+            AssetCache.region(FRAMES[0]),
+            AssetCache.region(FRAMES[1]),
+            AssetCache.region(FRAMES[2])
         }), Animation.PlayMode.LOOP // Continuously loops the animation frames
     );
     private float stateTime = 0f; // Keeps track of the animation's state time to display the appropriate frame
     // Stores the position and texture of the bird
     public final Sprite SPRITE = new Sprite(ANIMATION.getKeyFrame(stateTime));
 
-    public boolean isDead; // Keep track of bird's death
-
-    public Bird(float x, float y) {
-        SPRITE.setScale(2f); // The texture is too small, double the size of the sprite
-        SPRITE.setCenter(x, y);
+    public Bird() {
+        SPRITE.setScale(World.BIRD_SCALE); // The texture is too small, double the size of the sprite
+        reset();
     }
 
-    public void update() {
-        // Flap when the bird isn't dead and presses SPACE or LEFT_MOUSE
-        if (!isDead && (Gdx.input.isKeyJustPressed(Input.Keys.SPACE) ||
-            Gdx.input.isButtonJustPressed(Input.Buttons.LEFT))) {
-            velocity = FLAP_FORCE;
-            FLAP_SOUND.play();
-        }
+    /**
+     * Puts the bird back to its starting position and animation frame.
+     */
+    public void reset() {
+        stateTime = 0f;
+        SPRITE.setRegion(ANIMATION.getKeyFrame(stateTime));
+        SPRITE.setRotation(0f);
+        SPRITE.setCenter(World.BIRD_X, World.BIRD_START_Y);
+    }
 
-        // Apply gravity to the sprite
-        float delta = Gdx.graphics.getDeltaTime();
-        velocity += GRAVITY * delta;
-        SPRITE.translateY(velocity * delta);
+    /**
+     * Moves the sprite to the bird's simulated position and rotation, and updates the animation.
+     *
+     * @param world The world that simulates the bird.
+     * @param alpha How far to interpolate between the world's previous and current step.
+     * @param delta The time since the last frame in seconds.
+     */
+    public void update(World world, float alpha, float delta) {
+        SPRITE.setCenterY(world.getBirdY(alpha));
+        SPRITE.setRotation(world.getBirdRotation(alpha));
 
-        if (SPRITE.getY() + SPRITE.getHeight() > FlappyBird.HEIGHT) { // If the bird goes off the top of the screen
-            SPRITE.setY(FlappyBird.HEIGHT - SPRITE.getHeight()); // Move the bird back in bounds (right under top)
+        if (world.isGrounded()) {
+            return; // The animation stops once the bird hits the ground
         }
 
-        if (velocity > 0f) { // The bird is not falling
-            SPRITE.setRotation(MAX_DEG); // Snap the bird's rotation to the max upward degree
-            rotVel = 0f; // Reset the rotation velocity
-            stateTime += delta; // Update the animation's state time
-        } else if (velocity < 0f) { // The bird is falling
-            if (SPRITE.getRotation() > -90f) { // The bird has not entirely rotated to face directly down
-                rotVel += ROT_ACCEL * delta; // Add the rotation acceleration to the current rotation velocity
-                SPRITE.rotate(rotVel * delta); // Rotate the bird using the rotation velocity
-            } else {
-                SPRITE.setRotation(-90f); // Just for a perfect 90 degrees! ;)
-            }
-
-            if (SPRITE.getRotation() > -45f) { // Update the animation until the bird rotates below -45 deg
-                stateTime += delta;
-            } else {
-                // If the bird is nearly directly facing down
-                // Set the frame to the mid-wing texture ("bird_1.png")
-                // This happens to be the second frame in the animation and can be called with the frame duration
-                stateTime = ANIMATION.getFrameDuration();
-            }
+        float velocity = world.getBirdVelocity();
+        if (velocity > 0f || (velocity < 0f && SPRITE.getRotation() > -45f)) {
+            // Update the animation until the bird rotates below -45 deg
+            stateTime += delta;
+        } else if (velocity < 0f) {
+            // If the bird is nearly directly facing down
+            // Set the frame to the mid-wing texture ("bird_1.png")
+            // This happens to be the second frame in the animation and can be called with the frame duration
+            stateTime = ANIMATION.getFrameDuration();
         }
         // Update the sprite's texture to the frame provided by the animation and state time
-        SPRITE.setTexture(ANIMATION.getKeyFrame(stateTime));
+        SPRITE.setRegion(ANIMATION.getKeyFrame(stateTime));
     }
 
     /**
      * Updates the bird's animation.
      * Should only be used before the game is started (when the start menu is displayed).
+     *
+     * @param delta The time since the last frame in seconds.
      */
-    public void updateAnimation() {
-        stateTime += Gdx.graphics.getDeltaTime();
-        SPRITE.setTexture(ANIMATION.getKeyFrame(stateTime));
+    public void updateAnimation(float delta) {
+        stateTime += delta;
+        SPRITE.setRegion(ANIMATION.getKeyFrame(stateTime));
     }
 
     @Override
     public void dispose() {
-        for (Texture t : ANIMATION.getKeyFrames()) {
-            t.dispose(); // Dispose of each texture of the animation
+        for (String frame : FRAMES) {
+            AssetCache.releaseRegion(frame); // Release each frame of the animation
         }
-        FLAP_SOUND.dispose();
     }
 }
@@ -3,17 +3,34 @@ package com.rivelbop.flappybird;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.Preferences;
-import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.assets.FontLoader;
+import com.rivelbop.flappybird.autopilot.Autopilot;
+import com.rivelbop.flappybird.audio.SoundEffect;
+import com.rivelbop.flappybird.audio.SoundPlayer;
+import com.rivelbop.flappybird.profiling.CsvDump;
+import com.rivelbop.flappybird.profiling.FrameProfiler;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+import com.rivelbop.flappybird.profiling.StartupMetrics;
+import com.rivelbop.flappybird.scores.ScoreStore;
+import com.rivelbop.flappybird.sim.EventRing;
+import com.rivelbop.flappybird.sim.FixedTimestep;
+import com.rivelbop.flappybird.sim.GameEvent;
+import com.rivelbop.flappybird.sim.Replay;
+import com.rivelbop.flappybird.sim.ReplayRecorder;
+import com.rivelbop.flappybird.sim.World;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
 
 /**
  * A Flappy Bird clone.
@@ -23,151 +40,341 @@ import com.badlogic.gdx.utils.viewport.FitViewport;
  * @see <a href="https://www.udemy.com/user/david-jerzak/">Udemy</a>
  */
 public class FlappyBird extends ApplicationAdapter {
+    // Default simulation rate, independent of the display's refresh rate
+    public static final int DEFAULT_TICK_RATE = 120;
+
     /* Window */
     // Create a 9/16 aspect ratio (similar to a mobile device)
-    public static int WIDTH = 480, HEIGHT = WIDTH * 16 / 9;
+    public static int WIDTH = World.WIDTH, HEIGHT = World.HEIGHT;
     // Keeps the screen within a certain resolution (fits within black bars when necessary)
     private final FitViewport VIEWPORT = new FitViewport(WIDTH, HEIGHT);
 
     /* Visuals */
     // Renderer that is optimized and used to draw textures/sprites
+    private static final int BATCH_SIZE = 8191; // The most sprites per flush (the ghosts come in blocks of a thousand)
     private SpriteBatch batch;
     // Flappy Bird Font (used to display score)
+    static final String FONT = "font.ttf";
+    static final int FONT_SIZE = 64; // Must be baked by the bakeFonts task (see lwjgl3/build.gradle)
     private BitmapFont font;
-    // Used to render scores using the BitmapFont
-    private GlyphLayout scoreLayout, highScoreLayout;
+    // Used to render scores using the BitmapFont (only laid out again when they change)
+    private ScoreLabel scoreLabel, highScoreLabel;
     // City backdrop
     private Sprite background;
 
     /* Game Elements */
-    private Sound
-        scoreSound, // Sound that plays when player scores
-        hitSound, // Plays when the bird dies
-        dieSound; // Plays when the bird dies
+    private World world; // Simulates the bird, pipes and ground (the sprites below only display it)
+    private final Random SEEDS = new Random(); // Picks the course of every round
+    private final float PIPE_SPACING; // Horizontal distance between two pipe groups
+    private final FixedTimestep TIMESTEP; // Splits frame time into fixed simulation ticks
+    private FramePacer pacer; // Null unless set by the launcher (the frame times come from Gdx.graphics)
+    private boolean pendingFlap; // A flap pressed during a frame that didn't run any tick
+    private SoundPlayer sounds; // Plays the sound effects (off the render thread when possible)
     private Ground ground;
     private Bird bird;
-    private PipeGroup pipes1, pipes2;
+    private PipeGroup[] pipes; // One group per pipe slot of the world, recycled along with it
+
+    /* Events (published by the world and the game loop, handled in batches by every subscription) */
+    private static final int EVENT_CAPACITY = 256; // Far more than a frame publishes, even after a long hitch
+    private final EventRing EVENTS = new EventRing(EVENT_CAPACITY);
+    private EventRing.Subscription
+        soundEvents, // Plays the sound effects (drained every frame)
+        uiEvents, // Updates the menus and scores (drained every frame)
+        saveEvents; // Ranks and saves the finished runs on a thread of its own
 
     /* Menus */
     private Sprite
         start, // Displayed at the start of the game
         gameOver; // Displayed when player loses
 
+    /* Replays */
+    private final Replay REPLAY; // The run being watched, or null when playing
+    private final ReplayRecorder RECORDER = new ReplayRecorder(); // Records every played run
+    private FileHandle replayDir; // Where recorded runs are saved
+    private int replayTick; // The next tick of the watched run
+
+    /* Ghosts (earlier runs baked into a file by the bakeGhosts task, raced as a translucent crowd) */
+    private static final int MAX_GHOSTS = 2048; // The most ghosts drawn per frame
+    private GhostLayer ghosts; // Null without ghosts
+    private int deathTick; // The tick the bird died on (see World.getRoundTick()), -1 while alive
+
+    /* Autopilot (attract mode of a kiosk, enabled at launch with -Dflappybird.autopilot=true) */
+    private static final float
+        AUTOPILOT_RESTART_DELAY = 2f, // Seconds the game over menu is shown before the autopilot plays again
+        ATTRACT_IDLE_TIME = 30f; // Seconds without a press before the autopilot takes the game back from a player
+    private Autopilot autopilot; // Plans on a thread of its own, null unless enabled
+    private boolean isAutopilotPlaying; // Until someone presses
+    private long autopilotTick; // Every step since the game started (never reset, see Autopilot)
+    private float idleTime; // Time since the last press, or since the autopilot died
+
+    /* Profiling (toggled with F3, or enabled at launch with -Dflappybird.profile=true) */
+    private static final float DUMP_INTERVAL = 5f; // Seconds between two CSV dumps of the statistics
+    private final FrameProfiler PROFILER = new FrameProfiler(); // Times the phases of every frame
+    private ProfilerOverlay profilerOverlay; // Shows the statistics on screen
+    private RenderStats renderStats; // Draw calls and texture binds of the last frame
+    private final LatencyHistogram AUDIO_LATENCY = new LatencyHistogram(); // Copied from the sound player
+    private final LatencyHistogram SAVE_LATENCY = new LatencyHistogram(); // Copied from the saving subscription
+    private CsvDump csvDump; // Saves the statistics periodically
+    private float dumpTimer; // Time since the last dump
+
+    /* Loading */
+    private LoadingStage loading; // Loads the assets off the render thread, null once the game started
+    private long launchTime = System.nanoTime(); // Replaced by the launcher with the start of the process
+    private StartupMetrics startup;
+
     /* Score */
-    private Preferences saveData; // Used to access save data
+    private ScoreStore scores; // Every played run, saved in the background
     private int
         highScore,
         score; // Keeps track of the player's score
 
+    public FlappyBird() {
+        this(DEFAULT_TICK_RATE, World.PIPE_SPACING);
+    }
+
+    /**
+     * @param tickRate    How many times per second the game logic is updated.
+     * @param pipeSpacing The horizontal distance between two pipe groups (more groups are shown when it is smaller).
+     */
+    public FlappyBird(int tickRate, float pipeSpacing) {
+        this(tickRate, pipeSpacing, null);
+    }
+
+    /**
+     * Watches a recorded run in real time instead of playing (clicking after the bird died watches it again).
+     *
+     * @param replay The run to watch.
+     */
+    public FlappyBird(Replay replay) {
+        this(replay.getTickRate(), replay.getPipeSpacing(), replay);
+    }
+
+    private FlappyBird(int tickRate, float pipeSpacing, Replay replay) {
+        TIMESTEP = new FixedTimestep(tickRate);
+        PIPE_SPACING = pipeSpacing;
+        REPLAY = replay;
+    }
+
+    /**
+     * Lets the game time its own frames, and draw fewer of them while nothing moves much (see {@link FramePacer}).
+     * Unless vsync paces the frames played (a pacer without a frame rate), the backend shouldn't limit the frame rate
+     * on its own then.
+     *
+     * @param pacer The pacer of every frame.
+     */
+    public void setFramePacer(FramePacer pacer) {
+        this.pacer = pacer;
+    }
+
+    /**
+     * Sets when the game was launched, so the startup metrics include the time spent before {@link #create()}
+     * (e.g. starting the JVM). Defaults to the construction of the game.
+     *
+     * @param launchTime The launch time, from {@link System#nanoTime()}.
+     */
+    public void setLaunchTime(long launchTime) {
+        this.launchTime = launchTime;
+    }
+
     @Override
     public void create() {
-        batch = new SpriteBatch();
-
-        // Load font through generator
-        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal("font.ttf"));
-        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
-        parameter.size = 64;
-        font = generator.generateFont(parameter);
-        generator.dispose(); // After font generation, generator is no longer necessary
+        startup = new StartupMetrics(launchTime);
+        batch = new SpriteBatch(BATCH_SIZE);
+        loading = new LoadingStage(TIMESTEP.getTicksPerSecond());
+    }
 
-        scoreLayout = new GlyphLayout();
-        highScoreLayout = new GlyphLayout();
+    /**
+     * Creates the game once every asset is loaded.
+     */
+    private void startGame() {
+        font = loading.getFont();
+        sounds = loading.getSounds();
+        scores = loading.getScores();
 
-        scoreSound = Gdx.audio.newSound(Gdx.files.internal("score.ogg"));
-        hitSound = Gdx.audio.newSound(Gdx.files.internal("hit.ogg"));
-        dieSound = Gdx.audio.newSound(Gdx.files.internal("die.ogg"));
+        scoreLabel = new ScoreLabel(Color.WHITE);
+        highScoreLabel = new ScoreLabel(Color.GREEN);
 
-        start = new Sprite(new Texture("start.png"));
+        // Every image is a region of the same atlas, so the whole frame is drawn without switching textures
+        start = new Sprite(AssetCache.region("start"));
         start.setScale(1.75f);
         start.setAlpha(0.75f);
         start.setCenter(WIDTH / 2f, HEIGHT / 2f);
 
-        gameOver = new Sprite(new Texture("gameover.png"));
+        gameOver = new Sprite(AssetCache.region("gameover"));
         gameOver.setScale(1.75f);
         gameOver.setAlpha(0.75f);
         gameOver.setCenter(WIDTH / 2f, HEIGHT / 2f);
 
         ground = new Ground();
-        background = new Sprite(new Texture("background.png"));
+        background = new Sprite(AssetCache.region("background"));
         background.setScale(2.35f); // Fills up the whole screen
         background.setY(ground.topY()); // Set the background on top of the ground sprite
 
+        world = new World(SEEDS.nextLong(), PIPE_SPACING);
+        world.setCollisionMasks(loading.getMasks());
+        world.setProfiler(PROFILER);
+        world.setEventRing(EVENTS);
+        if (REPLAY == null && Boolean.getBoolean("flappybird.autopilot")) {
+            autopilot = new Autopilot(world, TIMESTEP.getTicksPerSecond(), Autopilot.DEFAULT_BUDGET);
+            isAutopilotPlaying = true;
+        }
+
         // Create the bird on the left side of the screen and above the half-way y-pos to avoid logo sprite obstruction
-        bird = new Bird(WIDTH / 4f, HEIGHT / 2f + 100f);
+        bird = new Bird();
+
+        // Pipes start off-screen (see World.reset())
+        pipes = new PipeGroup[world.getPipeCount()];
+        for (int i = 0; i < pipes.length; i++) {
+            pipes[i] = new PipeGroup(world, i);
+        }
+        if (loading.getGhosts() != null) {
+            ghosts = new GhostLayer(loading.getGhosts(), MAX_GHOSTS); // Closes the stream when disposed
+        }
+
+        loading.finish();
+        loading = null;
+
+        highScore = scores.getHighScore();
+        replayDir = Gdx.files.external(".flappybird/replays");
+        soundEvents = EVENTS.subscribe(this::playSounds, GameEvent.Type.FLAP, GameEvent.Type.SCORE, GameEvent.Type.HIT);
+        uiEvents = EVENTS.subscribe(this::updateMenus);
+        // From now on, the scores are only used by the saving thread (until it is stopped by dispose())
+        saveEvents = EVENTS.subscribe(this::saveRun, "Run saver", GameEvent.Type.DEATH);
 
-        // Create pipes off-screen (add 30f to shift entirely off-screen)
-        pipes1 = new PipeGroup(WIDTH + 30f);
-        pipes2 = new PipeGroup(WIDTH * 2f + 30f);
+        profilerOverlay = new ProfilerOverlay();
+        csvDump = new CsvDump(Gdx.files.external(".flappybird/profile.csv").file().toPath());
+        renderStats = new RenderStats();
+        PROFILER.setEnabled(Boolean.getBoolean("flappybird.profile"));
+        renderStats.setEnabled(PROFILER.isEnabled());
 
-        saveData = Gdx.app.getPreferences("FlappyBird"); // Get save file
-        highScore = saveData.getInteger("highScore", 0); // Get high score
-        score = 0; // Reset the score
+        restart();
+    }
+
+    /**
+     * Puts the game back on the start menu.
+     * Only resets the game state, every texture, sound and the font stay loaded for the next round.
+     */
+    private void restart() {
+        // Every round gets its own course seed, so it can be recorded and simulated again
+        long seed = REPLAY != null ? REPLAY.getSeed() : SEEDS.nextLong();
+        world.reset(seed); // Publishes the restart, which shows the start menu again
+        TIMESTEP.reset();
+        pendingFlap = false;
+        replayTick = 0;
+        if (ghosts != null) {
+            ghosts.rewind(); // Read in the background while the start menu is shown
+        }
+        if (REPLAY == null && !isAutopilotPlaying) {
+            RECORDER.begin(seed);
+        }
+
+        bird.reset();
+        ground.update(world, 1f);
+        for (int i = 0; i < pipes.length; i++) {
+            pipes[i].update(world, i, 1f);
+        }
     }
 
     @Override
     public void render() {
+        // Waits for the frame to be due (outside of the profiled frame)
+        float delta = pacer != null ? pacer.awaitFrame() : Gdx.graphics.getDeltaTime();
+        if (loading != null) {
+            renderLoading();
+            return;
+        }
+
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            PROFILER.setEnabled(!PROFILER.isEnabled());
+            renderStats.setEnabled(PROFILER.isEnabled());
+            dumpTimer = 0f;
+        }
+        if (PROFILER.isEnabled()) {
+            renderStats.beginFrame();
+        }
+        PROFILER.begin(FrameProfiler.Phase.FRAME);
+
         /* Clear Screen */
         ScreenUtils.clear(Color.BLACK);
 
         /* Update Logic */
-        // Start/Restart game
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE) || Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
-            if (bird.isDead) { // Restart game
-                dispose();
-                create();
-            } else { // Start game
-                start.setAlpha(0f);
-            }
-        }
+        PROFILER.begin(FrameProfiler.Phase.INPUT);
+        boolean flap = Gdx.input.isKeyJustPressed(Input.Keys.SPACE) ||
+            Gdx.input.isButtonJustPressed(Input.Buttons.LEFT);
 
-        // If the bird is not dead and touches the ground or collides with any pipe
-        if (!bird.isDead && (bird.SPRITE.getY() <= ground.topY() || pipes1.collides(bird) || pipes2.collides(bird))) {
-            if (score > highScore) { // If the current score is greater than the saved high score
-                saveData.putInteger("highScore", score); // Save the score as the high score
-                highScore = score; // Update the high score count (to display it)
-            }
-            bird.isDead = true; // Ensures the sounds don't play continuously
-            hitSound.play();
-            dieSound.play();
+        if (autopilot != null) {
+            flap = updateAttractMode(flap, delta);
         }
 
-        if (!bird.isDead) {
-            ground.update(); // Update the ground movement when the bird isn't dead
+        // Restart game
+        if (flap && world.isDead()) {
+            restart();
+            flap = false; // The restart press shouldn't also start the new game
         }
-
-        if (start.getColor().a == 0f) { // The game has started
-            // Update the bird's movement and animations when he doesn't hit the ground
-            if (bird.SPRITE.getY() > ground.topY()) {
-                bird.update();
+        PROFILER.end(FrameProfiler.Phase.INPUT);
+
+        // Run the game logic at a fixed rate, a flap is applied to the next tick
+        PROFILER.begin(FrameProfiler.Phase.SIMULATION);
+        pendingFlap |= flap;
+        for (int ticks = TIMESTEP.advance(delta); ticks > 0; ticks--) {
+            if (REPLAY != null) { // Watching a run, the recorded flaps replace the player's
+                pendingFlap = replayTick < REPLAY.getTickCount() && REPLAY.isFlapTick(replayTick++);
+            } else if (isAutopilotPlaying) { // Follows the latest plan, never waits for the planner
+                pendingFlap = autopilot.shouldFlap(world, autopilotTick);
             }
-
-            if (!bird.isDead) {
-                if (pipes1.update()) { // Update first pipe group until it reaches the side of the screen
-                    pipes1.dispose(); // Dispose of the textures stored in the group
-                    pipes1 = new PipeGroup(WIDTH * 2f - (WIDTH - pipes2.getX())); // Create a new group on the right
-                }
-                if (pipes2.update()) {
-                    pipes2.dispose();
-                    pipes2 = new PipeGroup(WIDTH * 2f - (WIDTH - pipes1.getX()));
-                }
+            // Publishes the flaps, scores and hits of the tick
+            int tickEvents = world.step(TIMESTEP.getTickTime(), pendingFlap);
+            autopilotTick++;
+
+            // Ticks on the start menu don't change the outcome, so recording begins with the game
+            boolean isPlayerRun = REPLAY == null && !isAutopilotPlaying; // Watched runs and the autopilot's don't count
+            if (RECORDER.isRecording() && world.isStarted() && isPlayerRun) {
+                RECORDER.record(pendingFlap);
             }
-        } else {
-            bird.updateAnimation(); // Update animations (not movement) if the game hasn't started yet
+            if ((tickEvents & World.HIT) != 0) { // The run is over, rank and save it (on the saving thread)
+                ReplayRecorder.Recording recording = RECORDER.isRecording() && isPlayerRun
+                    ? RECORDER.finish(TIMESTEP.getTicksPerSecond(), PIPE_SPACING, world.getScore()) : null;
+                EVENTS.publishDeath(world.getRoundTick(), world.getScore(), world.getCourse().getGenerator().getSeed(),
+                    recording, isPlayerRun);
+            }
+            pendingFlap = false;
         }
-
-        // If the player scores, increase score count and play the score sound effect
-        if (pipes1.hasScored(bird) || pipes2.hasScored(bird)) {
-            score++;
-            scoreSound.play();
+        PROFILER.end(FrameProfiler.Phase.SIMULATION);
+        if (isAutopilotPlaying) {
+            autopilot.publish(world, autopilotTick); // Planned while the frame is drawn
         }
 
-        font.setColor(Color.WHITE);
-        scoreLayout.setText(font, Integer.toString(score)); // Prepare the glyph for score rendering
+        // Everything that happened since the last frame, in order
+        soundEvents.drain();
+        uiEvents.drain();
 
-        font.setColor(Color.GREEN);
-        highScoreLayout.setText(font, Integer.toString(highScore));
+        // Mirror the simulated state in the sprites (interpolated between the last two ticks)
+        float alpha = TIMESTEP.alpha();
+        ground.update(world, alpha);
+        for (int i = 0; i < pipes.length; i++) {
+            pipes[i].update(world, i, alpha);
+        }
+        PROFILER.begin(FrameProfiler.Phase.BIRD);
+        if (world.isStarted()) {
+            bird.update(world, alpha, delta);
+        } else {
+            bird.updateAnimation(delta); // Update animations (not movement) if the game hasn't started yet
+        }
+        PROFILER.end(FrameProfiler.Phase.BIRD);
+
+        // Prepare the glyphs for score rendering (does nothing unless the scores changed)
+        PROFILER.begin(FrameProfiler.Phase.GLYPHS);
+        scoreLabel.setValue(font, score);
+        highScoreLabel.setValue(font, highScore);
+        PROFILER.end(FrameProfiler.Phase.GLYPHS);
+        if (PROFILER.isEnabled()) {
+            sounds.copyLatency(AUDIO_LATENCY);
+            saveEvents.copyLatency(SAVE_LATENCY);
+            profilerOverlay.update(PROFILER, AUDIO_LATENCY, SAVE_LATENCY, autopilot, pacer, renderStats, delta);
+        }
 
         /* Render */
+        PROFILER.begin(FrameProfiler.Phase.DRAW);
         // Apply the viewport to the camera and set the viewport to use for rendering
         VIEWPORT.apply(true);
         // Project textures to the viewport's camera
@@ -178,8 +385,19 @@ public class FlappyBird extends ApplicationAdapter {
         background.draw(batch);
 
         // Use the render methods to draw both pipes (top and bottom) at once per PipeGroup
-        pipes1.render(batch);
-        pipes2.render(batch);
+        for (PipeGroup p : pipes) {
+            p.render(batch);
+        }
+
+        // The ghosts fly behind the bird, and keep flying ahead of it once it died (the course stopped)
+        if (ghosts != null && world.isStarted()) {
+            PROFILER.begin(FrameProfiler.Phase.GHOSTS);
+            int tick = world.getRoundTick();
+            float offsetX = deathTick < 0 ? 0f
+                : (tick - deathTick - 1 + alpha) * -world.getConfig().getPipeSpeed() * TIMESTEP.getTickTime();
+            ghosts.draw(batch, tick, alpha, offsetX);
+            PROFILER.end(FrameProfiler.Phase.GHOSTS);
+        }
 
         // Use the sprite to draw the bird
         bird.SPRITE.draw(batch);
@@ -187,19 +405,274 @@ public class FlappyBird extends ApplicationAdapter {
         ground.render(batch);
 
         // Render the score in the center-top of the screen
-        font.draw(batch, scoreLayout, WIDTH / 2f - scoreLayout.width / 2f, HEIGHT - 50f);
+        scoreLabel.draw(batch, font, HEIGHT - 50f);
 
         // Render the high score under the score
-        font.draw(batch, highScoreLayout,
-            WIDTH / 2f - highScoreLayout.width / 2f, HEIGHT - scoreLayout.height - 75f);
+        highScoreLabel.draw(batch, font, HEIGHT - scoreLabel.getHeight() - 75f);
 
         // Render both the start and game over menus
         start.draw(batch);
-        if (bird.isDead) {
+        if (world.isDead()) {
             gameOver.draw(batch);
         }
 
-        batch.end();
+        batch.end(); // Flushes the batch
+
+        if (PROFILER.isEnabled()) {
+            renderStats.endFrame(batch); // The overlay (which has its own font texture) isn't counted
+            batch.begin();
+            profilerOverlay.draw(batch);
+            batch.end();
+        }
+        PROFILER.end(FrameProfiler.Phase.DRAW);
+
+        PROFILER.end(FrameProfiler.Phase.FRAME);
+        PROFILER.endFrame();
+        // Generate the upcoming pipe groups once the frame is drawn, so the steps never have to
+        world.getCourse().getGenerator().refill();
+        if (PROFILER.isEnabled()) {
+            dumpProfile(delta);
+        }
+
+        if (!startup.isComplete()) { // The first frame of the game
+            startup.frameRendered(true);
+            saveStartup();
+        }
+        if (pacer != null) {
+            updatePacing();
+        }
+    }
+
+    /**
+     * Draws the next frames at the full rate while something moves, and only a few per second (or only on a press)
+     * while a menu is shown.
+     */
+    private void updatePacing() {
+        FramePacer.Mode mode;
+        if (world.isStarted() && !world.isGrounded()) { // Playing, or the bird is still falling after it died
+            mode = FramePacer.Mode.PLAYING;
+        } else if (world.isDead() && autopilot == null && ghosts == null && !PROFILER.isEnabled()) {
+            mode = FramePacer.Mode.ON_EVENT; // Nothing moves until the next press
+        } else {
+            mode = FramePacer.Mode.IDLE; // The ground and ghosts keep moving, the attract mode's timers run, etc.
+        }
+        if (mode != pacer.getMode()) {
+            // Without continuous rendering, the backend only renders a frame when an input or window event arrives
+            Gdx.graphics.setContinuousRendering(mode != FramePacer.Mode.ON_EVENT);
+            pacer.setMode(mode);
+        }
+    }
+
+    /**
+     * Plays the sound effect of an event (on the render thread, the sound player mixes them on its own).
+     */
+    private void playSounds(GameEvent event) {
+        switch (event.getType()) {
+            case FLAP:
+                sounds.play(SoundEffect.FLAP);
+                break;
+            case SCORE:
+                sounds.play(SoundEffect.SCORE);
+                break;
+            case HIT: // The bird touched the ground or collided with a pipe
+                sounds.play(SoundEffect.HIT);
+                sounds.play(SoundEffect.DIE);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Updates the menus and the displayed scores after an event (on the render thread).
+     */
+    private void updateMenus(GameEvent event) {
+        switch (event.getType()) {
+            case FLAP: // The first flap starts the game
+                start.setAlpha(0f);
+                break;
+            case SCORE:
+                score = event.getScore();
+                break;
+            case HIT:
+                deathTick = event.getTick(); // The ghosts fly on from here
+                break;
+            case DEATH:
+                if (event.isPlayerRun()) { // Ranked by the saving thread meanwhile
+                    highScore = Math.max(highScore, event.getScore());
+                }
+                break;
+            case RESTART:
+                start.setAlpha(0.75f); // Show the start menu again
+                score = 0;
+                deathTick = -1;
+                break;
+        }
+    }
+
+    /**
+     * Ranks a finished run and saves its replay (on the saving thread, so the disk never holds up a frame).
+     */
+    private void saveRun(GameEvent event) {
+        if (event.isPlayerRun()) {
+            scores.submit(event.getScore(), event.getSeed()); // Written by the score store's own thread
+        }
+        if (event.getRecording() != null) {
+            saveReplay(event.getRecording().toReplay()); // Copied on this thread, not on the frame the run ended on
+        }
+    }
+
+    /**
+     * Lets the autopilot play until someone presses, then gives it the game back once the player left it idle.
+     *
+     * @param flap  Whether the player pressed this frame.
+     * @param delta The time since the last frame in seconds.
+     * @return Whether the press should still flap (or restart), false while the autopilot plays.
+     */
+    private boolean updateAttractMode(boolean flap, float delta) {
+        if (isAutopilotPlaying) {
+            if (flap) { // Someone wants to play, show them the start menu
+                isAutopilotPlaying = false;
+                idleTime = 0f;
+                restart();
+            } else if (world.isDead()) {
+                idleTime += delta;
+                if (idleTime >= AUTOPILOT_RESTART_DELAY) {
+                    idleTime = 0f;
+                    restart();
+                }
+            }
+            return false;
+        }
+
+        boolean isPlaying = world.isStarted() && !world.isDead();
+        idleTime = flap || isPlaying ? 0f : idleTime + delta;
+        if (idleTime >= ATTRACT_IDLE_TIME) {
+            isAutopilotPlaying = true;
+            idleTime = 0f;
+            restart();
+        }
+        return flap;
+    }
+
+    /**
+     * Finishes some of the loaded assets and draws the loading screen, then starts the game once everything is loaded.
+     */
+    private void renderLoading() {
+        ScreenUtils.clear(Color.BLACK);
+        VIEWPORT.apply(true);
+        batch.setProjectionMatrix(VIEWPORT.getCamera().combined);
+        boolean isLoaded = loading.update(batch);
+        startup.frameRendered(false);
+
+        if (isLoaded) {
+            startGame();
+        }
+    }
+
+    /**
+     * Logs the startup times and appends them to a CSV file (in the background, the game is running by now).
+     */
+    private void saveStartup() {
+        Gdx.app.log("FlappyBird", "First frame after " + startup.getTimeToFirstFrame() / 1_000_000L
+            + " ms, interactive after " + startup.getTimeToInteractive() / 1_000_000L + " ms");
+
+        Path file = Gdx.files.external(".flappybird/startup.csv").file().toPath();
+        long time = System.currentTimeMillis() - (System.nanoTime() - launchTime) / 1_000_000L; // When launched
+        Thread writer = new Thread(() -> {
+            try {
+                startup.write(file, time);
+            } catch (IOException e) {
+                Gdx.app.error("FlappyBird", "Couldn't save the startup times", e);
+            }
+        }, "StartupMetrics");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Hands the frame statistics to the CSV writer once the dump interval passed (appended on its own thread), then
+     * starts new statistics.
+     *
+     * @param delta The time since the last frame in seconds.
+     */
+    private void dumpProfile(float delta) {
+        dumpTimer += delta;
+        if (dumpTimer < DUMP_INTERVAL) {
+            return;
+        }
+        dumpTimer = 0f;
+        csvDump.submit(PROFILER, pacer != null ? pacer.getJitter() : null, System.currentTimeMillis());
+        PROFILER.resetHistograms();
+        if (pacer != null) {
+            pacer.getJitter().reset();
+        }
+    }
+
+    /**
+     * Logs the events a subscription dropped because it fell a whole ring behind (the others still got them).
+     */
+    private static void logDroppedEvents(String subscriber, EventRing.Subscription subscription) {
+        if (subscription.getDroppedCount() > 0L) {
+            Gdx.app.error("FlappyBird", subscription.getDroppedCount() + " game events were dropped by the "
+                + subscriber + " subscription");
+        }
+    }
+
+    /**
+     * Logs the CPU usage of every frame pacing mode and the jitter of the frames, to tell what an idle kiosk costs.
+     */
+    private void logPacing() {
+        StringBuilder message = new StringBuilder("CPU usage:");
+        for (FramePacer.Mode mode : FramePacer.Mode.values()) {
+            float usage = pacer.getCpuUsage(mode);
+            if (usage >= 0f) {
+                message.append(' ').append(mode.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(Math.round(usage * 1000f) / 10f).append('%');
+            }
+        }
+        LatencyHistogram jitter = pacer.getSessionJitter();
+        if (jitter.getCount() > 0L) {
+            message.append(", frame jitter p50 ").append(jitter.percentile(50.0) / 1000L)
+                .append(" us, p99 ").append(jitter.percentile(99.0) / 1000L).append(" us");
+        }
+        Gdx.app.log("FlappyBird", message.toString());
+    }
+
+    /**
+     * @return The simulated game state (e.g. for a bot to play the game), null until the assets are loaded.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * @return The time the game took to start (complete once the first frame of the game was shown).
+     */
+    public StartupMetrics getStartupMetrics() {
+        return startup;
+    }
+
+    /**
+     * @return The profiler timing the phases of every frame (e.g. to add a listener).
+     */
+    public FrameProfiler getProfiler() {
+        return PROFILER;
+    }
+
+    /**
+     * Saves a recorded run to the replay directory (named after the time and score).
+     *
+     * @param replay The run to save.
+     */
+    private void saveReplay(Replay replay) {
+        FileHandle file = replayDir.child("replay-" + System.currentTimeMillis() + "-" + replay.getScore() + ".fbr");
+        try {
+            replayDir.mkdirs();
+            replay.write(file.file().toPath());
+        } catch (IOException e) {
+            Gdx.app.error("FlappyBird", "Couldn't save the replay " + file.path(), e);
+        }
     }
 
     @Override
@@ -210,23 +683,51 @@ public class FlappyBird extends ApplicationAdapter {
 
     @Override
     public void dispose() {
-        saveData.flush(); // Must be flushed to finish saving data
+        if (loading != null) { // Closed while loading
+            loading.dispose();
+            batch.dispose();
+            return;
+        }
 
-        pipes2.dispose();
-        pipes1.dispose();
+        EVENTS.close(); // Waits for the runs that are still being ranked and saved
+        logDroppedEvents("sound", soundEvents);
+        logDroppedEvents("menu", uiEvents);
+        logDroppedEvents("saving", saveEvents);
+        try {
+            scores.close(); // Waits for the runs that are still being saved
+        } catch (IOException e) {
+            Gdx.app.error("FlappyBird", "Couldn't save every score", e);
+        }
+
+        for (PipeGroup p : pipes) {
+            p.dispose();
+        }
         bird.dispose();
+        if (ghosts != null) {
+            ghosts.dispose();
+        }
 
         ground.dispose();
-        background.getTexture().dispose();
+        AssetCache.releaseRegion("background");
 
-        start.getTexture().dispose();
-        gameOver.getTexture().dispose();
+        AssetCache.releaseRegion("start");
+        AssetCache.releaseRegion("gameover");
 
-        scoreSound.dispose();
-        hitSound.dispose();
-        dieSound.dispose();
+        sounds.dispose();
+        if (autopilot != null) {
+            autopilot.dispose();
+        }
+        if (pacer != null) {
+            logPacing();
+        }
 
-        font.dispose();
+        try {
+            csvDump.close(); // Writes the last submitted statistics
+        } catch (IOException e) {
+            Gdx.app.error("FlappyBird", "Couldn't save the frame statistics", e);
+        }
+        profilerOverlay.dispose();
+        FontLoader.unload(FONT, FONT_SIZE, font);
         batch.dispose();
     }
 }
@@ -0,0 +1,203 @@
+package com.rivelbop.flappybird;
+
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts the frames of the game at a steady rate, and slows them down while nothing moves much
+ * (e.g. the start menu or the game over menu), so an always-on kiosk doesn't burn CPU and GPU for nothing.
+ * <p>
+ * Where vsync paces the frames played (the default on desktop), only the slowed down frames are timed here.
+ * <p>
+ * Every wait sleeps until shortly before the frame is due, then sleeps in slices of half the time left and only
+ * spins (yielding) for the last few microseconds: a long sleep overshoots by up to a millisecond or two, a short one
+ * by far less. The margin left by the long sleep adapts to the worst overshoot seen recently, capped at half a
+ * millisecond, so a coarse timer starts frames a little late rather than keep a core busy.
+ * <p>
+ * <u>Metrics:</u> the jitter of the frames played at the full rate (how much each frame time differs from the
+ * previous one) and the CPU usage of the process in every mode.
+ */
+public class FramePacer {
+    public static final int DEFAULT_IDLE_FRAME_RATE = 20;
+    private static final long
+        MIN_MARGIN = 100_000L, // Nanoseconds before the deadline a long sleep always ends
+        MAX_MARGIN = 500_000L, // Coarse sleeps rather start frames late than wait in short slices for long
+        SPIN_TIME = 20_000L, // Nanoseconds only spun before a frame, shorter than any sleep
+        CPU_SAMPLE_INTERVAL = 1_000_000_000L; // Nanoseconds between two reads of the process' CPU time
+
+    /**
+     * How often frames are drawn.
+     */
+    public enum Mode {
+        PLAYING, // Every frame at the full rate
+        IDLE, // A few frames per second
+        ON_EVENT // Only when an input or window event asks for one (see Graphics.setContinuousRendering())
+    }
+
+    private final long ACTIVE_INTERVAL, IDLE_INTERVAL; // Nanoseconds between the start of two frames
+    private final LatencyHistogram
+        JITTER = new LatencyHistogram(), // Since the last reset (e.g. a profile dump)
+        SESSION_JITTER = new LatencyHistogram(); // Since the pacer was created
+    private Mode mode = Mode.PLAYING;
+    private long
+        frameStart = -1L, // When the current frame started, -1 before the first frame
+        deadline, // When the next frame is due
+        frameTime, // The time between the start of the last two frames
+        margin = MIN_MARGIN; // How long before the deadline the long sleep ends
+    private boolean wasPlaying; // Whether the last frame was paced at the full rate
+
+    /* CPU Usage (by mode) */
+    private final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+    private final long[]
+        CPU_TIME = new long[Mode.values().length],
+        WALL_TIME = new long[Mode.values().length];
+    private long lastCpuTime = -1L, lastSampleTime; // The last read of the CPU time, -1 if it can't be read
+
+    /**
+     * @param frameRate     The frames per second while playing, or 0 to not limit them (e.g. when vsync already
+     *                      paces the frames).
+     * @param idleFrameRate The frames per second while idle.
+     */
+    public FramePacer(int frameRate, int idleFrameRate) {
+        if (frameRate < 0 || idleFrameRate <= 0) {
+            throw new IllegalArgumentException("Invalid frame rates: " + frameRate + ", " + idleFrameRate);
+        }
+        ACTIVE_INTERVAL = frameRate == 0 ? 0L : 1_000_000_000L / frameRate;
+        IDLE_INTERVAL = 1_000_000_000L / idleFrameRate;
+    }
+
+    /**
+     * Waits until the next frame is due in the current mode, right before it starts.
+     *
+     * @return The time since the start of the previous frame in seconds (0 for the first frame).
+     */
+    public float awaitFrame() {
+        long now = System.nanoTime();
+        if (frameStart < 0L) {
+            frameStart = deadline = lastSampleTime = now;
+            lastCpuTime = readCpuTime();
+            return 0f;
+        }
+        if (mode != Mode.ON_EVENT && now < deadline) {
+            now = sleepUntil(deadline, now);
+        }
+
+        long previousFrameTime = frameTime;
+        frameTime = now - frameStart;
+        boolean isPlaying = mode == Mode.PLAYING;
+        if (isPlaying && wasPlaying) {
+            long jitter = Math.abs(frameTime - previousFrameTime);
+            JITTER.record(jitter);
+            SESSION_JITTER.record(jitter);
+        }
+        wasPlaying = isPlaying;
+        frameStart = now;
+
+        // Keep the cadence of the deadlines, unless a whole frame was missed (don't rush frames to catch up)
+        long interval = isPlaying ? ACTIVE_INTERVAL : IDLE_INTERVAL;
+        deadline = now - deadline < interval ? deadline + interval : now + interval;
+
+        if (now - lastSampleTime >= CPU_SAMPLE_INTERVAL) {
+            sampleCpu(now);
+        }
+        return frameTime / 1_000_000_000f;
+    }
+
+    /**
+     * Sleeps until shortly before a deadline, then in shorter and shorter slices, and spins until it passed.
+     *
+     * @return The time the deadline passed, from {@link System#nanoTime()}.
+     */
+    private long sleepUntil(long deadline, long now) {
+        long sleep = deadline - now - margin;
+        if (sleep > 0L) {
+            LockSupport.parkNanos(sleep);
+            long overshoot = System.nanoTime() - now - sleep;
+            // Follow a larger overshoot at once, forget a smaller one slowly
+            margin = Math.max(overshoot + MIN_MARGIN, margin - margin / 16L);
+            margin = Math.min(MAX_MARGIN, Math.max(MIN_MARGIN, margin));
+        }
+        while ((now = System.nanoTime()) < deadline) {
+            long left = deadline - now;
+            if (left > SPIN_TIME) {
+                LockSupport.parkNanos(left / 2L);
+            } else {
+                Thread.yield();
+            }
+        }
+        return now;
+    }
+
+    /**
+     * Changes how often the next frames are drawn, starting with the next one.
+     *
+     * @param mode The new mode.
+     */
+    public void setMode(Mode mode) {
+        if (mode == this.mode) {
+            return;
+        }
+        sampleCpu(System.nanoTime()); // The time so far belongs to the old mode
+        this.mode = mode;
+        if (frameStart >= 0L) { // E.g. the first frame of a round isn't held back by the idle rate
+            deadline = frameStart + (mode == Mode.PLAYING ? ACTIVE_INTERVAL : IDLE_INTERVAL);
+        }
+    }
+
+    /**
+     * Adds the CPU time used since the last sample to the current mode.
+     */
+    private void sampleCpu(long now) {
+        if (lastCpuTime < 0L) {
+            return;
+        }
+        long cpuTime = readCpuTime();
+        CPU_TIME[mode.ordinal()] += cpuTime - lastCpuTime;
+        WALL_TIME[mode.ordinal()] += now - lastSampleTime;
+        lastCpuTime = cpuTime;
+        lastSampleTime = now;
+    }
+
+    /**
+     * @return The CPU time used by the whole process in nanoseconds, or -1 if the JVM can't tell.
+     */
+    private long readCpuTime() {
+        if (OS instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) OS).getProcessCpuTime();
+        }
+        return -1L;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return How much each frame time played at the full rate differed from the previous one,
+     * since the histogram was last reset.
+     */
+    public LatencyHistogram getJitter() {
+        return JITTER;
+    }
+
+    /**
+     * @return How much each frame time played at the full rate differed from the previous one, over the whole session
+     * (not reset with {@link #getJitter()}).
+     */
+    public LatencyHistogram getSessionJitter() {
+        return SESSION_JITTER;
+    }
+
+    /**
+     * @param mode The mode to look at.
+     * @return The CPU time of the process per second spent in the mode (1 is a whole core),
+     * or -1 if it is unknown (no time spent in the mode yet, or the JVM can't tell).
+     */
+    public float getCpuUsage(Mode mode) {
+        long wallTime = WALL_TIME[mode.ordinal()];
+        return wallTime == 0L ? -1f : (float) CPU_TIME[mode.ordinal()] / wallTime;
+    }
+}
@@ -0,0 +1,188 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.sim.GhostStream;
+import com.rivelbop.flappybird.sim.World;
+
+import java.io.IOException;
+
+/**
+ * Draws the ghost birds of a {@link GhostStream} as a translucent crowd racing the player.
+ * No object is kept per ghost: the samples of the stream are turned straight into the vertices of a reused buffer,
+ * which is handed to the batch a block of ghosts at a time. Every ghost is drawn from the atlas texture the bird's
+ * frames share, so the whole crowd is drawn between the pipes and the bird without switching textures.
+ * <p>
+ * Ghosts that are dead or off-screen are skipped, and at most {@link #getMaxDrawn()} ghosts are drawn per frame
+ * (the longest runs), so the frame time stops growing with the size of the ghost file.
+ */
+public class GhostLayer implements Disposable {
+    private static final String[] FRAMES = {"bird_0", "bird_1", "bird_2"}; // Images of the atlas (see Bird)
+    private static final float
+        FRAME_TIME = 0.167f, // Same wing beat as the bird
+        TINT = Color.toFloatBits(1f, 1f, 1f, 0.35f), // Translucent, so the player's bird stands out
+        HALF_WIDTH = World.BIRD_WIDTH * World.BIRD_SCALE / 2f,
+        HALF_HEIGHT = World.BIRD_HEIGHT * World.BIRD_SCALE / 2f,
+        RADIUS = (float) Math.sqrt(HALF_WIDTH * HALF_WIDTH + HALF_HEIGHT * HALF_HEIGHT); // Any rotation fits
+    private static final int
+        VERTEX_SIZE = 5, // x, y, color, u, v (the layout of SpriteBatch)
+        SPRITE_SIZE = 4 * VERTEX_SIZE,
+        BLOCK = 1024; // Ghosts handed to the batch at once
+
+    private final GhostStream STREAM;
+    private final int MAX_DRAWN, FRAME_TICKS;
+    private final TextureRegion[] REGIONS;
+    private final Texture TEXTURE;
+    private final float[] VERTICES = new float[BLOCK * SPRITE_SIZE];
+    private final float[] U = new float[FRAMES.length], V = new float[FRAMES.length],
+        U2 = new float[FRAMES.length], V2 = new float[FRAMES.length];
+    private boolean isFailed; // Stops drawing once the file couldn't be read (reported once)
+
+    /**
+     * @param stream   The ghosts to draw, closed along with the layer.
+     * @param maxDrawn The most ghosts drawn per frame.
+     */
+    public GhostLayer(GhostStream stream, int maxDrawn) {
+        if (maxDrawn <= 0) {
+            throw new IllegalArgumentException("At least one ghost must be drawn");
+        }
+        STREAM = stream;
+        MAX_DRAWN = maxDrawn;
+        FRAME_TICKS = Math.max(1, Math.round(stream.getTickRate() * FRAME_TIME));
+
+        REGIONS = new TextureRegion[FRAMES.length];
+        for (int i = 0; i < FRAMES.length; i++) {
+            REGIONS[i] = AssetCache.region(FRAMES[i]);
+        }
+        TEXTURE = REGIONS[0].getTexture();
+        for (int i = 0; i < FRAMES.length; i++) {
+            // Without the atlas every frame has its own texture, only the first one is drawn then
+            TextureRegion region = REGIONS[i].getTexture() == TEXTURE ? REGIONS[i] : REGIONS[0];
+            U[i] = region.getU();
+            V[i] = region.getV();
+            U2[i] = region.getU2();
+            V2[i] = region.getV2();
+        }
+    }
+
+    /**
+     * Starts reading the ghosts from their first tick again (e.g. when the game is restarted).
+     */
+    public void rewind() {
+        STREAM.rewind();
+    }
+
+    /**
+     * Draws every ghost that is alive and on-screen, interpolated between two ticks like the player's bird.
+     *
+     * @param batch   The batch, which must have begun.
+     * @param ticks   How many ticks of the game were simulated since it started (at least 1).
+     * @param alpha   How far to interpolate between the previous and current tick.
+     * @param offsetX The horizontal offset of every ghost (e.g. to scroll the crowd away once the player died).
+     */
+    public void draw(SpriteBatch batch, int ticks, float alpha, float offsetX) {
+        float x = World.BIRD_X + offsetX;
+        int sample = ticks - 1; // The ghosts' state after the current tick
+        if (isFailed || sample < 0 || x + RADIUS < 0f || x - RADIUS > World.WIDTH) {
+            return;
+        }
+        try {
+            if (!STREAM.seek(sample)) {
+                return; // Still being read, skipped on this frame rather than waiting for the file
+            }
+        } catch (IOException e) {
+            isFailed = true;
+            Gdx.app.error("GhostLayer", "Couldn't read the ghosts, they won't be drawn anymore", e);
+            return;
+        }
+
+        int alive = Math.min(STREAM.getAliveCount(sample), MAX_DRAWN);
+        int frameIndex = sample / FRAME_TICKS, count = 0;
+        for (int ghost = 0; ghost < alive; ghost++) {
+            float previousY = STREAM.getY(ghost, sample - 1);
+            float y = previousY + (STREAM.getY(ghost, sample) - previousY) * alpha;
+            if (y + RADIUS < 0f || y - RADIUS > World.HEIGHT) {
+                continue;
+            }
+            float previousRotation = STREAM.getRotation(ghost, sample - 1);
+            float rotation = previousRotation + (STREAM.getRotation(ghost, sample) - previousRotation) * alpha;
+
+            put(count++, x, y, rotation, (frameIndex + ghost) % FRAMES.length); // Staggered wing beats
+            if (count == BLOCK) {
+                batch.draw(TEXTURE, VERTICES, 0, count * SPRITE_SIZE);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            batch.draw(TEXTURE, VERTICES, 0, count * SPRITE_SIZE);
+        }
+    }
+
+    /**
+     * Writes the four vertices of a ghost, in the order SpriteBatch draws a sprite in.
+     */
+    private void put(int index, float x, float y, float rotation, int frame) {
+        float cos = MathUtils.cosDeg(rotation), sin = MathUtils.sinDeg(rotation);
+        // Rotated half extents, the corners are the center plus or minus their sums
+        float wCos = HALF_WIDTH * cos, wSin = HALF_WIDTH * sin, hCos = HALF_HEIGHT * cos, hSin = HALF_HEIGHT * sin;
+        float u = U[frame], v = V[frame], u2 = U2[frame], v2 = V2[frame];
+
+        float[] vertices = VERTICES;
+        int i = index * SPRITE_SIZE;
+        vertices[i] = x - wCos + hSin; // Bottom left
+        vertices[i + 1] = y - wSin - hCos;
+        vertices[i + 2] = TINT;
+        vertices[i + 3] = u;
+        vertices[i + 4] = v2;
+
+        vertices[i + 5] = x - wCos - hSin; // Top left
+        vertices[i + 6] = y - wSin + hCos;
+        vertices[i + 7] = TINT;
+        vertices[i + 8] = u;
+        vertices[i + 9] = v;
+
+        vertices[i + 10] = x + wCos - hSin; // Top right
+        vertices[i + 11] = y + wSin + hCos;
+        vertices[i + 12] = TINT;
+        vertices[i + 13] = u2;
+        vertices[i + 14] = v;
+
+        vertices[i + 15] = x + wCos + hSin; // Bottom right
+        vertices[i + 16] = y + wSin - hCos;
+        vertices[i + 17] = TINT;
+        vertices[i + 18] = u2;
+        vertices[i + 19] = v2;
+    }
+
+    /**
+     * @return The most ghosts drawn per frame.
+     */
+    public int getMaxDrawn() {
+        return MAX_DRAWN;
+    }
+
+    /**
+     * @return How many ghosts the file holds.
+     */
+    public int getGhostCount() {
+        return STREAM.getGhostCount();
+    }
+
+    @Override
+    public void dispose() {
+        for (String frame : FRAMES) {
+            AssetCache.releaseRegion(frame);
+        }
+        try {
+            STREAM.close();
+        } catch (IOException e) {
+            Gdx.app.error("GhostLayer", "Couldn't close the ghost file", e);
+        }
+    }
+}
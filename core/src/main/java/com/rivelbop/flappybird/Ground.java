@@ -1,38 +1,38 @@
 package com.rivelbop.flappybird;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.sim.World;
 
 public class Ground implements Disposable {
-    private final Texture TEXTURE = new Texture("ground.png");
+    private final TextureRegion REGION = AssetCache.region("ground");
     private final Sprite // Both parts are used to loop the ground seamlessly
-        SPRITE_0 = new Sprite(TEXTURE), // First part of the ground
-        SPRITE_1 = new Sprite(TEXTURE); // Second part of the ground
-    private final float SPEED = -250f; // The speed the ground moves
+        SPRITE_0 = new Sprite(REGION), // First part of the ground
+        SPRITE_1 = new Sprite(REGION); // Second part of the ground
 
     public Ground() {
-        float scale = FlappyBird.WIDTH / SPRITE_0.getWidth(); // Scale the ground parts to be the size of the game width
+        float scale = World.WIDTH / SPRITE_0.getWidth(); // Scale the ground parts to be the size of the game width
         SPRITE_0.setSize(SPRITE_0.getWidth() * scale, SPRITE_0.getHeight() * scale);
         SPRITE_0.setY(-SPRITE_0.getHeight() / 4f);
 
         SPRITE_1.setSize(SPRITE_1.getWidth() * scale, SPRITE_1.getHeight() * scale);
-        SPRITE_1.setPosition(FlappyBird.WIDTH, -SPRITE_1.getHeight() / 4f);
+        SPRITE_1.setPosition(World.WIDTH, -SPRITE_1.getHeight() / 4f);
     }
 
-    public void update() {
-        float speed = SPEED * Gdx.graphics.getDeltaTime();
-        SPRITE_0.translateX(speed);
-        SPRITE_1.translateX(speed);
-
-        // Set the ground parts to be right before each other when they are completely off-screen
-        if (SPRITE_0.getX() <= -FlappyBird.WIDTH) {
-            SPRITE_0.setX(SPRITE_1.getX() + FlappyBird.WIDTH);
-        } else if (SPRITE_1.getX() <= -FlappyBird.WIDTH) {
-            SPRITE_1.setX(SPRITE_0.getX() + FlappyBird.WIDTH);
-        }
+    /**
+     * Places both ground parts using the world's scroll offset.
+     *
+     * @param world The world that scrolls the ground.
+     * @param alpha How far to interpolate between the world's previous and current step.
+     */
+    public void update(World world, float alpha) {
+        // Set the ground parts to be right after each other
+        float x = world.getGroundX(alpha);
+        SPRITE_0.setX(x);
+        SPRITE_1.setX(x + World.WIDTH);
     }
 
     public void render(SpriteBatch batch) {
@@ -51,6 +51,6 @@ public class Ground implements Disposable {
 
     @Override
     public void dispose() {
-        TEXTURE.dispose();
+        AssetCache.releaseRegion("ground");
     }
 }
@@ -0,0 +1,44 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Shown while the assets load: a progress bar in the middle of the screen.
+ * Only needs a 1x1 white texture, so it is ready before anything was read from disk.
+ */
+public class LoadingScreen implements Disposable {
+    private static final float BAR_WIDTH = FlappyBird.WIDTH * 0.6f, BAR_HEIGHT = 12f;
+
+    private final Texture PIXEL;
+
+    public LoadingScreen() {
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        PIXEL = new Texture(pixmap);
+        pixmap.dispose();
+    }
+
+    /**
+     * Draws the progress bar.
+     *
+     * @param batch    The batch to draw to (between begin() and end()).
+     * @param progress How much was loaded, from 0 to 1.
+     */
+    public void draw(SpriteBatch batch, float progress) {
+        float x = (FlappyBird.WIDTH - BAR_WIDTH) / 2f, y = (FlappyBird.HEIGHT - BAR_HEIGHT) / 2f;
+        batch.setColor(Color.DARK_GRAY);
+        batch.draw(PIXEL, x, y, BAR_WIDTH, BAR_HEIGHT);
+        batch.setColor(Color.WHITE);
+        batch.draw(PIXEL, x, y, BAR_WIDTH * Math.max(0f, Math.min(1f, progress)), BAR_HEIGHT);
+    }
+
+    @Override
+    public void dispose() {
+        PIXEL.dispose();
+    }
+}
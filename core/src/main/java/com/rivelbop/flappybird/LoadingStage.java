@@ -0,0 +1,238 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.assets.AssetLoader;
+import com.rivelbop.flappybird.assets.FontLoader;
+import com.rivelbop.flappybird.assets.MaskLoader;
+import com.rivelbop.flappybird.audio.AudioMixer;
+import com.rivelbop.flappybird.audio.DirectSoundPlayer;
+import com.rivelbop.flappybird.audio.PcmClip;
+import com.rivelbop.flappybird.audio.SoundPlayer;
+import com.rivelbop.flappybird.scores.ScoreStore;
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.GhostStream;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads everything the game needs before its first frame, behind a {@link LoadingScreen}.
+ * Reading and decoding runs on the {@link AssetLoader}'s worker threads, the GL uploads are spread over the loading
+ * frames. Once {@link #update(SpriteBatch)} reports that everything is loaded, the game takes the assets and ends
+ * the stage with {@link #finish()}, or {@link #dispose()} throws away whatever was loaded if the game is closed first.
+ */
+public class LoadingStage implements Disposable {
+    private static final long LOAD_BUDGET = 4_000_000L; // Nanoseconds per frame spent finishing assets (e.g. uploads)
+
+    private final AssetLoader LOADER = new AssetLoader();
+    private final LoadingScreen SCREEN = new LoadingScreen();
+    private final int TICK_RATE; // Of the game, the ghosts must have been recorded at the same rate
+    private boolean isAtlasPreloaded; // Whether the loader holds a reference to the atlas until the game starts
+
+    /* Loaded */
+    private BitmapFont font;
+    private SoundPlayer sounds;
+    private CollisionMasks masks;
+    private ScoreStore scores;
+    private GhostStream ghosts;
+
+    /**
+     * Starts loading every asset.
+     *
+     * @param tickRate How many ticks per second the game simulates.
+     */
+    public LoadingStage(int tickRate) {
+        TICK_RATE = tickRate;
+
+        // Read and decode everything on worker threads, only the GL uploads are left to the loading frames
+        isAtlasPreloaded = AssetCache.preloadAtlas(LOADER);
+        // Finished after the atlas (which holds the pre-rendered font's page), only generated when it wasn't baked
+        LOADER.submit(() -> FontLoader.loadData(FlappyBird.FONT, FlappyBird.FONT_SIZE),
+            data -> font = FontLoader.create(FlappyBird.FONT, FlappyBird.FONT_SIZE, data));
+        LOADER.submit(LoadingStage::loadClips, clips -> sounds = createSoundPlayer(clips));
+        // Pixel-precise collisions (computed once from the images)
+        LOADER.submit(MaskLoader::load, loaded -> masks = loaded);
+        LOADER.submit(LoadingStage::openScores, store -> scores = store);
+        LOADER.submit(this::openGhosts, stream -> ghosts = stream);
+    }
+
+    /**
+     * Finishes some of the loaded assets and draws the loading screen.
+     *
+     * @param batch The batch to draw with, projected to the game's viewport (not drawing yet).
+     * @return Whether everything is loaded.
+     */
+    public boolean update(SpriteBatch batch) {
+        boolean isLoaded = LOADER.update(LOAD_BUDGET);
+        batch.begin();
+        SCREEN.draw(batch, LOADER.getProgress());
+        batch.end();
+        return isLoaded;
+    }
+
+    /**
+     * Ends the stage once the game holds its own references to the assets it took (e.g. regions of the atlas).
+     */
+    public void finish() {
+        LOADER.dispose();
+        SCREEN.dispose();
+        if (isAtlasPreloaded) { // Every region holds its own reference by now
+            AssetCache.release(AssetCache.ATLAS);
+            isAtlasPreloaded = false;
+        }
+    }
+
+    /**
+     * @return The score font (must be unloaded with {@link FontLoader#unload}).
+     */
+    public BitmapFont getFont() {
+        return font;
+    }
+
+    /**
+     * @return The sound player (must be disposed).
+     */
+    public SoundPlayer getSounds() {
+        return sounds;
+    }
+
+    public CollisionMasks getMasks() {
+        return masks;
+    }
+
+    /**
+     * @return The saved runs (must be closed).
+     */
+    public ScoreStore getScores() {
+        return scores;
+    }
+
+    /**
+     * @return The ghosts to race (must be closed), null if there are none.
+     */
+    public GhostStream getGhosts() {
+        return ghosts;
+    }
+
+    /**
+     * Reads the sound effects decoded by the bakeSounds task (called on a loader thread).
+     *
+     * @return The clips of the audio mixer, or null if it can't be used (without a real audio device,
+     * or when the sounds weren't decoded).
+     */
+    private static PcmClip[] loadClips() {
+        if (Gdx.app.getType() == Application.ApplicationType.HeadlessDesktop) {
+            return null;
+        }
+        try {
+            return AudioMixer.loadClips();
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("FlappyBird", "Couldn't read the mixed sounds, playing them directly", e);
+            return null;
+        }
+    }
+
+    /**
+     * Mixes the sound effects on a thread of their own, or plays them directly when the mixer can't be used.
+     *
+     * @param clips The clips of the mixer, or null to play the sounds directly.
+     * @return The sound player (must be disposed).
+     */
+    private static SoundPlayer createSoundPlayer(PcmClip[] clips) {
+        if (clips != null) {
+            try {
+                return new AudioMixer(clips);
+            } catch (GdxRuntimeException e) {
+                Gdx.app.error("FlappyBird", "Couldn't start the audio mixer, playing the sounds directly", e);
+            }
+        }
+        return new DirectSoundPlayer();
+    }
+
+    /**
+     * Loads the saved runs (called on a loader thread).
+     * The high score saved in the preferences by older versions is carried over once.
+     *
+     * @return The store, which only keeps the runs in memory if the log can't be used.
+     */
+    private static ScoreStore openScores() {
+        ScoreStore store;
+        try {
+            store = new ScoreStore(Gdx.files.external(".flappybird/scores.log").file().toPath());
+        } catch (IOException e) {
+            Gdx.app.error("FlappyBird", "Couldn't load the scores, this session's won't be saved", e);
+            store = new ScoreStore(ScoreStore.DEFAULT_CAPACITY);
+        }
+
+        Preferences legacy = Gdx.app.getPreferences("FlappyBird");
+        int legacyHighScore = legacy.getInteger("highScore", 0);
+        if (store.getRunCount() == 0L && legacyHighScore > 0) {
+            store.submit(legacyHighScore, 0L); // The course of that run is unknown
+        }
+        return store;
+    }
+
+    /**
+     * Opens the ghosts baked by the bakeGhosts task (called on a loader thread).
+     *
+     * @return The ghosts, or null if there are none, they were recorded at another tick rate or can't be read.
+     */
+    private GhostStream openGhosts() {
+        Path file = Gdx.files.external(".flappybird/ghosts.fbg").file().toPath();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            GhostStream stream = new GhostStream(file);
+            if (stream.getTickRate() == TICK_RATE) {
+                return stream;
+            }
+            Gdx.app.error("FlappyBird", "The ghosts were recorded at " + stream.getTickRate()
+                + " ticks per second instead of " + TICK_RATE + ", bake them again");
+            stream.close();
+        } catch (IOException e) {
+            Gdx.app.error("FlappyBird", "Couldn't open the ghosts", e);
+        }
+        return null;
+    }
+
+    /**
+     * Disposes whatever finished loading when the game is closed before it started.
+     */
+    @Override
+    public void dispose() {
+        LOADER.dispose(); // Abandons the assets that are still being decoded
+        SCREEN.dispose();
+        if (scores != null) {
+            try {
+                scores.close();
+            } catch (IOException e) {
+                Gdx.app.error("FlappyBird", "Couldn't save every score", e);
+            }
+        }
+        if (sounds != null) {
+            sounds.dispose();
+        }
+        if (font != null) {
+            FontLoader.unload(FlappyBird.FONT, FlappyBird.FONT_SIZE, font);
+        }
+        if (ghosts != null) {
+            try {
+                ghosts.close();
+            } catch (IOException e) {
+                Gdx.app.error("FlappyBird", "Couldn't close the ghost file", e);
+            }
+        }
+        if (isAtlasPreloaded && AssetCache.getRefCount(AssetCache.ATLAS) > 0) { // The atlas job finished
+            AssetCache.release(AssetCache.ATLAS);
+        }
+    }
+}
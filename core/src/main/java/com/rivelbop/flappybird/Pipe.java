@@ -1,19 +1,21 @@
 package com.rivelbop.flappybird;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.sim.World;
 
 public class Pipe implements Disposable {
-    public final Sprite SPRITE = new Sprite(new Texture("pipe.png"));
+    private static final String IMAGE = "pipe";
+    public final Sprite SPRITE = new Sprite(AssetCache.region(IMAGE)); // Region of the atlas shared by every pipe
 
     public Pipe(boolean isFlipped) {
-        SPRITE.setScale(2f); // The texture is too small, double the size of the sprite
+        SPRITE.setScale(World.PIPE_SCALE); // The texture is too small, double the size of the sprite
         SPRITE.setFlip(false, isFlipped); // Flip the pipe vertically (if prompted)
     }
 
     @Override
     public void dispose() {
-        SPRITE.getTexture().dispose(); // Dispose of the texture created for the sprite
+        AssetCache.releaseRegion(IMAGE); // Release the shared atlas (disposed after its last user)
     }
 }
@@ -0,0 +1,125 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.autopilot.Autopilot;
+import com.rivelbop.flappybird.profiling.FrameProfiler;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+import java.util.Locale;
+
+/**
+ * Shows the p50, p99 and max time of every frame phase (in microseconds) in the top-left corner,
+ * along with the latency of the sound effects and of the saving thread, the autopilot's planning, the frame jitter,
+ * the CPU usage and the draw calls of the last frame.
+ * The text is only laid out again a few times per second, so it stays readable and cheap.
+ */
+public class ProfilerOverlay implements Disposable {
+    private static final float REFRESH_TIME = 0.5f; // Seconds between two layouts of the text
+
+    private final BitmapFont FONT = new BitmapFont(); // The small font bundled with libGDX (has every character)
+    private final GlyphLayout LAYOUT = new GlyphLayout();
+    private final StringBuilder TEXT = new StringBuilder();
+    private final LatencyHistogram PLANNING_LATENCY = new LatencyHistogram(); // Copied from the autopilot
+    private float refreshTimer = REFRESH_TIME; // Lays out the text on the first update
+
+    /**
+     * Lays out the statistics again when the refresh time passed.
+     *
+     * @param profiler     The profiler to show.
+     * @param audioLatency The time from playing a sound to hearing it (not shown when empty).
+     * @param saveLatency  The time from publishing a game event to handling it on the saving thread (not shown when
+     *                     empty).
+     * @param autopilot    The autopilot, or null when it is disabled.
+     * @param pacer        The frame pacer, or null when the backend paces the frames.
+     * @param renderStats  The draw calls of the last frame.
+     * @param delta        The time since the last update in seconds.
+     */
+    public void update(FrameProfiler profiler, LatencyHistogram audioLatency, LatencyHistogram saveLatency,
+                       Autopilot autopilot, FramePacer pacer, RenderStats renderStats, float delta) {
+        refreshTimer += delta;
+        if (refreshTimer < REFRESH_TIME) {
+            return;
+        }
+        refreshTimer = 0f;
+
+        TEXT.setLength(0);
+        TEXT.append("phase  p50  p99  max (us)");
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            LatencyHistogram histogram = profiler.getHistogram(phase);
+            if (histogram == null || histogram.getCount() == 0L) {
+                continue;
+            }
+            appendRow(phase.name().toLowerCase(Locale.ROOT), histogram);
+        }
+        if (audioLatency.getCount() > 0L) {
+            appendRow("audio", audioLatency);
+        }
+        if (saveLatency.getCount() > 0L) {
+            appendRow("save", saveLatency); // Event published to handled by the saving thread
+        }
+        if (autopilot != null) {
+            autopilot.copyPlanningLatency(PLANNING_LATENCY);
+            if (PLANNING_LATENCY.getCount() > 0L) {
+                appendRow("plan", PLANNING_LATENCY); // Snapshot to published plan
+            }
+            if (autopilot.getDecisionStaleness().getCount() > 0L) {
+                appendRow("stale", autopilot.getDecisionStaleness()); // Age of the followed decisions
+            }
+        }
+        if (pacer != null && pacer.getJitter().getCount() > 0L) {
+            appendRow("jitter", pacer.getJitter()); // Difference between two frame times
+        }
+        TEXT.append("\ndraws ").append(renderStats.getDrawCalls())
+            .append("  binds ").append(renderStats.getTextureBindings())
+            .append("  flushes ").append(renderStats.getFlushes());
+        if (autopilot != null) {
+            TEXT.append("\nautopilot depth ").append(autopilot.getLastDepth());
+        }
+        if (pacer != null) {
+            TEXT.append("\ncpu");
+            for (FramePacer.Mode mode : FramePacer.Mode.values()) {
+                float usage = pacer.getCpuUsage(mode);
+                if (usage >= 0f) {
+                    TEXT.append("  ").append(mode.name().toLowerCase(Locale.ROOT)).append(' ');
+                    long tenths = Math.round(usage * 1000f);
+                    TEXT.append(tenths / 10L).append('.').append(tenths % 10L).append('%');
+                }
+            }
+        }
+        LAYOUT.setText(FONT, TEXT, Color.YELLOW, 0f, Align.left, false);
+    }
+
+    private void appendRow(String name, LatencyHistogram histogram) {
+        TEXT.append('\n').append(name).append("  ");
+        appendMicros(histogram.percentile(50.0)).append("  ");
+        appendMicros(histogram.percentile(99.0)).append("  ");
+        appendMicros(histogram.getMax());
+    }
+
+    /**
+     * Appends a duration in microseconds with one decimal (without String.format).
+     */
+    private StringBuilder appendMicros(long nanos) {
+        long tenths = (nanos + 50L) / 100L;
+        return TEXT.append(tenths / 10L).append('.').append(tenths % 10L);
+    }
+
+    /**
+     * Draws the statistics in the top-left corner.
+     *
+     * @param batch The batch to draw to.
+     */
+    public void draw(SpriteBatch batch) {
+        FONT.draw(batch, LAYOUT, 8f, FlappyBird.HEIGHT - 8f);
+    }
+
+    @Override
+    public void dispose() {
+        FONT.dispose();
+    }
+}
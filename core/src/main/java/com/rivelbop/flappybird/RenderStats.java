@@ -0,0 +1,58 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+/**
+ * Counts the GL draw calls, texture binds and batch flushes of a frame, to check that the frame is drawn
+ * in as few batches as the atlas allows. Only counts while enabled (the GL calls are intercepted meanwhile).
+ */
+public class RenderStats {
+    private final GLProfiler GL_PROFILER = new GLProfiler(Gdx.graphics);
+    private int drawCalls, textureBindings, flushes;
+
+    /**
+     * @param isEnabled Whether to count the GL calls.
+     */
+    public void setEnabled(boolean isEnabled) {
+        if (isEnabled) {
+            GL_PROFILER.enable();
+        } else {
+            GL_PROFILER.disable();
+        }
+    }
+
+    /**
+     * Starts counting a frame.
+     */
+    public void beginFrame() {
+        GL_PROFILER.reset();
+    }
+
+    /**
+     * Keeps the counts of the frame, anything drawn afterwards (e.g. the overlay showing them) isn't counted.
+     *
+     * @param batch The batch the frame was drawn with, after {@link SpriteBatch#end()}.
+     */
+    public void endFrame(SpriteBatch batch) {
+        drawCalls = GL_PROFILER.getDrawCalls();
+        textureBindings = GL_PROFILER.getTextureBindings();
+        flushes = batch.renderCalls;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    public int getTextureBindings() {
+        return textureBindings;
+    }
+
+    /**
+     * @return How many times the batch was flushed (each flush is one draw call).
+     */
+    public int getFlushes() {
+        return flushes;
+    }
+}
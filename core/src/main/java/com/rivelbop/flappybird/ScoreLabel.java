@@ -0,0 +1,60 @@
+package com.rivelbop.flappybird;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.utils.Align;
+
+/**
+ * Displays a number centered on the screen.
+ * The glyph layout is only rebuilt when the number changes, so drawing it every frame doesn't allocate.
+ */
+public class ScoreLabel {
+    private final GlyphLayout LAYOUT = new GlyphLayout(); // Used to render the number using the BitmapFont
+    private final StringBuilder TEXT = new StringBuilder(); // Reused to avoid Integer.toString()
+    private final Color COLOR;
+    private int value = -1; // The number currently laid out (-1 forces the first layout)
+
+    /**
+     * @param color The color of the text.
+     */
+    public ScoreLabel(Color color) {
+        COLOR = color;
+    }
+
+    /**
+     * Prepares the glyphs for the number, does nothing if it is already displayed.
+     *
+     * @param font  The font to render with.
+     * @param value The number to display.
+     */
+    public void setValue(BitmapFont font, int value) {
+        if (value == this.value) {
+            return;
+        }
+        this.value = value;
+
+        TEXT.setLength(0);
+        TEXT.append(value);
+        LAYOUT.setText(font, TEXT, COLOR, 0f, Align.left, false);
+    }
+
+    /**
+     * Draws the number horizontally centered on the screen.
+     *
+     * @param batch The batch to draw to.
+     * @param font  The font the number was laid out with.
+     * @param y     The y-pos of the top of the text.
+     */
+    public void draw(SpriteBatch batch, BitmapFont font, float y) {
+        font.draw(batch, LAYOUT, FlappyBird.WIDTH / 2f - LAYOUT.width / 2f, y);
+    }
+
+    /**
+     * @return The height of the laid out text.
+     */
+    public float getHeight() {
+        return LAYOUT.height;
+    }
+}
@@ -0,0 +1,189 @@
+package com.rivelbop.flappybird.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shares textures, sounds and the texture atlas between everything that uses the same file.
+ * The first request for a path loads the asset, later requests return the same instance.
+ * Every request must be paired with a {@link #release(String)}, the asset is disposed once the last user releases it.
+ * <p>
+ * Should only be used from the render thread.
+ */
+public final class AssetCache {
+    /**
+     * The atlas every image is packed into at build time by the {@code packAtlas} Gradle task (see {@code AtlasPacker}),
+     * so the whole frame can be drawn from one texture without flushing the batch.
+     */
+    public static final String ATLAS = "game.atlas";
+
+    private static final ObjectMap<String, Entry> ENTRIES = new ObjectMap<>();
+
+    private AssetCache() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Retrieves the texture of an internal file, loading it if no one else uses it yet.
+     *
+     * @param path The internal path of the image.
+     * @return The shared texture (must be released with {@link #release(String)}, never disposed directly).
+     */
+    public static Texture texture(String path) {
+        Entry entry = ENTRIES.get(path);
+        if (entry == null) {
+            entry = put(path, new Texture(path));
+        }
+        return acquire(entry, path, Texture.class);
+    }
+
+    /**
+     * Retrieves the sound of an internal file, loading it if no one else uses it yet.
+     *
+     * @param path The internal path of the sound effect.
+     * @return The shared sound (must be released with {@link #release(String)}, never disposed directly).
+     */
+    public static Sound sound(String path) {
+        Entry entry = ENTRIES.get(path);
+        if (entry == null) {
+            entry = put(path, Gdx.audio.newSound(Gdx.files.internal(path)));
+        }
+        return acquire(entry, path, Sound.class);
+    }
+
+    /**
+     * Retrieves an image from the game's atlas, loading the atlas if no one else uses it yet.
+     * When the atlas wasn't packed, the image's own texture is used instead.
+     *
+     * @param name The name of the image, without its extension (e.g. "pipe" for "pipe.png").
+     * @return The region of the image (must be released with {@link #releaseRegion(String)}).
+     */
+    public static TextureRegion region(String name) {
+        if (!isAtlasPacked()) {
+            return new TextureRegion(texture(name + ".png"));
+        }
+
+        Entry entry = ENTRIES.get(ATLAS);
+        if (entry == null) {
+            entry = put(ATLAS, new TextureAtlas(ATLAS));
+        }
+        TextureRegion region = acquire(entry, ATLAS, TextureAtlas.class).findRegion(name);
+        if (region == null) {
+            release(ATLAS);
+            throw new GdxRuntimeException(name + " isn't packed into " + ATLAS + ", run the packAtlas task");
+        }
+        return region;
+    }
+
+    /**
+     * Loads the atlas in the background: every page is decoded by a worker, then uploaded in a step of its own.
+     * Once the loader finished it, the atlas is cached as if it was requested with {@link #region(String)},
+     * so the caller must release it once with {@code release(ATLAS)} (after taking its regions).
+     *
+     * @param loader The loader to load the atlas with.
+     * @return Whether the atlas is loaded (false if it wasn't packed, the images are then loaded on request).
+     */
+    public static boolean preloadAtlas(AssetLoader loader) {
+        if (!isAtlasPacked()) {
+            return false;
+        }
+        if (ENTRIES.containsKey(ATLAS)) {
+            ENTRIES.get(ATLAS).refCount++;
+            return true;
+        }
+
+        // Only the small text file is read here, the pages are decoded by the workers
+        FileHandle file = Gdx.files.internal(ATLAS);
+        TextureAtlas.TextureAtlasData data = new TextureAtlas.TextureAtlasData(file, file.parent(), false);
+        for (TextureAtlas.TextureAtlasData.Page page : data.getPages()) {
+            loader.submit(() -> new Pixmap(page.textureFile), pixmap -> {
+                page.texture = new Texture(pixmap, page.format, page.useMipMaps);
+                pixmap.dispose();
+            });
+        }
+        loader.submit(() -> data, loaded -> put(ATLAS, new TextureAtlas(loaded)).refCount++); // Uses the uploaded pages
+        return true;
+    }
+
+    /**
+     * Gives up one reference to an image retrieved with {@link #region(String)}.
+     *
+     * @param name The name the image was requested with.
+     */
+    public static void releaseRegion(String name) {
+        release(isAtlasPacked() ? ATLAS : name + ".png");
+    }
+
+    /**
+     * @return Whether the images are packed into the {@link #ATLAS} (only missing if the packAtlas task didn't run).
+     */
+    public static boolean isAtlasPacked() {
+        return ENTRIES.containsKey(ATLAS) || Gdx.files.internal(ATLAS).exists();
+    }
+
+    /**
+     * Gives up one reference to an asset, disposing of it when it was the last one.
+     *
+     * @param path The path the asset was requested with.
+     */
+    public static void release(String path) {
+        Entry entry = ENTRIES.get(path);
+        if (entry == null) {
+            throw new GdxRuntimeException("Asset is not loaded: " + path);
+        }
+        if (--entry.refCount == 0) {
+            ENTRIES.remove(path);
+            entry.ASSET.dispose();
+        }
+    }
+
+    /**
+     * @param path The path of the asset.
+     * @return How many users currently hold the asset (0 if it isn't loaded).
+     */
+    public static int getRefCount(String path) {
+        Entry entry = ENTRIES.get(path);
+        return entry == null ? 0 : entry.refCount;
+    }
+
+    /**
+     * @return The amount of distinct assets currently loaded.
+     */
+    public static int size() {
+        return ENTRIES.size;
+    }
+
+    private static Entry put(String path, Disposable asset) {
+        Entry entry = new Entry(asset);
+        ENTRIES.put(path, entry);
+        return entry;
+    }
+
+    private static <T> T acquire(Entry entry, String path, Class<T> type) {
+        if (!type.isInstance(entry.ASSET)) {
+            throw new GdxRuntimeException("Asset " + path + " is not a " + type.getSimpleName());
+        }
+        entry.refCount++;
+        return type.cast(entry.ASSET);
+    }
+
+    /**
+     * A loaded asset and the amount of users holding it.
+     */
+    private static class Entry {
+        private final Disposable ASSET;
+        private int refCount;
+
+        private Entry(Disposable asset) {
+            ASSET = asset;
+        }
+    }
+}
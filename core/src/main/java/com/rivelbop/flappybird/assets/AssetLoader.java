@@ -0,0 +1,109 @@
+package com.rivelbop.flappybird.assets;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Loads assets in two stages: the slow part (reading and decoding files) runs on worker threads,
+ * then whatever needs the GL context (e.g. uploading a texture) runs on the render thread,
+ * a few steps per frame so a loading screen stays responsive.
+ * <p>
+ * Every job is decoded as soon as a worker is free, but jobs are finished in the order they were submitted,
+ * so a job may rely on the ones submitted before it (e.g. a font on the atlas holding its page).
+ * Should only be used from the render thread.
+ */
+public class AssetLoader implements Disposable {
+    private final ExecutorService WORKERS;
+    private final Queue<Job<?>> JOBS = new ArrayDeque<>(); // Not finished yet, in submission order
+    private int submitted, finished;
+
+    public AssetLoader() {
+        // Leaves a core to the render thread, which keeps drawing the loading screen
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        WORKERS = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "AssetLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts decoding an asset.
+     *
+     * @param decode Reads and decodes the asset on a worker thread (must not use GL).
+     * @param finish Receives the decoded asset on the render thread, during {@link #update(long)}.
+     * @param <T>    The type of the decoded asset.
+     */
+    public <T> void submit(Callable<T> decode, Consumer<T> finish) {
+        JOBS.add(new Job<>(WORKERS.submit(decode), finish));
+        submitted++;
+    }
+
+    /**
+     * Finishes the decoded jobs, in submission order, until the time budget is spent.
+     * At least one job is finished per call (if it was decoded), even if it takes longer than the budget.
+     *
+     * @param budget The time that may be spent in nanoseconds.
+     * @return Whether every submitted job is finished.
+     * @throws GdxRuntimeException If a job failed.
+     */
+    public boolean update(long budget) {
+        long start = System.nanoTime();
+        while (!JOBS.isEmpty() && JOBS.peek().FUTURE.isDone()) {
+            JOBS.poll().finish();
+            finished++;
+            if (System.nanoTime() - start >= budget) {
+                break;
+            }
+        }
+        return JOBS.isEmpty();
+    }
+
+    /**
+     * @return The fraction of submitted jobs that are finished, from 0 to 1.
+     */
+    public float getProgress() {
+        return submitted == 0 ? 1f : (float) finished / submitted;
+    }
+
+    /**
+     * Stops the workers, the jobs that didn't finish yet are abandoned.
+     */
+    @Override
+    public void dispose() {
+        WORKERS.shutdownNow();
+        JOBS.clear();
+    }
+
+    private static class Job<T> {
+        private final Future<T> FUTURE;
+        private final Consumer<T> FINISH;
+
+        private Job(Future<T> future, Consumer<T> finish) {
+            FUTURE = future;
+            FINISH = finish;
+        }
+
+        private void finish() {
+            T asset;
+            try {
+                asset = FUTURE.get(); // Already done
+            } catch (ExecutionException e) {
+                throw new GdxRuntimeException("Couldn't load an asset", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GdxRuntimeException("Interrupted while loading an asset", e);
+            }
+            FINISH.accept(asset);
+        }
+    }
+}
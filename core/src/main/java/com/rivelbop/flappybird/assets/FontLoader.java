@@ -0,0 +1,106 @@
+package com.rivelbop.flappybird.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+
+/**
+ * Loads the game's fonts.
+ * Fonts are pre-rendered at build time by the {@code bakeFonts} Gradle task (see {@code FontBaker}),
+ * so usually only a ".fnt" file has to be read, its page is packed into the {@link AssetCache#ATLAS}
+ * along with the other images (so text is drawn without switching textures).
+ * Sizes that weren't baked are generated from the ".ttf" file with FreeType instead,
+ * which is the only time the FreeType natives are needed.
+ */
+public final class FontLoader {
+    private FontLoader() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Loads the font at the given size, preferring the pre-rendered version.
+     *
+     * @param ttfPath The internal path of the TrueType font (e.g. "font.ttf").
+     * @param size    The size of the font in pixels.
+     * @return The loaded font (must be disposed with {@link #unload(String, int, BitmapFont)}).
+     */
+    public static BitmapFont load(String ttfPath, int size) {
+        return create(ttfPath, size, loadData(ttfPath, size));
+    }
+
+    /**
+     * Reads the glyphs of the pre-rendered font, the part of {@link #load(String, int)} that doesn't need GL
+     * (so it can run on a worker thread, see {@link AssetLoader}).
+     *
+     * @param ttfPath The internal path of the TrueType font (e.g. "font.ttf").
+     * @param size    The size of the font in pixels.
+     * @return The glyphs, or null if the size wasn't baked.
+     */
+    public static BitmapFont.BitmapFontData loadData(String ttfPath, int size) {
+        FileHandle baked = Gdx.files.internal(bakedPath(ttfPath, size));
+        return baked.exists() ? new BitmapFont.BitmapFontData(baked, false) : null;
+    }
+
+    /**
+     * Creates the font from the glyphs read by {@link #loadData(String, int)}, on the render thread.
+     *
+     * @param ttfPath The internal path of the TrueType font.
+     * @param size    The size of the font in pixels.
+     * @param data    The glyphs of the pre-rendered font, or null to generate it with FreeType.
+     * @return The font (must be disposed with {@link #unload(String, int, BitmapFont)}).
+     */
+    public static BitmapFont create(String ttfPath, int size, BitmapFont.BitmapFontData data) {
+        if (data == null) {
+            Gdx.app.log("FontLoader", bakedPath(ttfPath, size) + " wasn't baked, generating it with FreeType");
+            return generate(ttfPath, size);
+        }
+        if (AssetCache.isAtlasPacked()) {
+            String page = Gdx.files.internal(bakedPath(ttfPath, size)).nameWithoutExtension();
+            return new BitmapFont(data, AssetCache.region(page), true);
+        }
+        return new BitmapFont(data, (TextureRegion) null, true); // Loads the page images
+    }
+
+    /**
+     * Disposes a font loaded with {@link #load(String, int)}, releasing its page from the atlas if it was packed.
+     *
+     * @param ttfPath The path the font was loaded with.
+     * @param size    The size the font was loaded with.
+     * @param font    The font.
+     */
+    public static void unload(String ttfPath, int size, BitmapFont font) {
+        font.dispose(); // Doesn't dispose a page it was given as a region
+        FileHandle baked = Gdx.files.internal(bakedPath(ttfPath, size));
+        if (baked.exists() && AssetCache.isAtlasPacked()) {
+            AssetCache.releaseRegion(baked.nameWithoutExtension());
+        }
+    }
+
+    /**
+     * The path of a pre-rendered font, "font.ttf" at size 64 becomes "font-64.fnt".
+     * Must match the names written by {@code FontBaker}.
+     *
+     * @param ttfPath The path of the TrueType font.
+     * @param size    The size of the font in pixels.
+     * @return The path of the ".fnt" file.
+     */
+    public static String bakedPath(String ttfPath, int size) {
+        int extension = ttfPath.lastIndexOf('.');
+        String name = extension == -1 ? ttfPath : ttfPath.substring(0, extension);
+        return name + "-" + size + ".fnt";
+    }
+
+    /**
+     * Kept in a separate method so the FreeType classes (and their natives) are only loaded when required.
+     */
+    private static BitmapFont generate(String ttfPath, int size) {
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(Gdx.files.internal(ttfPath));
+        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+        parameter.size = size;
+        BitmapFont font = generator.generateFont(parameter);
+        generator.dispose(); // After font generation, generator is no longer necessary
+        return font;
+    }
+}
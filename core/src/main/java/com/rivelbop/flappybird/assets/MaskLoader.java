@@ -0,0 +1,66 @@
+package com.rivelbop.flappybird.assets;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.World;
+
+/**
+ * Builds the {@link CollisionMasks} from the alpha channels of the bird and pipe images.
+ * Only decodes the images into pixmaps, so no GL context is required.
+ */
+public final class MaskLoader {
+    private static final int ALPHA_THRESHOLD = 127; // Pixels more transparent than this can be flown through
+
+    private MaskLoader() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Loads the collision masks of the bird and pipes.
+     * The bird mask combines every animation frame, so flapping wings never change the outcome of a collision.
+     *
+     * @return The pixel-precise shapes used by the {@link World}.
+     */
+    public static CollisionMasks load() {
+        int birdWidth = (int) World.BIRD_WIDTH, birdHeight = (int) World.BIRD_HEIGHT;
+        boolean[] bird = new boolean[birdWidth * birdHeight];
+        addOpaque("bird_0.png", bird, birdWidth, birdHeight);
+        addOpaque("bird_1.png", bird, birdWidth, birdHeight);
+        addOpaque("bird_2.png", bird, birdWidth, birdHeight);
+
+        int pipeWidth = (int) World.PIPE_WIDTH, pipeHeight = (int) World.PIPE_HEIGHT;
+        boolean[] pipe = new boolean[pipeWidth * pipeHeight];
+        addOpaque("pipe.png", pipe, pipeWidth, pipeHeight);
+
+        return new CollisionMasks(bird, pipe);
+    }
+
+    /**
+     * Marks every opaque pixel of an image.
+     *
+     * @param path   The internal path of the image.
+     * @param opaque The pixels to mark (row-major, top row first), already marked pixels stay marked.
+     * @param width  The expected width of the image.
+     * @param height The expected height of the image.
+     */
+    private static void addOpaque(String path, boolean[] opaque, int width, int height) {
+        Pixmap pixmap = new Pixmap(Gdx.files.internal(path));
+        try {
+            if (pixmap.getWidth() != width || pixmap.getHeight() != height) {
+                throw new GdxRuntimeException(path + " is " + pixmap.getWidth() + "x" + pixmap.getHeight()
+                    + ", expected " + width + "x" + height);
+            }
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if ((pixmap.getPixel(x, y) & 0xFF) > ALPHA_THRESHOLD) { // RGBA8888, alpha is the lowest byte
+                        opaque[y * width + x] = true;
+                    }
+                }
+            }
+        } finally {
+            pixmap.dispose();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.rivelbop.flappybird.audio;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.AudioDevice;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mixes the sound effects on a thread of its own and streams them to an {@link AudioDevice}.
+ * <p>
+ * {@link #play(SoundEffect)} only puts the request into a lock-free {@link PlayQueue}, which costs the same no
+ * matter how many sounds are playing and never waits for the audio backend. Before every block of samples, the
+ * mixer starts a voice for every queued request. A sound that already plays as often as its
+ * {@link SoundEffect#getVoiceLimit() limit} restarts its oldest voice instead, and when every voice is busy the
+ * oldest one is stolen.
+ * <p>
+ * While no voice plays and nothing is queued (most of the time in the menus), the mixer thread is parked instead of
+ * mixing blocks of silence, and {@link #play(SoundEffect)} wakes it up. The device plays what it buffered and then
+ * runs dry, it is restarted by the next block.
+ * <p>
+ * The time from a request until its first samples were handed to the device, plus the device's own buffering,
+ * is recorded for every started voice (see {@link #copyLatency(LatencyHistogram)}).
+ */
+public class AudioMixer implements SoundPlayer {
+    public static final int SAMPLE_RATE = 44100; // The rate of every clip and of the device
+    private static final int BLOCK_FRAMES = 256; // Frames mixed at once (5.8 ms), requests wait for the next block
+    private static final int MAX_VOICES = 8; // Sounds mixed at once
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final PcmClip[] CLIPS; // By sound effect ordinal
+    private final int[] VOICE_LIMITS; // By sound effect ordinal
+    private final AudioDevice DEVICE;
+    private final long DEVICE_LATENCY; // Nanoseconds of samples the device buffers before they are heard
+    private final PlayQueue QUEUE = new PlayQueue(QUEUE_CAPACITY);
+    private final Thread THREAD;
+    private volatile boolean isRunning = true;
+    private int droppedRequests; // Requests offered to a full queue (only counted by the render thread)
+
+    /* Only used by the mixer thread */
+    private final int[] REQUESTS = new int[QUEUE_CAPACITY];
+    private final long[] REQUEST_TIMES = new long[QUEUE_CAPACITY], STARTED_TIMES = new long[QUEUE_CAPACITY];
+    private final int[] VOICE_EFFECTS = new int[MAX_VOICES], VOICE_FRAMES = new int[MAX_VOICES]; // -1 when free
+    private final long[] VOICE_ORDER = new long[MAX_VOICES]; // When each voice started, to steal the oldest
+    private long voiceCount;
+    private final int[] MIX = new int[BLOCK_FRAMES * 2]; // Summed samples, clamped into the output
+    private final short[] OUTPUT = new short[BLOCK_FRAMES * 2];
+
+    private final LatencyHistogram LATENCY = new LatencyHistogram(); // Guarded by itself (read by other threads)
+
+    /**
+     * Loads the decoded sound effects and opens a stereo audio device.
+     *
+     * @throws GdxRuntimeException If a sound effect wasn't decoded by {@code bakeSounds},
+     *                             or the device can't be opened.
+     */
+    public AudioMixer() {
+        this(loadClips());
+    }
+
+    /**
+     * Opens a stereo audio device to play decoded sound effects.
+     *
+     * @param clips The decoded sound effects, by ordinal (see {@link #loadClips()}).
+     * @throws GdxRuntimeException If the device can't be opened.
+     */
+    public AudioMixer(PcmClip[] clips) {
+        SoundEffect[] effects = SoundEffect.values();
+        if (clips.length != effects.length) {
+            throw new IllegalArgumentException("Expected a clip for each of the " + effects.length + " sound effects");
+        }
+        CLIPS = clips;
+        VOICE_LIMITS = new int[effects.length];
+        for (SoundEffect effect : effects) {
+            VOICE_LIMITS[effect.ordinal()] = effect.getVoiceLimit();
+        }
+
+        DEVICE = Gdx.audio.newAudioDevice(SAMPLE_RATE, false);
+        DEVICE_LATENCY = DEVICE.getLatency() * 1_000_000L;
+        for (int i = 0; i < MAX_VOICES; i++) {
+            VOICE_EFFECTS[i] = -1;
+        }
+
+        THREAD = new Thread(this::run, "AudioMixer");
+        THREAD.setDaemon(true);
+        THREAD.setPriority(Thread.MAX_PRIORITY); // An underrun is heard, a late frame usually isn't
+        THREAD.start();
+    }
+
+    /**
+     * Reads the sound effects decoded by {@code bakeSounds} (doesn't need the audio device, so it can run on
+     * a worker thread).
+     *
+     * @return The decoded sound effects, by ordinal.
+     * @throws GdxRuntimeException If a sound effect wasn't decoded.
+     */
+    public static PcmClip[] loadClips() {
+        SoundEffect[] effects = SoundEffect.values();
+        PcmClip[] clips = new PcmClip[effects.length];
+        for (SoundEffect effect : effects) {
+            try (InputStream input = Gdx.files.internal(effect.getPcmPath()).read()) {
+                clips[effect.ordinal()] = PcmClip.read(input);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Couldn't load " + effect.getPcmPath(), e);
+            }
+        }
+        return clips;
+    }
+
+    @Override
+    public void play(SoundEffect effect) {
+        if (QUEUE.offer(effect.ordinal(), System.nanoTime())) {
+            LockSupport.unpark(THREAD); // In case the mixer is parked
+        } else {
+            droppedRequests++; // 64 sounds requested within one block, nobody would hear the difference
+        }
+    }
+
+    private void run() {
+        int playing = 0; // Voices that didn't end in the last block
+        while (isRunning) {
+            if (playing == 0 && QUEUE.isEmpty()) {
+                LockSupport.park(this); // Until the next request (or dispose())
+                continue;
+            }
+            int started = startVoices();
+            playing = mix();
+            DEVICE.writeSamples(OUTPUT, 0, OUTPUT.length); // Blocks while the device's buffers are full
+
+            if (started > 0) {
+                long now = System.nanoTime();
+                synchronized (LATENCY) {
+                    for (int i = 0; i < started; i++) {
+                        LATENCY.record(now - STARTED_TIMES[i] + DEVICE_LATENCY);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a voice for every queued request.
+     *
+     * @return The amount of started voices (their request times are in STARTED_TIMES).
+     */
+    private int startVoices() {
+        int count = QUEUE.drain(REQUESTS, REQUEST_TIMES);
+        for (int i = 0; i < count; i++) {
+            int effect = REQUESTS[i];
+            int voice = findVoice(effect);
+            VOICE_EFFECTS[voice] = effect;
+            VOICE_FRAMES[voice] = 0;
+            VOICE_ORDER[voice] = voiceCount++;
+            STARTED_TIMES[i] = REQUEST_TIMES[i];
+        }
+        return count;
+    }
+
+    /**
+     * Picks the voice to play a sound effect with: the oldest voice of the effect if it reached its limit,
+     * otherwise a free voice, otherwise the oldest voice.
+     */
+    private int findVoice(int effect) {
+        int playing = 0, oldestOfEffect = -1, oldest = -1, free = -1;
+        for (int voice = 0; voice < MAX_VOICES; voice++) {
+            int voiceEffect = VOICE_EFFECTS[voice];
+            if (voiceEffect == -1) {
+                free = voice;
+                continue;
+            }
+            if (voiceEffect == effect) {
+                playing++;
+                if (oldestOfEffect == -1 || VOICE_ORDER[voice] < VOICE_ORDER[oldestOfEffect]) {
+                    oldestOfEffect = voice;
+                }
+            }
+            if (oldest == -1 || VOICE_ORDER[voice] < VOICE_ORDER[oldest]) {
+                oldest = voice;
+            }
+        }
+
+        if (playing >= VOICE_LIMITS[effect]) {
+            return oldestOfEffect;
+        }
+        return free != -1 ? free : oldest;
+    }
+
+    /**
+     * Sums the next block of every playing voice into the output, freeing the voices that ended.
+     *
+     * @return The amount of voices that are still playing.
+     */
+    private int mix() {
+        for (int i = 0; i < MIX.length; i++) {
+            MIX[i] = 0;
+        }
+        int playing = 0;
+        for (int voice = 0; voice < MAX_VOICES; voice++) {
+            int effect = VOICE_EFFECTS[voice];
+            if (effect == -1) {
+                continue;
+            }
+            PcmClip clip = CLIPS[effect];
+            int start = VOICE_FRAMES[voice], frames = Math.min(BLOCK_FRAMES, clip.getFrames() - start);
+            for (int frame = 0; frame < frames; frame++) {
+                MIX[frame * 2] += clip.getLeft(start + frame);
+                MIX[frame * 2 + 1] += clip.getRight(start + frame);
+            }
+            VOICE_FRAMES[voice] = start + frames;
+            if (start + frames == clip.getFrames()) {
+                VOICE_EFFECTS[voice] = -1;
+            } else {
+                playing++;
+            }
+        }
+        for (int i = 0; i < MIX.length; i++) {
+            OUTPUT[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, MIX[i]));
+        }
+        return playing;
+    }
+
+    @Override
+    public void copyLatency(LatencyHistogram into) {
+        synchronized (LATENCY) {
+            into.set(LATENCY);
+        }
+    }
+
+    /**
+     * @return How many requests were dropped because the queue was full.
+     */
+    public int getDroppedRequests() {
+        return droppedRequests;
+    }
+
+    @Override
+    public void dispose() {
+        isRunning = false;
+        LockSupport.unpark(THREAD);
+        boolean isInterrupted = false;
+        while (THREAD.isAlive()) {
+            try {
+                THREAD.join(); // Finishes within one block
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        DEVICE.dispose();
+    }
+}
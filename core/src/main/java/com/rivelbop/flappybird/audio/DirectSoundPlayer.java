@@ -0,0 +1,36 @@
+package com.rivelbop.flappybird.audio;
+
+import com.badlogic.gdx.audio.Sound;
+import com.rivelbop.flappybird.assets.AssetCache;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+/**
+ * Plays the sound effects through the backend's {@link Sound}s on the calling thread,
+ * without voice limits. Used when the {@link AudioMixer} can't be (e.g. headless, or the sounds weren't baked).
+ */
+public class DirectSoundPlayer implements SoundPlayer {
+    private final Sound[] SOUNDS = new Sound[SoundEffect.values().length];
+
+    public DirectSoundPlayer() {
+        for (SoundEffect effect : SoundEffect.values()) {
+            SOUNDS[effect.ordinal()] = AssetCache.sound(effect.getPath());
+        }
+    }
+
+    @Override
+    public void play(SoundEffect effect) {
+        SOUNDS[effect.ordinal()].play();
+    }
+
+    @Override
+    public void copyLatency(LatencyHistogram into) {
+        // The backend doesn't tell when a sound starts
+    }
+
+    @Override
+    public void dispose() {
+        for (SoundEffect effect : SoundEffect.values()) {
+            AssetCache.release(effect.getPath());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.rivelbop.flappybird.audio;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A decoded sound: 16-bit stereo samples at {@link AudioMixer#SAMPLE_RATE}, ready to be mixed.
+ * Decoded from the ".ogg" files at build time by the {@code bakeSounds} Gradle task (see {@code SoundBaker}),
+ * so nothing is decompressed while the game runs.
+ * <p>
+ * <u>File format (big-endian):</u> magic ({@code "FBPC"}), sample rate (int), frame count (int),
+ * then the interleaved left and right samples of every frame (shorts).
+ */
+public class PcmClip {
+    private static final int MAGIC = 0x46425043; // "FBPC"
+
+    private final short[] SAMPLES; // Interleaved left and right
+    private final int FRAMES;
+
+    /**
+     * @param samples The interleaved left and right samples.
+     */
+    public PcmClip(short[] samples) {
+        if (samples.length % 2 != 0) {
+            throw new IllegalArgumentException("A stereo clip needs an even amount of samples");
+        }
+        SAMPLES = samples;
+        FRAMES = samples.length / 2;
+    }
+
+    /**
+     * Reads a clip written by {@link #write(OutputStream)}.
+     *
+     * @param input The stream to read (not closed).
+     * @return The clip.
+     * @throws IOException If the stream can't be read or isn't a clip at the mixer's sample rate.
+     */
+    public static PcmClip read(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a PCM clip");
+        }
+        int sampleRate = data.readInt();
+        if (sampleRate != AudioMixer.SAMPLE_RATE) {
+            throw new IOException("The clip's sample rate is " + sampleRate + " instead of " + AudioMixer.SAMPLE_RATE);
+        }
+        int frames = data.readInt();
+        if (frames < 0) {
+            throw new IOException("The clip is corrupted");
+        }
+
+        byte[] bytes = new byte[frames * 4];
+        data.readFully(bytes);
+        short[] samples = new short[frames * 2];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (bytes[i * 2] << 8 | bytes[i * 2 + 1] & 0xFF);
+        }
+        return new PcmClip(samples);
+    }
+
+    /**
+     * @param output The stream to write to (not closed).
+     * @throws IOException If the stream can't be written.
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(AudioMixer.SAMPLE_RATE);
+        data.writeInt(FRAMES);
+        byte[] bytes = new byte[SAMPLES.length * 2];
+        for (int i = 0; i < SAMPLES.length; i++) {
+            bytes[i * 2] = (byte) (SAMPLES[i] >> 8);
+            bytes[i * 2 + 1] = (byte) SAMPLES[i];
+        }
+        data.write(bytes);
+        data.flush();
+    }
+
+    /**
+     * @param frame The frame, from 0 to {@link #getFrames()} (excluded).
+     * @return The left sample of the frame.
+     */
+    public short getLeft(int frame) {
+        return SAMPLES[frame * 2];
+    }
+
+    /**
+     * @param frame The frame, from 0 to {@link #getFrames()} (excluded).
+     * @return The right sample of the frame.
+     */
+    public short getRight(int frame) {
+        return SAMPLES[frame * 2 + 1];
+    }
+
+    /**
+     * @return How many stereo frames the clip lasts.
+     */
+    public int getFrames() {
+        return FRAMES;
+    }
+}
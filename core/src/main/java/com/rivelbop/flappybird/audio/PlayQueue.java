@@ -0,0 +1,76 @@
+package com.rivelbop.flappybird.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free queue of play requests from one producer thread to one consumer thread.
+ * Offering and draining never block or allocate, a request offered to a full queue is dropped.
+ */
+class PlayQueue {
+    private final int[] EFFECTS; // Ordinals of the requested sound effects
+    private final long[] TIMES; // System.nanoTime() of each request
+    private final int MASK;
+    // Written by one thread each, published with lazySet (the slots are written before the index that covers them)
+    private final AtomicLong HEAD = new AtomicLong(), TAIL = new AtomicLong();
+
+    /**
+     * @param capacity The maximum amount of queued requests (a power of two).
+     */
+    PlayQueue(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two: " + capacity);
+        }
+        EFFECTS = new int[capacity];
+        TIMES = new long[capacity];
+        MASK = capacity - 1;
+    }
+
+    /**
+     * Queues a request. Only called by the producer thread.
+     *
+     * @param effect The ordinal of the sound effect.
+     * @param time   When the sound was requested, from {@link System#nanoTime()}.
+     * @return Whether the request was queued (false if the queue is full).
+     */
+    boolean offer(int effect, long time) {
+        long tail = TAIL.get();
+        if (tail - HEAD.get() > MASK) {
+            return false;
+        }
+        int slot = (int) tail & MASK;
+        EFFECTS[slot] = effect;
+        TIMES[slot] = time;
+        TAIL.lazySet(tail + 1L);
+        return true;
+    }
+
+    /**
+     * Takes every queued request. Only called by the consumer thread.
+     *
+     * @param effects Receives the ordinals of the requested sound effects (at least as long as the capacity).
+     * @param times   Receives the times of the requests (at least as long as the capacity).
+     * @return The amount of requests taken.
+     */
+    int drain(int[] effects, long[] times) {
+        long head = HEAD.get();
+        int count = (int) (TAIL.get() - head);
+        for (int i = 0; i < count; i++) {
+            int slot = (int) (head + i) & MASK;
+            effects[i] = EFFECTS[slot];
+            times[i] = TIMES[slot];
+        }
+        HEAD.lazySet(head + count);
+        return count;
+    }
+
+    /**
+     * @return Whether no request is queued. Only called by the consumer thread.
+     */
+    boolean isEmpty() {
+        return TAIL.get() == HEAD.get();
+    }
+
+    int getCapacity() {
+        return MASK + 1;
+    }
+}
@@ -0,0 +1,44 @@
+package com.rivelbop.flappybird.audio;
+
+/**
+ * The sound effects of the game.
+ */
+public enum SoundEffect {
+    FLAP("flap.ogg", 3), // Rapid flapping restarts the oldest flap instead of stacking them
+    SCORE("score.ogg", 2),
+    HIT("hit.ogg", 1),
+    DIE("die.ogg", 1);
+
+    private final String PATH;
+    private final int VOICE_LIMIT;
+
+    /**
+     * @param path       The internal path of the compressed sound.
+     * @param voiceLimit How many times the sound may play at once.
+     */
+    SoundEffect(String path, int voiceLimit) {
+        PATH = path;
+        VOICE_LIMIT = voiceLimit;
+    }
+
+    /**
+     * @return The internal path of the compressed sound (e.g. "flap.ogg").
+     */
+    public String getPath() {
+        return PATH;
+    }
+
+    /**
+     * The path of the decoded sound, "flap.ogg" becomes "flap.pcm".
+     * Must match the names written by {@code SoundBaker}.
+     *
+     * @return The internal path of the decoded sound.
+     */
+    public String getPcmPath() {
+        return PATH.substring(0, PATH.lastIndexOf('.')) + ".pcm";
+    }
+
+    public int getVoiceLimit() {
+        return VOICE_LIMIT;
+    }
+}
@@ -0,0 +1,24 @@
+package com.rivelbop.flappybird.audio;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+/**
+ * Plays the {@link SoundEffect}s of the game.
+ */
+public interface SoundPlayer extends Disposable {
+    /**
+     * Plays a sound effect. Only called from the render thread.
+     *
+     * @param effect The sound effect.
+     */
+    void play(SoundEffect effect);
+
+    /**
+     * Copies the time between {@link #play(SoundEffect)} and the sound reaching the speakers,
+     * for every sound played so far.
+     *
+     * @param into The histogram to overwrite (left unchanged if the player can't measure it).
+     */
+    void copyLatency(LatencyHistogram into);
+}
@@ -0,0 +1,164 @@
+package com.rivelbop.flappybird.autopilot;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.World;
+import com.rivelbop.flappybird.sim.WorldSnapshot;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays the game by itself (e.g. the attract mode of a kiosk), planning its flaps on a thread of its own.
+ * <p>
+ * After every frame, the render thread {@link #publish(World, long) publishes} a snapshot of the world through a
+ * lock-free {@link TripleBuffer}, and wakes the planner thread up. The planner searches the flaps of the next
+ * second or two from the latest snapshot within a time budget (see {@link Planner}), then publishes the plan back
+ * through another triple buffer. Before every step, {@link #shouldFlap(World, long)} follows the latest plan,
+ * so the render thread never waits for the planner (a simple {@link GapBot} decides when no plan covers a step).
+ * <p>
+ * <u>Metrics:</u> the planning latency (from capturing a snapshot to publishing its plan, see
+ * {@link #copyPlanningLatency(LatencyHistogram)}), the decision staleness (the age of the snapshot behind every
+ * followed decision, see {@link #getDecisionStaleness()}) and the depth of the last search.
+ */
+public class Autopilot implements Disposable {
+    public static final long DEFAULT_BUDGET = 4_000_000L; // Nanoseconds of search per plan
+
+    private final TripleBuffer<WorldSnapshot> SNAPSHOTS;
+    private final TripleBuffer<FlapPlan> PLANS;
+    private final Planner PLANNER; // Only used by the planner thread
+    private final long BUDGET;
+    private final Thread THREAD;
+    private volatile boolean isRunning = true;
+    private volatile int lastDepth;
+    private final LatencyHistogram PLANNING_LATENCY = new LatencyHistogram(); // Guarded by itself
+
+    /* Only used by the render thread */
+    private final GapBot FALLBACK = new GapBot(); // Also starts the game
+    private FlapPlan plan; // The latest plan received
+    private long roundStart = -1L; // The step the current round was started on, older plans are ignored
+    private final LatencyHistogram STALENESS = new LatencyHistogram();
+
+    /**
+     * Starts the planner thread.
+     *
+     * @param world    The world that will be played (only its pipe count, config and collision masks are used).
+     * @param tickRate How many steps are simulated per second.
+     * @param budget   The time each plan may take in nanoseconds, deeper plans are found with more time.
+     */
+    public Autopilot(World world, int tickRate, long budget) {
+        if (budget <= 0L) {
+            throw new IllegalArgumentException("The planning budget must be positive");
+        }
+        int pipeCount = world.getPipeCount();
+        SNAPSHOTS = new TripleBuffer<>(new WorldSnapshot(pipeCount), new WorldSnapshot(pipeCount),
+            new WorldSnapshot(pipeCount));
+        PLANNER = new Planner(tickRate, world.getConfig(), world.getCourse().getCollisionMasks());
+        int maxLength = PLANNER.getMaxLength();
+        PLANS = new TripleBuffer<>(new FlapPlan(maxLength), new FlapPlan(maxLength), new FlapPlan(maxLength));
+        BUDGET = budget;
+
+        THREAD = new Thread(this::run, "Autopilot");
+        THREAD.setDaemon(true);
+        THREAD.start();
+    }
+
+    /**
+     * Hands the state of the world to the planner. Called by the render thread after the steps of a frame.
+     *
+     * @param world The world being played.
+     * @param tick  How many steps were simulated so far (never reset, so plans of earlier rounds can't match).
+     */
+    public void publish(World world, long tick) {
+        world.capture(SNAPSHOTS.getWriteSlot(), tick, System.nanoTime());
+        SNAPSHOTS.publish();
+        LockSupport.unpark(THREAD);
+    }
+
+    /**
+     * Decides whether to flap on a step. Called by the render thread before every step, never waits for the planner.
+     *
+     * @param world The world being played.
+     * @param tick  The step about to be simulated, counted like in {@link #publish(World, long)}.
+     * @return Whether the bird should flap.
+     */
+    public boolean shouldFlap(World world, long tick) {
+        FlapPlan latest = PLANS.poll();
+        if (latest != null) {
+            plan = latest;
+        }
+        if (!world.isStarted()) {
+            roundStart = tick;
+            return FALLBACK.shouldFlap(world); // Starts the game
+        }
+
+        if (plan != null && plan.getTick() > roundStart && plan.covers(tick)) {
+            STALENESS.record(System.nanoTime() - plan.getSnapshotTime());
+            return plan.isFlap(tick);
+        }
+        return FALLBACK.shouldFlap(world); // Nothing planned yet, or the planner fell behind
+    }
+
+    private void run() {
+        while (isRunning) {
+            WorldSnapshot snapshot = SNAPSHOTS.poll();
+            if (snapshot == null) {
+                LockSupport.park(this); // Until the next snapshot (or dispose())
+                continue;
+            }
+            if (!snapshot.isStarted() || snapshot.isDead()) {
+                continue; // Nothing to plan
+            }
+
+            FlapPlan next = PLANS.getWriteSlot();
+            PLANNER.plan(snapshot, BUDGET, next);
+            PLANS.publish();
+            lastDepth = next.getDepth();
+            long latency = System.nanoTime() - snapshot.getTime();
+            synchronized (PLANNING_LATENCY) {
+                PLANNING_LATENCY.record(latency);
+            }
+        }
+    }
+
+    /**
+     * @param into Receives the time from capturing each snapshot until its plan was published.
+     */
+    public void copyPlanningLatency(LatencyHistogram into) {
+        synchronized (PLANNING_LATENCY) {
+            into.set(PLANNING_LATENCY);
+        }
+    }
+
+    /**
+     * @return The age of the snapshot behind every planned decision that was followed (only read it on the render
+     * thread).
+     */
+    public LatencyHistogram getDecisionStaleness() {
+        return STALENESS;
+    }
+
+    /**
+     * @return How many decisions deep the last plan was searched (0 before the first plan).
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    @Override
+    public void dispose() {
+        isRunning = false;
+        LockSupport.unpark(THREAD);
+        boolean isInterrupted = false;
+        while (THREAD.isAlive()) {
+            try {
+                THREAD.join(); // Finishes within one planning budget
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rivelbop.flappybird.autopilot;
+
+/**
+ * The flaps planned for the steps that follow a {@link com.rivelbop.flappybird.sim.WorldSnapshot},
+ * published by the planner thread of an {@link Autopilot}. Filled in place, so it is reused from plan to plan.
+ */
+public final class FlapPlan {
+    private final boolean[] FLAPS; // By step after the snapshot
+    private int length, depth;
+    private long tick, snapshotTime, planningNanos;
+
+    /**
+     * @param maxLength The most steps a plan can cover.
+     */
+    FlapPlan(int maxLength) {
+        FLAPS = new boolean[maxLength];
+    }
+
+    /**
+     * Starts a new plan, without any planned step.
+     */
+    void begin(long tick, long snapshotTime) {
+        this.tick = tick;
+        this.snapshotTime = snapshotTime;
+        length = 0;
+    }
+
+    /**
+     * Appends a planned step.
+     */
+    void add(boolean flap) {
+        FLAPS[length++] = flap;
+    }
+
+    void finish(int depth, long planningNanos) {
+        this.depth = depth;
+        this.planningNanos = planningNanos;
+    }
+
+    /**
+     * @param tick A step, counted like the snapshot's tick.
+     * @return Whether the plan covers the step (the steps before the plan's tick already happened).
+     */
+    public boolean covers(long tick) {
+        return tick >= this.tick && tick - this.tick < length;
+    }
+
+    /**
+     * @param tick A step covered by the plan (see {@link #covers(long)}).
+     * @return Whether the bird should flap on that step.
+     */
+    public boolean isFlap(long tick) {
+        return FLAPS[(int) (tick - this.tick)];
+    }
+
+    /**
+     * @return The first step of the plan, the tick of the snapshot it was planned from.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return When the snapshot the plan starts from was captured, from {@link System#nanoTime()}.
+     */
+    public long getSnapshotTime() {
+        return snapshotTime;
+    }
+
+    /**
+     * @return How many steps the plan covers.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return How many decisions deep the search went within its time budget.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return The time spent searching for the plan in nanoseconds.
+     */
+    public long getPlanningNanos() {
+        return planningNanos;
+    }
+}
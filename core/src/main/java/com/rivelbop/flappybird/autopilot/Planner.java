@@ -0,0 +1,152 @@
+package com.rivelbop.flappybird.autopilot;
+
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.GameConfig;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.World;
+import com.rivelbop.flappybird.sim.WorldSnapshot;
+
+/**
+ * Searches the flap/no-flap sequences that follow a {@link WorldSnapshot} by simulating them on a world of its own
+ * (same physics and collisions as the game), with iterative deepening: every depth is searched completely, one
+ * decision deeper than the last, until the time budget runs out. The best sequence of the deepest complete search
+ * wins, so the depth adapts to how fast the machine is and how much the bird can still choose.
+ * <p>
+ * A decision is taken every other step (at 120 steps per second), and the bird only considers flapping while it falls
+ * (like {@link GapBot}), which keeps the tree narrow right after every flap.
+ * Only used by the planner thread of an {@link Autopilot}, nothing is allocated per plan.
+ */
+class Planner {
+    static final int MAX_DEPTH = 120; // Decisions of the deepest search (two seconds ahead)
+    private static final float DECISION_TIME = 1f / 60f; // Seconds between two decisions (coarser ones miss gaps)
+
+    private final World WORLD;
+    private final float TICK_TIME;
+    private final int DECISION_TICKS;
+    private final WorldSnapshot[] STACK; // The state before each decision of the current sequence
+    private final boolean[]
+        CHOICES = new boolean[MAX_DEPTH], // The sequence being simulated
+        BEST = new boolean[MAX_DEPTH], // The best sequence of the current depth
+        PLANNED = new boolean[MAX_DEPTH]; // The best sequence of the deepest complete search
+    private float bestScore;
+    private long deadline;
+    private boolean isAborted;
+
+    /**
+     * @param tickRate How many steps are simulated per second.
+     * @param config   The physics and difficulty of the planned worlds (gives them the same pipe count).
+     * @param masks    The collision masks of the planned worlds, or null for bounding boxes only.
+     */
+    Planner(int tickRate, GameConfig config, CollisionMasks masks) {
+        WORLD = new World(0L, config); // Every restore moves its course to the snapshot's
+        WORLD.setCollisionMasks(masks);
+        TICK_TIME = 1f / tickRate;
+        DECISION_TICKS = Math.max(1, Math.round(tickRate * DECISION_TIME));
+        STACK = new WorldSnapshot[MAX_DEPTH];
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            STACK[i] = new WorldSnapshot(WORLD.getPipeCount());
+        }
+    }
+
+    /**
+     * @return The most steps a plan covers.
+     */
+    int getMaxLength() {
+        return MAX_DEPTH * DECISION_TICKS;
+    }
+
+    /**
+     * Plans the steps that follow a snapshot within a time budget.
+     *
+     * @param snapshot The state to plan from, started and alive.
+     * @param budget   The time the search may take in nanoseconds (the first depth is always searched).
+     * @param into     The plan to overwrite.
+     */
+    void plan(WorldSnapshot snapshot, long budget, FlapPlan into) {
+        long start = System.nanoTime();
+        deadline = start + budget;
+        isAborted = false;
+
+        int depth = 0;
+        for (int maxDepth = 1; maxDepth <= MAX_DEPTH; maxDepth++) {
+            WORLD.restore(snapshot);
+            bestScore = Float.NEGATIVE_INFINITY;
+            search(0, maxDepth);
+            if (isAborted) {
+                break; // Keep the deepest complete search
+            }
+            System.arraycopy(BEST, 0, PLANNED, 0, maxDepth);
+            depth = maxDepth;
+        }
+
+        into.begin(snapshot.getTick(), snapshot.getTime());
+        for (int decision = 0; decision < depth; decision++) {
+            for (int tick = 0; tick < DECISION_TICKS; tick++) {
+                into.add(tick == 0 && PLANNED[decision]); // Flap on the first step of a decision only
+            }
+        }
+        into.finish(depth, System.nanoTime() - start);
+    }
+
+    /**
+     * Simulates both choices of a decision, then the decisions that follow them (depth first).
+     */
+    private void search(int depth, int maxDepth) {
+        if (depth > 0 && System.nanoTime() > deadline) { // The first depth always completes
+            isAborted = true;
+            return;
+        }
+        WORLD.capture(STACK[depth], 0L, 0L);
+        boolean canFlap = WORLD.getBirdVelocity() <= 0f;
+        // Try what the simple bot would do first, so a close tie keeps the natural-looking choice
+        boolean flapFirst = canFlap && WORLD.getBirdY() < GapBot.nextGapY(WORLD);
+
+        for (int option = 0; option < (canFlap ? 2 : 1) && !isAborted; option++) {
+            if (option > 0) {
+                WORLD.restore(STACK[depth]);
+            }
+            boolean flap = (option == 0) == flapFirst;
+            CHOICES[depth] = flap;
+
+            int survived = simulate(flap);
+            if (survived < DECISION_TICKS || depth + 1 == maxDepth) {
+                score(depth * DECISION_TICKS + survived, survived == DECISION_TICKS, depth, maxDepth);
+            } else {
+                search(depth + 1, maxDepth);
+            }
+        }
+    }
+
+    /**
+     * Simulates the steps of one decision.
+     *
+     * @return How many of them the bird survived.
+     */
+    private int simulate(boolean flap) {
+        for (int tick = 0; tick < DECISION_TICKS; tick++) {
+            WORLD.step(TICK_TIME, flap && tick == 0);
+            if (WORLD.isDead()) {
+                return tick;
+            }
+        }
+        return DECISION_TICKS;
+    }
+
+    /**
+     * Keeps the simulated sequence if it is the best of the current depth: surviving longer always wins, then
+     * ending closer to the middle of the next gap (which sets up the following pipes).
+     */
+    private void score(int survived, boolean isAlive, int depth, int maxDepth) {
+        float score = survived;
+        if (isAlive) {
+            score += 1f - Math.abs(WORLD.getBirdY() - GapBot.nextGapY(WORLD)) / World.HEIGHT;
+        }
+        if (score > bestScore) {
+            bestScore = score;
+            System.arraycopy(CHOICES, 0, BEST, 0, depth + 1);
+            for (int i = depth + 1; i < maxDepth; i++) {
+                BEST[i] = false; // After dying, nothing else matters
+            }
+        }
+    }
+}
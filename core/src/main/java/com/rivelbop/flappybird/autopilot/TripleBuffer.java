@@ -0,0 +1,57 @@
+package com.rivelbop.flappybird.autopilot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the latest value from one producer thread to one consumer thread without locks or allocation.
+ * Each thread owns one of three preallocated slots, the third one holds the latest published value.
+ * Publishing swaps the producer's slot with it, and polling swaps it with the consumer's, so neither thread ever waits
+ * for the other and a slot is never written while it is read. Values the consumer didn't poll in time are skipped.
+ *
+ * @param <T> The type of the slots, filled in place by the producer.
+ */
+class TripleBuffer<T> {
+    private static final int INDEX = 0b11, FRESH = 0b100; // The state is the index of the middle slot and a flag
+
+    private final T[] SLOTS;
+    private final AtomicInteger MIDDLE = new AtomicInteger(1); // Nothing published yet
+    private int back = 0, front = 2; // Only used by the producer and consumer respectively
+
+    /**
+     * @param slots The three slots.
+     */
+    @SafeVarargs
+    TripleBuffer(T... slots) {
+        if (slots.length != 3) {
+            throw new IllegalArgumentException("A triple buffer needs three slots, not " + slots.length);
+        }
+        SLOTS = slots;
+    }
+
+    /**
+     * @return The slot to fill before the next {@link #publish()}. Only called by the producer thread.
+     */
+    T getWriteSlot() {
+        return SLOTS[back];
+    }
+
+    /**
+     * Makes the filled slot the latest value. Only called by the producer thread.
+     */
+    void publish() {
+        back = MIDDLE.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * Takes the latest value if one was published since the last poll. Only called by the consumer thread.
+     *
+     * @return The latest value, which stays valid until the next poll, or null if nothing new was published.
+     */
+    T poll() {
+        if ((MIDDLE.get() & FRESH) == 0) {
+            return null;
+        }
+        front = MIDDLE.getAndSet(front) & INDEX;
+        return SLOTS[front];
+    }
+}
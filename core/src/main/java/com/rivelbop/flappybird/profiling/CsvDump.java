@@ -0,0 +1,175 @@
+package com.rivelbop.flappybird.profiling;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends the statistics of a {@link FrameProfiler} to a CSV file, one row per phase
+ * (and one for the frame jitter when the frames are paced).
+ * <p>
+ * The render thread only copies the histograms into preallocated ones (under a lock the writer thread holds while it
+ * takes them), so the file is created, opened and appended to by a thread of its own and never adds a frame spike.
+ * If a dump is submitted before the writer took the previous one, the previous one is replaced.
+ * <p>
+ * <u>Columns:</u> {@code time (epoch ms), phase, frames, mean (ns), p50 (ns), p99 (ns), max (ns)}
+ */
+public class CsvDump implements Closeable {
+    private static final String HEADER = "time,phase,frames,mean_ns,p50_ns,p99_ns,max_ns\n";
+    private static final FrameProfiler.Phase[] PHASES = FrameProfiler.Phase.values();
+    private static final int JITTER = PHASES.length; // Index of the jitter after the phases
+
+    private final Path FILE;
+    private final String[] NAMES = new String[PHASES.length + 1]; // Of the rows, by index
+    private final Thread WRITER;
+    private volatile boolean isOpen = true;
+    private volatile IOException writeError; // The first dump that couldn't be saved
+
+    /* Guarded by PENDING */
+    private final LatencyHistogram[] PENDING = histograms(); // By index, submitted and not taken by the writer yet
+    private long pendingTime;
+    private boolean isPending;
+
+    /* Only used by the writer thread */
+    private final LatencyHistogram[] TAKEN = histograms();
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param file The file to append to (created with a header row if it doesn't exist).
+     */
+    public CsvDump(Path file) {
+        FILE = file;
+        for (FrameProfiler.Phase phase : PHASES) {
+            NAMES[phase.ordinal()] = phase.name().toLowerCase(Locale.ROOT);
+        }
+        NAMES[JITTER] = "jitter";
+        WRITER = new Thread(this::run, "CsvDump");
+        WRITER.setDaemon(true); // A dump that wasn't written when the game crashed is lost
+        WRITER.start();
+    }
+
+    private static LatencyHistogram[] histograms() {
+        LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length + 1];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    /**
+     * Copies the statistics to append a row for every phase that was recorded (returns right away, doesn't allocate).
+     *
+     * @param profiler    The profiler to save the statistics of.
+     * @param frameJitter How much each frame time differed from the previous one, or null if not measured.
+     * @param time        The time of the dump in milliseconds since the epoch.
+     */
+    public void submit(FrameProfiler profiler, LatencyHistogram frameJitter, long time) {
+        synchronized (PENDING) {
+            for (FrameProfiler.Phase phase : PHASES) {
+                copy(profiler.getHistogram(phase), PENDING[phase.ordinal()]);
+            }
+            copy(frameJitter, PENDING[JITTER]);
+            pendingTime = time;
+            isPending = true;
+        }
+        LockSupport.unpark(WRITER);
+    }
+
+    private static void copy(LatencyHistogram from, LatencyHistogram into) {
+        if (from != null) {
+            into.set(from);
+        } else {
+            into.reset(); // Not written
+        }
+    }
+
+    private void run() {
+        boolean isRunning = true;
+        while (isRunning) {
+            isRunning = isOpen; // Read before taking, so a dump submitted before close() is still written
+            long time;
+            synchronized (PENDING) {
+                if (!isPending) {
+                    time = -1L;
+                } else {
+                    for (int i = 0; i < PENDING.length; i++) {
+                        TAKEN[i].set(PENDING[i]);
+                    }
+                    time = pendingTime;
+                    isPending = false;
+                }
+            }
+            if (time < 0L) {
+                if (isRunning) {
+                    LockSupport.park(this); // Until the next dump (or close())
+                }
+                continue;
+            }
+
+            try {
+                write(TAKEN, time);
+            } catch (IOException e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+            }
+        }
+    }
+
+    private void write(LatencyHistogram[] histograms, long time) throws IOException {
+        boolean isNew = !Files.exists(FILE);
+        if (isNew && FILE.getParent() != null) {
+            Files.createDirectories(FILE.getParent());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(FILE, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+            if (isNew) {
+                writer.write(HEADER);
+            }
+            for (int i = 0; i < histograms.length; i++) {
+                if (histograms[i].getCount() > 0L) {
+                    writeRow(writer, time, NAMES[i], histograms[i]);
+                }
+            }
+        }
+    }
+
+    private static void writeRow(Writer writer, long time, String name, LatencyHistogram histogram)
+        throws IOException {
+        writer.write(time + "," + name + "," + histogram.getCount() + "," + histogram.getMean() + ","
+            + histogram.percentile(50.0) + "," + histogram.percentile(99.0) + "," + histogram.getMax() + "\n");
+    }
+
+    /**
+     * Waits until the last submitted dump was written and stops the writer.
+     *
+     * @throws IOException If a dump couldn't be saved.
+     */
+    @Override
+    public void close() throws IOException {
+        isOpen = false;
+        LockSupport.unpark(WRITER);
+        boolean isInterrupted = false;
+        while (WRITER.isAlive()) {
+            try {
+                WRITER.join();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.rivelbop.flappybird.profiling;
+
+/**
+ * Times the phases of every frame with {@link System#nanoTime()}.
+ * The time spent in each phase is summed over the frame (a phase may run several times, e.g. once per tick),
+ * then recorded into that phase's {@link LatencyHistogram} and reported to the {@link Listener} when the frame ends.
+ * <p>
+ * While disabled, {@link #begin(Phase)} and {@link #end(Phase)} only check a flag, and no histogram is allocated.
+ */
+public class FrameProfiler {
+    private static final Phase[] PHASES = Phase.values(); // Initialized before DISABLED, which needs the count
+
+    /**
+     * A profiler that can't be enabled, used by default so timed code never has to check for null.
+     */
+    public static final FrameProfiler DISABLED = new FrameProfiler();
+
+    public enum Phase {
+        FRAME, // The whole frame
+        INPUT, // Reading the input and restarting
+        SIMULATION, // Every tick of the world (including the collisions and pipes below)
+        COLLISION, // Bird against ground and pipes
+        PIPES, // Scrolling and respawning the pipes
+        BIRD, // Bird.update(), the animation and interpolated position of the bird sprite
+        GLYPHS, // Laying out the score glyphs
+        GHOSTS, // Filling and submitting the vertices of the ghost birds (part of DRAW)
+        DRAW // Every draw call up to the SpriteBatch flush
+    }
+
+    /**
+     * Receives the time spent in each phase at the end of every frame.
+     */
+    public interface Listener {
+        /**
+         * @param phase The phase.
+         * @param nanos The total time spent in the phase during the frame.
+         */
+        void phaseTimed(Phase phase, long nanos);
+    }
+
+    private boolean isEnabled;
+    private Listener listener;
+    private LatencyHistogram[] histograms; // Allocated when first enabled
+    private final long[] started = new long[PHASES.length], frameNanos = new long[PHASES.length];
+
+    /**
+     * Starts timing a phase.
+     *
+     * @param phase The phase.
+     */
+    public void begin(Phase phase) {
+        if (isEnabled) {
+            started[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    /**
+     * Stops timing a phase and adds the elapsed time to the frame.
+     *
+     * @param phase The phase, which must have been started with {@link #begin(Phase)}.
+     */
+    public void end(Phase phase) {
+        if (isEnabled) {
+            frameNanos[phase.ordinal()] += System.nanoTime() - started[phase.ordinal()];
+        }
+    }
+
+    /**
+     * Records the time spent in every phase during the frame and starts the next frame.
+     * Phases that didn't run during the frame aren't recorded.
+     */
+    public void endFrame() {
+        if (!isEnabled) {
+            return;
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            long nanos = frameNanos[i];
+            if (nanos == 0L) {
+                continue;
+            }
+            frameNanos[i] = 0L;
+            histograms[i].record(nanos);
+            if (listener != null) {
+                listener.phaseTimed(PHASES[i], nanos);
+            }
+        }
+    }
+
+    /**
+     * Forgets every recorded frame (e.g. after the statistics were saved).
+     */
+    public void resetHistograms() {
+        if (histograms != null) {
+            for (LatencyHistogram histogram : histograms) {
+                histogram.reset();
+            }
+        }
+    }
+
+    /**
+     * @param isEnabled Whether to time the phases.
+     */
+    public void setEnabled(boolean isEnabled) {
+        if (this == DISABLED && isEnabled) {
+            throw new UnsupportedOperationException("The shared disabled profiler can't be enabled");
+        }
+        if (isEnabled && histograms == null) {
+            histograms = new LatencyHistogram[PHASES.length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+        for (int i = 0; i < frameNanos.length; i++) {
+            frameNanos[i] = 0L; // A frame that was only partially timed isn't recorded
+        }
+        this.isEnabled = isEnabled;
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @param listener Receives the phase times of every frame, or null to remove it.
+     */
+    public void setListener(Listener listener) {
+        if (this == DISABLED) {
+            throw new UnsupportedOperationException("The shared disabled profiler can't have a listener");
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * @param phase The phase.
+     * @return The recorded frame times of the phase, or null if the profiler was never enabled.
+     */
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms == null ? null : histograms[phase.ordinal()];
+    }
+}
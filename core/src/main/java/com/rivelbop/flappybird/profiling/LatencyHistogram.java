@@ -0,0 +1,100 @@
+package com.rivelbop.flappybird.profiling;
+
+/**
+ * Counts durations in logarithmic buckets (32 buckets per power of two, so about 3% precision),
+ * which keeps recording constant time and allocation free no matter how many values are recorded.
+ * Values below 64 ns get a bucket of their own.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 5, SUB_COUNT = 1 << SUB_BITS; // Buckets per power of two
+    private static final int LINEAR = SUB_COUNT * 2; // Values below this are counted exactly
+    private static final int BUCKETS = LINEAR + (63 - (SUB_BITS + 1)) * SUB_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count, sum, max;
+
+    /**
+     * @param nanos The duration to count (negative durations are counted as 0).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0L;
+        }
+        count = sum = max = 0L;
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100.
+     * @return The lowest duration of the bucket the percentile falls into (0 when nothing was recorded).
+     */
+    public long percentile(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Replaces the recorded values with a copy of another histogram's.
+     *
+     * @param other The histogram to copy.
+     */
+    public void set(LatencyHistogram other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        count = other.count;
+        sum = other.sum;
+        max = other.max;
+    }
+
+    private static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // At least SUB_BITS + 1
+        int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_COUNT; // The bits right after the highest one
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    private static long lowestValue(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        long sub = (bucket - LINEAR) % SUB_COUNT + SUB_COUNT;
+        return sub << (exponent - SUB_BITS);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The average duration (0 when nothing was recorded).
+     */
+    public long getMean() {
+        return count == 0L ? 0L : sum / count;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rivelbop.flappybird.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Measures how long the game takes to start: until the first frame is shown (the loading screen),
+ * and until the first frame of the game itself, when it reacts to input.
+ * Both are measured from the launch of the process when the launcher provides it.
+ * <p>
+ * <u>CSV columns:</u> {@code time (epoch ms), first frame (ms), interactive (ms)}
+ */
+public class StartupMetrics {
+    private static final String HEADER = "time,first_frame_ms,interactive_ms\n";
+
+    private final long START; // System.nanoTime() of the launch
+    private long firstFrame = -1L, interactive = -1L; // Nanoseconds after the launch, -1 until reached
+
+    /**
+     * @param start When the game was launched, from {@link System#nanoTime()}.
+     */
+    public StartupMetrics(long start) {
+        START = start;
+    }
+
+    /**
+     * Called after every frame until {@link #isComplete()}.
+     *
+     * @param isInteractive Whether the frame showed the game (instead of the loading screen).
+     */
+    public void frameRendered(boolean isInteractive) {
+        long elapsed = System.nanoTime() - START;
+        if (firstFrame < 0L) {
+            firstFrame = elapsed;
+        }
+        if (isInteractive && interactive < 0L) {
+            interactive = elapsed;
+        }
+    }
+
+    /**
+     * @return Whether both times were measured.
+     */
+    public boolean isComplete() {
+        return interactive >= 0L;
+    }
+
+    /**
+     * @return The time until the first frame was shown in nanoseconds, or -1 if it wasn't yet.
+     */
+    public long getTimeToFirstFrame() {
+        return firstFrame;
+    }
+
+    /**
+     * @return The time until the game reacted to input in nanoseconds, or -1 if it didn't yet.
+     */
+    public long getTimeToInteractive() {
+        return interactive;
+    }
+
+    /**
+     * Appends both times to a CSV file, so they can be compared across releases and machines.
+     *
+     * @param file The file to append to (created with a header row if it doesn't exist).
+     * @param time The time of the launch in milliseconds since the epoch.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path file, long time) throws IOException {
+        boolean isNew = !Files.exists(file);
+        if (isNew && file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND)) {
+            if (isNew) {
+                writer.write(HEADER);
+            }
+            writer.write(time + "," + firstFrame / 1_000_000.0 + "," + interactive / 1_000_000.0 + "\n");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.rivelbop.flappybird.scores;
+
+import java.util.Arrays;
+
+/**
+ * The best records seen so far, in ranking order. Records that don't rank high enough are only counted.
+ * Not thread-safe, every thread that needs one keeps its own.
+ */
+public class Leaderboard {
+    private final ScoreRecord[] RECORDS; // Ranked, the first size entries are used
+    private int size;
+    private long runCount; // Every added record, ranked or not
+
+    /**
+     * @param capacity How many records are kept.
+     */
+    public Leaderboard(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A leaderboard must keep at least one record");
+        }
+        RECORDS = new ScoreRecord[capacity];
+    }
+
+    /**
+     * @param other The leaderboard to copy (e.g. for another thread).
+     */
+    public Leaderboard(Leaderboard other) {
+        RECORDS = other.RECORDS.clone();
+        size = other.size;
+        runCount = other.runCount;
+    }
+
+    /**
+     * Ranks a record, dropping the last one if the leaderboard is full.
+     *
+     * @param record The record to add.
+     * @return Whether the record was kept.
+     */
+    public boolean add(ScoreRecord record) {
+        runCount++;
+        if (size == RECORDS.length && !record.ranksAbove(RECORDS[size - 1])) {
+            return false;
+        }
+
+        int index = size < RECORDS.length ? size++ : size - 1; // Replaces the last record when full
+        for (; index > 0 && record.ranksAbove(RECORDS[index - 1]); index--) {
+            RECORDS[index] = RECORDS[index - 1];
+        }
+        RECORDS[index] = record;
+        return true;
+    }
+
+    /**
+     * Counts runs that are no longer known individually (e.g. dropped by a compaction).
+     *
+     * @param count The amount of runs.
+     */
+    void addUnrankedRuns(long count) {
+        runCount += count;
+    }
+
+    /**
+     * @param rank The rank, from 0 (the best) to {@link #size()} (excluded).
+     * @return The record with that rank.
+     */
+    public ScoreRecord get(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " isn't in [0, " + size + ")");
+        }
+        return RECORDS[rank];
+    }
+
+    /**
+     * @param count The maximum amount of records.
+     * @return A copy of the best records, in ranking order.
+     */
+    public ScoreRecord[] top(int count) {
+        return Arrays.copyOf(RECORDS, Math.max(0, Math.min(count, size)));
+    }
+
+    /**
+     * @return The best score, or 0 if no run was added.
+     */
+    public int getHighScore() {
+        return size == 0 ? 0 : RECORDS[0].getScore();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return RECORDS.length;
+    }
+
+    /**
+     * @return How many runs were added, including those that didn't rank.
+     */
+    public long getRunCount() {
+        return runCount;
+    }
+}
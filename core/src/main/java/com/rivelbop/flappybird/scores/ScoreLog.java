@@ -0,0 +1,248 @@
+package com.rivelbop.flappybird.scores;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of {@link ScoreRecord}s, each with its own checksum.
+ * A crash can only tear the record being appended, which is detected by its checksum and cut off when the log
+ * is opened again, so every record that was completely written survives.
+ * <p>
+ * {@link #compact(Leaderboard)} replaces the log with the ranked records of a leaderboard and the amount of runs
+ * that were dropped, so the file (and the time to open it) stays bounded no matter how many runs are played.
+ * The new log is written next to the old one and moved over it, so a crash leaves one or the other.
+ * <p>
+ * <u>File format (big-endian):</u> a header of magic ({@code "FBSL"}), version (int), dropped run count (long)
+ * and checksum (int), then records of score (int), seed (long), time (long) and checksum (int).
+ * Every checksum is the CRC-32 of the bytes before it in the header or record.
+ */
+class ScoreLog {
+    private static final int MAGIC = 0x4642534C; // "FBSL"
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 20, RECORD_SIZE = 24;
+    private static final int BUFFER_RECORDS = 2048; // Records read or written per I/O call
+
+    private final Path FILE;
+    private final ByteBuffer BUFFER = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private final CRC32 CRC = new CRC32();
+    private FileChannel channel; // Positioned at the end of the log
+    private int recordCount; // Records in the file, ranked or not
+
+    ScoreLog(Path file) {
+        FILE = file;
+    }
+
+    /**
+     * Opens a log (creating it if it doesn't exist) and ranks every record of it.
+     * A torn record at the end (and anything after it) is cut off.
+     *
+     * @param file        The log file.
+     * @param leaderboard The leaderboard to add the records to.
+     * @return The log, ready for appending.
+     * @throws IOException If the file can't be read or written, or isn't a score log.
+     */
+    static ScoreLog open(Path file, Leaderboard leaderboard) throws IOException {
+        return open(new ScoreLog(file), leaderboard);
+    }
+
+    /**
+     * Opens a log that wasn't opened yet, e.g. one of a subclass replacing {@link #moveOver(Path, Path)}.
+     *
+     * @param log         The log, created with its file.
+     * @param leaderboard The leaderboard to add the records to.
+     * @return The log, ready for appending.
+     * @throws IOException If the file can't be read or written, or isn't a score log.
+     */
+    static ScoreLog open(ScoreLog log, Leaderboard leaderboard) throws IOException {
+        Path file = log.FILE;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.deleteIfExists(temporaryFile(file)); // A compaction that didn't finish
+
+        log.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE);
+        try {
+            if (log.channel.size() < HEADER_SIZE) { // New (or torn while being created)
+                log.channel.truncate(0L);
+                log.writeHeader(log.channel, 0L);
+            } else {
+                log.readRecords(leaderboard);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    private void readRecords(Leaderboard leaderboard) throws IOException {
+        ByteBuffer buffer = BUFFER;
+        // Through Buffer, whose methods exist on Java 8 (ByteBuffer's overrides don't)
+        ((Buffer) buffer).clear().limit(HEADER_SIZE);
+        readFully(buffer, 0L);
+        ((Buffer) buffer).flip();
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException(FILE + " isn't a score log (or uses an unsupported version)");
+        }
+        long droppedRuns = buffer.getLong();
+        if (buffer.getInt() != checksum(buffer, 0, HEADER_SIZE - 4)) {
+            throw new IOException(FILE + " has a corrupted header");
+        }
+        leaderboard.addUnrankedRuns(droppedRuns);
+
+        long position = HEADER_SIZE, size = channel.size();
+        while (position + RECORD_SIZE <= size) {
+            ((Buffer) buffer).clear().limit((int) Math.min(buffer.capacity(),
+                (size - position) / RECORD_SIZE * RECORD_SIZE));
+            readFully(buffer, position);
+            ((Buffer) buffer).flip();
+            for (int start = 0; start < buffer.limit(); start += RECORD_SIZE) {
+                int score = buffer.getInt();
+                long seed = buffer.getLong(), time = buffer.getLong();
+                if (buffer.getInt() != checksum(buffer, start, RECORD_SIZE - 4) || score < 0) {
+                    size = position + start; // Torn, nothing after it can be trusted
+                    break;
+                }
+                leaderboard.add(new ScoreRecord(score, seed, time));
+                recordCount++;
+            }
+            position += buffer.limit(); // Beyond size after a torn record, which ends the loop
+        }
+        position = HEADER_SIZE + (long) recordCount * RECORD_SIZE;
+        if (channel.size() > position) {
+            channel.truncate(position);
+        }
+        channel.position(position);
+    }
+
+    /**
+     * Appends records and waits until they reached the disk.
+     *
+     * @param records The records to append.
+     * @throws IOException If the file can't be written.
+     */
+    void append(List<ScoreRecord> records) throws IOException {
+        ((Buffer) BUFFER).clear();
+        for (ScoreRecord record : records) {
+            if (BUFFER.remaining() < RECORD_SIZE) {
+                flush(channel);
+            }
+            putRecord(record);
+        }
+        flush(channel);
+        channel.force(false);
+        recordCount += records.size();
+    }
+
+    /**
+     * Replaces the log with the ranked records of a leaderboard, the other runs are only counted.
+     *
+     * @param leaderboard The leaderboard holding every run of the log.
+     * @throws IOException If the new log can't be written (the old one is kept).
+     */
+    void compact(Leaderboard leaderboard) throws IOException {
+        Path temporary = temporaryFile(FILE);
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, leaderboard.getRunCount() - leaderboard.size());
+            ((Buffer) BUFFER).clear();
+            for (int rank = 0; rank < leaderboard.size(); rank++) {
+                if (BUFFER.remaining() < RECORD_SIZE) {
+                    flush(out);
+                }
+                putRecord(leaderboard.get(rank));
+            }
+            flush(out);
+            out.force(true);
+        }
+
+        channel.close();
+        try {
+            moveOver(temporary, FILE);
+        } finally {
+            channel = FileChannel.open(FILE, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        recordCount = (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * Replaces the log with the compacted one (atomically when the file system can).
+     *
+     * @param temporary The compacted log.
+     * @param file      The log.
+     * @throws IOException If the log can't be replaced (it is kept then).
+     */
+    void moveOver(Path temporary, Path file) throws IOException {
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return How many records the file holds.
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    private void writeHeader(FileChannel out, long droppedRuns) throws IOException {
+        ((Buffer) BUFFER).clear();
+        BUFFER.putInt(MAGIC).putInt(VERSION).putLong(droppedRuns);
+        BUFFER.putInt(checksum(BUFFER, 0, HEADER_SIZE - 4));
+        flush(out);
+    }
+
+    private void putRecord(ScoreRecord record) {
+        int start = BUFFER.position();
+        BUFFER.putInt(record.getScore()).putLong(record.getSeed()).putLong(record.getTime());
+        BUFFER.putInt(checksum(BUFFER, start, RECORD_SIZE - 4));
+    }
+
+    /**
+     * @return The CRC-32 of a range of a heap buffer.
+     */
+    private int checksum(ByteBuffer buffer, int start, int length) {
+        CRC.reset();
+        CRC.update(buffer.array(), buffer.arrayOffset() + start, length);
+        return (int) CRC.getValue();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException(FILE + " ended early");
+            }
+            position += read;
+        }
+    }
+
+    private void flush(FileChannel out) throws IOException {
+        ((Buffer) BUFFER).flip();
+        while (BUFFER.hasRemaining()) {
+            out.write(BUFFER);
+        }
+        ((Buffer) BUFFER).clear();
+    }
+
+    private static Path temporaryFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+}
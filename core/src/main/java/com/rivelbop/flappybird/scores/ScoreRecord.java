@@ -0,0 +1,49 @@
+package com.rivelbop.flappybird.scores;
+
+/**
+ * The result of a played run.
+ */
+public final class ScoreRecord {
+    private final int SCORE;
+    private final long SEED; // The course of the run (see CourseGenerator)
+    private final long TIME; // When the run ended, in milliseconds since the epoch
+
+    /**
+     * @param score The score of the run.
+     * @param seed  The seed of the course the run was played on.
+     * @param time  When the run ended, in milliseconds since the epoch.
+     */
+    public ScoreRecord(int score, long seed, long time) {
+        if (score < 0) {
+            throw new IllegalArgumentException("A score can't be negative: " + score);
+        }
+        SCORE = score;
+        SEED = seed;
+        TIME = time;
+    }
+
+    /**
+     * @param other The record to compare to.
+     * @return Whether this record ranks above the other one (a higher score, or the same score reached earlier).
+     */
+    public boolean ranksAbove(ScoreRecord other) {
+        return SCORE > other.SCORE || SCORE == other.SCORE && TIME < other.TIME;
+    }
+
+    public int getScore() {
+        return SCORE;
+    }
+
+    public long getSeed() {
+        return SEED;
+    }
+
+    public long getTime() {
+        return TIME;
+    }
+
+    @Override
+    public String toString() {
+        return SCORE + " (seed " + SEED + ", " + TIME + ")";
+    }
+}
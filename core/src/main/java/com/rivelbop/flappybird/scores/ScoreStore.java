@@ -0,0 +1,183 @@
+package com.rivelbop.flappybird.scores;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Keeps the score of every played run without blocking the render thread on the disk.
+ * <p>
+ * {@link #submit(int, long)} ranks the run in an in-memory {@link Leaderboard} (so queries never touch the disk)
+ * and queues it for a background writer, which appends everything queued to a {@link ScoreLog} at once
+ * and compacts the log once enough records piled up.
+ * Only the constructor (loading the log) and {@link #close()} (waiting for the writer) do any I/O on the
+ * calling thread.
+ */
+public class ScoreStore {
+    public static final int DEFAULT_CAPACITY = 100; // Ranked records kept
+    public static final int DEFAULT_COMPACT_INTERVAL = 4096; // Unranked records in the log before compacting
+
+    private static final ScoreRecord CLOSE = new ScoreRecord(0, 0L, 0L); // Queued to stop the writer
+
+    private final Leaderboard LEADERBOARD; // Only used by the thread submitting the runs
+    private final BlockingQueue<ScoreRecord> QUEUE = new LinkedBlockingQueue<>();
+    private final Thread WRITER; // Null (like the fields below) when the runs are kept in memory only
+    private final ScoreLog LOG;
+    private final Leaderboard WRITER_LEADERBOARD; // Only used by the writer (for compactions)
+    private final int COMPACT_INTERVAL;
+    private volatile IOException writeError; // The first error of the writer, which stops saving
+
+    /**
+     * Loads the runs saved in a file and starts saving the submitted ones to it.
+     *
+     * @param file The log file (created if it doesn't exist).
+     * @throws IOException If the file can't be read or written, or isn't a score log.
+     */
+    public ScoreStore(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY, DEFAULT_COMPACT_INTERVAL);
+    }
+
+    /**
+     * Loads the runs saved in a file and starts saving the submitted ones to it.
+     *
+     * @param file            The log file (created if it doesn't exist).
+     * @param capacity        How many of the best runs are ranked.
+     * @param compactInterval How many unranked records the log may hold before it is compacted.
+     * @throws IOException If the file can't be read or written, or isn't a score log.
+     */
+    public ScoreStore(Path file, int capacity, int compactInterval) throws IOException {
+        this(new Leaderboard(capacity), file, compactInterval);
+    }
+
+    /**
+     * Keeps the runs in memory only (e.g. when the log can't be used).
+     *
+     * @param capacity How many of the best runs are ranked.
+     */
+    public ScoreStore(int capacity) {
+        LEADERBOARD = new Leaderboard(capacity);
+        WRITER_LEADERBOARD = null;
+        LOG = null;
+        WRITER = null;
+        COMPACT_INTERVAL = 0;
+    }
+
+    private ScoreStore(Leaderboard loaded, Path file, int compactInterval) throws IOException {
+        if (compactInterval < 1) {
+            throw new IllegalArgumentException("The compaction interval must be at least 1");
+        }
+        COMPACT_INTERVAL = compactInterval;
+        WRITER_LEADERBOARD = loaded;
+        LOG = ScoreLog.open(file, loaded);
+        LEADERBOARD = new Leaderboard(loaded); // Copied before the writer starts changing its own
+        WRITER = new Thread(this::write, "ScoreStore writer");
+        WRITER.setDaemon(true); // Runs that were still queued when the game crashed are lost
+        WRITER.start();
+    }
+
+    /**
+     * Ranks a run and queues it to be saved (returns right away).
+     *
+     * @param score The score of the run.
+     * @param seed  The seed of the course the run was played on.
+     * @return Whether the run ranked among the best ones.
+     */
+    public boolean submit(int score, long seed) {
+        ScoreRecord record = new ScoreRecord(score, seed, System.currentTimeMillis());
+        if (WRITER != null) {
+            QUEUE.add(record);
+        }
+        return LEADERBOARD.add(record);
+    }
+
+    private void write() {
+        List<ScoreRecord> batch = new ArrayList<>();
+        boolean isClosing = false;
+        while (!isClosing) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                isClosing = true; // Saves what is queued, then stops
+            }
+            QUEUE.drainTo(batch);
+            isClosing |= batch.remove(CLOSE);
+            if (batch.isEmpty() || writeError != null) {
+                batch.clear();
+                continue;
+            }
+
+            try {
+                LOG.append(batch); // One write and sync for everything queued meanwhile
+                for (ScoreRecord record : batch) {
+                    WRITER_LEADERBOARD.add(record);
+                }
+                if (LOG.getRecordCount() - WRITER_LEADERBOARD.size() >= COMPACT_INTERVAL) {
+                    LOG.compact(WRITER_LEADERBOARD);
+                }
+            } catch (IOException e) {
+                writeError = e;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Waits until every submitted run was saved and stops the writer.
+     *
+     * @throws IOException If a run couldn't be saved (runs submitted after the error weren't saved either).
+     */
+    public void close() throws IOException {
+        if (WRITER == null) {
+            return;
+        }
+        if (WRITER.isAlive()) {
+            QUEUE.add(CLOSE);
+            boolean isInterrupted = false;
+            while (WRITER.isAlive()) {
+                try {
+                    WRITER.join();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                LOG.close();
+            } catch (IOException e) {
+                if (writeError == null) {
+                    writeError = e;
+                }
+            }
+        }
+        if (writeError != null) {
+            throw writeError;
+        }
+    }
+
+    /**
+     * @return The best score, or 0 if no run was played.
+     */
+    public int getHighScore() {
+        return LEADERBOARD.getHighScore();
+    }
+
+    /**
+     * @param count The maximum amount of runs.
+     * @return The best runs, in ranking order.
+     */
+    public ScoreRecord[] getTop(int count) {
+        return LEADERBOARD.top(count);
+    }
+
+    /**
+     * @return How many runs were ever submitted, including those that didn't rank.
+     */
+    public long getRunCount() {
+        return LEADERBOARD.getRunCount();
+    }
+}
@@ -0,0 +1,128 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * The opaque pixels of a (scaled and rotated) image, stored as one bit set per row.
+ * Two masks overlap when any of their rows share a set bit, which only takes a few 64-bit ANDs per row.
+ * <p>
+ * Rows are stored bottom to top (like world coordinates), bit {@code i} of a row is the pixel {@code i} from the left.
+ */
+public class CollisionMask {
+    private final int width, height;
+    private final int words; // Amount of longs per row
+    private final long[] bits;
+
+    private CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        words = (width + 63) >>> 6;
+        bits = new long[words * height];
+    }
+
+    /**
+     * Creates the mask of an image scaled and rotated around its center.
+     * The mask covers the bounding box of the transformed image, just like {@code Sprite.getBoundingRectangle()}.
+     *
+     * @param opaque    Whether each pixel of the source image is opaque (row-major, top row first like image files).
+     * @param srcWidth  The width of the source image.
+     * @param srcHeight The height of the source image.
+     * @param scale     The scale applied to the image.
+     * @param degrees   The counterclockwise rotation applied to the image.
+     * @return The mask of the transformed image.
+     */
+    public static CollisionMask create(boolean[] opaque, int srcWidth, int srcHeight, float scale, float degrees) {
+        if (opaque.length != srcWidth * srcHeight) {
+            throw new IllegalArgumentException("Expected " + srcWidth * srcHeight + " pixels, got " + opaque.length);
+        }
+
+        double rad = Math.toRadians(degrees);
+        double cos = Math.cos(rad), sin = Math.sin(rad);
+        double absCos = Math.abs(cos), absSin = Math.abs(sin);
+        // Round away tiny errors (e.g. cos(90) isn't exactly 0) so unrotated masks keep the exact size
+        int width = (int) Math.ceil(Math.round((srcWidth * absCos + srcHeight * absSin) * scale * 1000.0) / 1000.0);
+        int height = (int) Math.ceil(Math.round((srcWidth * absSin + srcHeight * absCos) * scale * 1000.0) / 1000.0);
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Center of the destination pixel relative to the center of the mask
+                double u = x + 0.5 - width / 2.0, v = y + 0.5 - height / 2.0;
+                // Rotate back and unscale to find the source pixel (bottom-up coordinates)
+                double srcX = (u * cos + v * sin) / scale + srcWidth / 2.0;
+                double srcY = (-u * sin + v * cos) / scale + srcHeight / 2.0;
+                if (srcX < 0.0 || srcY < 0.0 || srcX >= srcWidth || srcY >= srcHeight) {
+                    continue;
+                }
+                int row = srcHeight - 1 - (int) srcY; // The source image is stored top row first
+                if (opaque[row * srcWidth + (int) srcX]) {
+                    mask.set(x, y);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return A copy of this mask flipped vertically.
+     */
+    public CollisionMask flipY() {
+        CollisionMask flipped = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(bits, y * words, flipped.bits, (height - 1 - y) * words, words);
+        }
+        return flipped;
+    }
+
+    private void set(int x, int y) {
+        bits[y * words + (x >>> 6)] |= 1L << (x & 63);
+    }
+
+    /**
+     * @return Whether the pixel is opaque.
+     */
+    public boolean get(int x, int y) {
+        return (bits[y * words + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * Retrieves 64 pixels of a row starting at a column (pixels past the width are 0).
+     */
+    private long word(int y, int x) {
+        int i = y * words + (x >>> 6), shift = x & 63;
+        long word = bits[i] >>> shift;
+        if (shift != 0 && (x >>> 6) + 1 < words) {
+            word |= bits[i + 1] << (64 - shift);
+        }
+        return word;
+    }
+
+    /**
+     * Checks if any opaque pixel of this mask lies on an opaque pixel of the other mask.
+     * Only the rows and columns where both masks overlap are tested.
+     *
+     * @param other The other mask.
+     * @param dx    The x-pos of the other mask's bottom-left corner relative to this mask's.
+     * @param dy    The y-pos of the other mask's bottom-left corner relative to this mask's.
+     * @return Whether the masks overlap.
+     */
+    public boolean overlaps(CollisionMask other, int dx, int dy) {
+        int y0 = Math.max(0, dy), y1 = Math.min(height, dy + other.height);
+        int x0 = Math.max(0, dx), x1 = Math.min(width, dx + other.width);
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x += 64) {
+                // Pixels past the width of either mask are 0, so no extra masking is needed
+                if ((word(y, x) & other.word(y - dy, x - dx)) != 0L) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
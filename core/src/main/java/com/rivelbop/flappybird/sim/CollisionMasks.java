@@ -0,0 +1,46 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * The pixel-precise shapes of the bird and pipes, precomputed once so collisions never transform images.
+ * The bird is pre-rotated in steps of {@link #BIRD_STEP} degrees covering every rotation it can reach.
+ */
+public class CollisionMasks {
+    public static final float
+        BIRD_MIN_DEG = -90f, // The bird faces directly down
+        BIRD_STEP = 5f; // Degrees between two pre-rotated bird masks
+
+    private final CollisionMask[] BIRD; // Index 0 is BIRD_MIN_DEG
+    private final CollisionMask PIPE_BOTTOM, PIPE_TOP;
+
+    /**
+     * @param bird Opaque pixels of the bird (row-major, top row first), should combine every animation frame.
+     * @param pipe Opaque pixels of the pipe texture (row-major, top row first).
+     */
+    public CollisionMasks(boolean[] bird, boolean[] pipe) {
+        int birdWidth = (int) World.BIRD_WIDTH, birdHeight = (int) World.BIRD_HEIGHT;
+        BIRD = new CollisionMask[(int) ((World.MAX_DEG - BIRD_MIN_DEG) / BIRD_STEP) + 1];
+        for (int i = 0; i < BIRD.length; i++) {
+            BIRD[i] = CollisionMask.create(bird, birdWidth, birdHeight, World.BIRD_SCALE, BIRD_MIN_DEG + i * BIRD_STEP);
+        }
+
+        PIPE_BOTTOM = CollisionMask.create(pipe, (int) World.PIPE_WIDTH, (int) World.PIPE_HEIGHT, World.PIPE_SCALE, 0f);
+        PIPE_TOP = PIPE_BOTTOM.flipY(); // The top pipe is flipped to face down
+    }
+
+    /**
+     * @param rotation The rotation of the bird in degrees.
+     * @return The pre-rotated bird mask closest to the rotation.
+     */
+    public CollisionMask bird(float rotation) {
+        int i = Math.round((rotation - BIRD_MIN_DEG) / BIRD_STEP);
+        return BIRD[Math.max(0, Math.min(BIRD.length - 1, i))];
+    }
+
+    public CollisionMask pipeBottom() {
+        return PIPE_BOTTOM;
+    }
+
+    public CollisionMask pipeTop() {
+        return PIPE_TOP;
+    }
+}
@@ -0,0 +1,324 @@
+package com.rivelbop.flappybird.sim;
+
+import static com.rivelbop.flappybird.sim.World.*;
+
+/**
+ * The pipe course the bird flies through: a fixed ring of pipe group slots that scroll left and are recycled in place.
+ * Every recycled group is placed with the next values of the {@link CourseGenerator}.
+ * Also answers whether a bird at some height and rotation collides with a pipe, or passed one.
+ * Shared by the {@link World} (one bird) and the {@link Population} (many birds flying the same course).
+ * <p>
+ * Pipes use the same coordinates as the sprites: the bottom-left corner of the (unscaled) bottom pipe sprite.
+ */
+public class Course {
+    // Largest distance from the bird's center to the edge of its bounding box, whatever its rotation (half diagonal)
+    private static final float BIRD_REACH =
+        (float) Math.sqrt(BIRD_WIDTH * BIRD_WIDTH + BIRD_HEIGHT * BIRD_HEIGHT) * BIRD_SCALE / 2f;
+    // Pipes are scaled around their center, so the scaled box grows equally in every direction
+    private static final float
+        PAD_X = PIPE_WIDTH * (PIPE_SCALE - 1f) / 2f, PAD_Y = PIPE_HEIGHT * (PIPE_SCALE - 1f) / 2f,
+        SCALED_WIDTH = PIPE_WIDTH * PIPE_SCALE, SCALED_HEIGHT = PIPE_HEIGHT * PIPE_SCALE;
+
+    private final CourseGenerator GENERATOR;
+    private final float SPEED; // The speed the pipes move at
+
+    /* Pipe State (a fixed ring of pipe group slots, recycled in place) */
+    private final float[] pipeX, pipeY, pipeGap;
+    private final boolean[] pipeScored; // Prevents additional scores on a pipe group
+    private int firstPipe; // Index of the left-most slot, the next one to be recycled
+    private final float[] prevPipeX; // Positions before the last update, used to interpolate the rendered positions
+
+    private CollisionMasks masks; // Pixel-precise shapes (only bounding boxes are used when null)
+
+    /**
+     * Creates a course with just enough pipe group slots to always keep the screen filled.
+     *
+     * @param generator The generator of the pipe groups (reset by this course).
+     */
+    public Course(CourseGenerator generator) {
+        this(generator, pipeCountFor(generator.getDifficulty().getMinSpacing()));
+    }
+
+    /**
+     * Creates a course with a custom amount of pipe group slots.
+     *
+     * @param generator The generator of the pipe groups (reset by this course).
+     * @param pipeCount The amount of pipe group slots, at least {@link #pipeCountFor(float)} of the smallest spacing.
+     */
+    public Course(CourseGenerator generator, int pipeCount) {
+        this(generator, pipeCount, PIPE_SPEED);
+    }
+
+    /**
+     * Creates a course with a custom amount of pipe group slots and scrolling speed.
+     *
+     * @param generator The generator of the pipe groups (reset by this course).
+     * @param pipeCount The amount of pipe group slots, at least {@link #pipeCountFor(float)} of the smallest spacing.
+     * @param speed     The speed the pipes move at (negative, they move left).
+     */
+    public Course(CourseGenerator generator, int pipeCount, float speed) {
+        float minSpacing = generator.getDifficulty().getMinSpacing();
+        if (pipeCount < pipeCountFor(minSpacing)) {
+            throw new IllegalArgumentException(pipeCount + " pipe groups can't fill the screen with a spacing of "
+                + minSpacing + ", at least " + pipeCountFor(minSpacing) + " are required");
+        }
+        GENERATOR = generator;
+        SPEED = speed;
+        pipeX = new float[pipeCount];
+        pipeY = new float[pipeCount];
+        pipeGap = new float[pipeCount];
+        pipeScored = new boolean[pipeCount];
+        prevPipeX = new float[pipeCount];
+        reset();
+    }
+
+    /**
+     * Calculates how many pipe group slots are needed so that a recycled group always reappears off-screen.
+     *
+     * @param pipeSpacing The horizontal distance between two pipe groups.
+     * @return The minimum amount of pipe group slots.
+     */
+    public static int pipeCountFor(float pipeSpacing) {
+        return Math.max(2, (int) Math.ceil((WIDTH - PIPE_OFF_SCREEN_X) / pipeSpacing));
+    }
+
+    /**
+     * Starts the same course again, with every pipe group back off-screen.
+     */
+    public void reset() {
+        GENERATOR.reset();
+        placeFirstPipes();
+    }
+
+    /**
+     * Starts a new course, with every pipe group back off-screen.
+     *
+     * @param seed The seed of the new course.
+     */
+    public void reset(long seed) {
+        GENERATOR.reset(seed);
+        placeFirstPipes();
+    }
+
+    private void placeFirstPipes() {
+        // Create pipes off-screen (add 30f to shift entirely off-screen)
+        placePipe(0, WIDTH + 30f);
+        for (int i = 1; i < pipeX.length; i++) {
+            placePipe(i, pipeX[i - 1]);
+        }
+        firstPipe = 0;
+        savePrevious();
+    }
+
+    /**
+     * Remembers the current positions so they can be interpolated after the next update.
+     */
+    public void savePrevious() {
+        System.arraycopy(pipeX, 0, prevPipeX, 0, pipeX.length);
+    }
+
+    /**
+     * Copies the pipe slots into a snapshot (see {@link World#capture(WorldSnapshot, long, long)}).
+     *
+     * @param into The snapshot to overwrite.
+     */
+    void capture(WorldSnapshot into) {
+        checkPipeCount(into);
+        System.arraycopy(pipeX, 0, into.PIPE_X, 0, pipeX.length);
+        System.arraycopy(pipeY, 0, into.PIPE_Y, 0, pipeY.length);
+        System.arraycopy(pipeGap, 0, into.PIPE_GAP, 0, pipeGap.length);
+        System.arraycopy(pipeScored, 0, into.PIPE_SCORED, 0, pipeScored.length);
+        into.firstPipe = firstPipe;
+        into.seed = GENERATOR.getSeed();
+        into.groupIndex = GENERATOR.getIndex();
+    }
+
+    /**
+     * Puts the pipe slots of a snapshot back (see {@link World#restore(WorldSnapshot)}).
+     *
+     * @param snapshot The snapshot to continue from.
+     */
+    void restore(WorldSnapshot snapshot) {
+        checkPipeCount(snapshot);
+        System.arraycopy(snapshot.PIPE_X, 0, pipeX, 0, pipeX.length);
+        System.arraycopy(snapshot.PIPE_Y, 0, pipeY, 0, pipeY.length);
+        System.arraycopy(snapshot.PIPE_GAP, 0, pipeGap, 0, pipeGap.length);
+        System.arraycopy(snapshot.PIPE_SCORED, 0, pipeScored, 0, pipeScored.length);
+        firstPipe = snapshot.firstPipe;
+        GENERATOR.seek(snapshot.seed, snapshot.groupIndex); // Recycled groups get the snapshot course's pipes
+    }
+
+    private void checkPipeCount(WorldSnapshot snapshot) {
+        if (snapshot.getPipeCount() != pipeX.length) {
+            throw new IllegalArgumentException("The snapshot holds " + snapshot.getPipeCount()
+                + " pipe groups instead of " + pipeX.length);
+        }
+    }
+
+    /**
+     * Moves the pipes left and recycles the left-most group once it is off-screen.
+     *
+     * @param delta The time to simulate in seconds.
+     */
+    public void updatePipes(float delta) {
+        for (int i = 0; i < pipeX.length; i++) {
+            pipeX[i] += SPEED * delta;
+        }
+
+        while (pipeX[firstPipe] < PIPE_OFF_SCREEN_X) {
+            // Move the group behind the right-most one, which is the slot right before it in the ring
+            int last = (firstPipe + pipeX.length - 1) % pipeX.length;
+            placePipe(firstPipe, pipeX[last]);
+            firstPipe = (firstPipe + 1) % pipeX.length;
+        }
+    }
+
+    /**
+     * Places the next generated pipe group behind another group and clears its score flag.
+     *
+     * @param i     The slot of the group.
+     * @param prevX The x-pos of the group in front of it (the first group is placed right there).
+     */
+    private void placePipe(int i, float prevX) {
+        GENERATOR.next();
+        pipeX[i] = GENERATOR.getIndex() == 0 ? prevX : prevX + GENERATOR.getSpacing();
+        pipeY[i] = GENERATOR.getY();
+        pipeGap[i] = GENERATOR.getGap();
+        pipeScored[i] = false;
+    }
+
+    /**
+     * A cheap test for skipping collision checks: whether any pipe group is horizontally close enough
+     * to touch the bird, whatever its rotation.
+     *
+     * @return Whether a bird could collide with a pipe right now.
+     */
+    public boolean isNearBird() {
+        for (float x : pipeX) {
+            float left = x - PAD_X;
+            if (BIRD_X - BIRD_REACH < left + SCALED_WIDTH && BIRD_X + BIRD_REACH > left) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a bird collides with the top or bottom pipe of any group.
+     * The bounding boxes (matching {@code Sprite.getBoundingRectangle()}, taking scale and rotation into account)
+     * are compared first. When collision masks are set, overlapping boxes are then tested pixel by pixel,
+     * so the cost stays constant per frame no matter how close the bird gets.
+     *
+     * @param birdY    The center y-pos of the bird.
+     * @param rotation The rotation of the bird in degrees.
+     * @return Whether the bird collides with any pipe.
+     */
+    public boolean collides(float birdY, float rotation) {
+        // Half extents of the scaled bird rotated around its center
+        float rad = rotation * (float) Math.PI / 180f;
+        float cos = Math.abs((float) Math.cos(rad)), sin = Math.abs((float) Math.sin(rad));
+        float halfW = (BIRD_WIDTH * cos + BIRD_HEIGHT * sin) * BIRD_SCALE / 2f;
+        float halfH = (BIRD_WIDTH * sin + BIRD_HEIGHT * cos) * BIRD_SCALE / 2f;
+        float bLeft = BIRD_X - halfW, bRight = BIRD_X + halfW;
+        float bBottom = birdY - halfH, bTop = birdY + halfH;
+
+        for (int i = 0; i < pipeX.length; i++) {
+            float pLeft = pipeX[i] - PAD_X;
+            if (bLeft >= pLeft + SCALED_WIDTH || bRight <= pLeft) {
+                continue; // No horizontal overlap with either pipe
+            }
+            float bottomBottom = pipeY[i] - PAD_Y; // Bottom edge of the bottom pipe
+            float topBottom = topPipeY(pipeY[i], pipeGap[i]) - PAD_Y; // Bottom edge of the top pipe
+            if (bBottom < bottomBottom + SCALED_HEIGHT &&
+                (masks == null || masksOverlap(birdY, rotation, masks.pipeBottom(), pLeft, bottomBottom))) {
+                return true;
+            }
+            if (bTop > topBottom && (masks == null || masksOverlap(birdY, rotation, masks.pipeTop(), pLeft, topBottom))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests the bird's mask (centered on the bird) against a pipe mask, pixel by pixel.
+     *
+     * @param birdY    The center y-pos of the bird.
+     * @param rotation The rotation of the bird in degrees.
+     * @param pipe     The mask of the pipe.
+     * @param left     The x-pos of the left edge of the scaled pipe.
+     * @param bottom   The y-pos of the bottom edge of the scaled pipe.
+     * @return Whether the opaque pixels overlap.
+     */
+    private boolean masksOverlap(float birdY, float rotation, CollisionMask pipe, float left, float bottom) {
+        CollisionMask bird = masks.bird(rotation);
+        float birdLeft = BIRD_X - bird.getWidth() / 2f, birdBottom = birdY - bird.getHeight() / 2f;
+        return bird.overlaps(pipe, Math.round(left - birdLeft), Math.round(bottom - birdBottom));
+    }
+
+    /**
+     * Checks if the bird passed the middle of a pipe group that wasn't scored yet.
+     * Each group only scores once (after the initial pass) to avoid constant scoring.
+     *
+     * @return Whether the bird has passed a pipe group and scored.
+     */
+    public boolean updateScore() {
+        float birdLeft = BIRD_X - BIRD_WIDTH / 2f;
+        for (int i = 0; i < pipeX.length; i++) {
+            if (!pipeScored[i] && birdLeft > pipeX[i] + PIPE_WIDTH / 2f) {
+                pipeScored[i] = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Enables pixel-precise collisions, bounding boxes are still used to skip pipes that are far away.
+     *
+     * @param masks The shapes of the bird and pipes, or null to only use bounding boxes.
+     */
+    public void setCollisionMasks(CollisionMasks masks) {
+        this.masks = masks;
+    }
+
+    public CollisionMasks getCollisionMasks() {
+        return masks;
+    }
+
+    public int getPipeCount() {
+        return pipeX.length;
+    }
+
+    public CourseGenerator getGenerator() {
+        return GENERATOR;
+    }
+
+    public float getPipeX(int i) {
+        return pipeX[i];
+    }
+
+    /**
+     * @param i     The index of the pipe group.
+     * @param alpha How far to interpolate from the previous (0) to the current (1) update.
+     * @return The interpolated x-pos of the pipe group.
+     */
+    public float getPipeX(int i, float alpha) {
+        if (pipeX[i] > prevPipeX[i]) {
+            return pipeX[i]; // The group was respawned on the right, don't slide it across the screen
+        }
+        return prevPipeX[i] + (pipeX[i] - prevPipeX[i]) * alpha;
+    }
+
+    public float getPipeY(int i) {
+        return pipeY[i];
+    }
+
+    /**
+     * @param i The index of the pipe group.
+     * @return The space between the bottom and top pipe of the group.
+     */
+    public float getPipeGap(int i) {
+        return pipeGap[i];
+    }
+}
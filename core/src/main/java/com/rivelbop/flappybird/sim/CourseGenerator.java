@@ -0,0 +1,157 @@
+package com.rivelbop.flappybird.sim;
+
+import java.util.Random;
+
+import static com.rivelbop.flappybird.sim.World.PIPE_MAX_Y;
+import static com.rivelbop.flappybird.sim.World.PIPE_MIN_Y;
+
+/**
+ * Generates the pipe groups of a course from a seed: the same seed and difficulty always give the same course.
+ * The upcoming groups are generated into a lookahead buffer of primitives when a course starts, far more than a
+ * round usually reaches, and {@link #refill()} tops it up a batch at a time outside the steps (e.g. once a frame is
+ * drawn). Placing a group during a step only reads the buffer. The random generator is only used in a step when a
+ * round outruns the whole buffer without a refill (e.g. a headless run that never calls it).
+ */
+public class CourseGenerator {
+    private static final int CAPACITY = 1024; // Groups buffered ahead of the current one
+    private static final int BATCH = 64; // Groups generated at once after the course started
+
+    private final Random RANDOM = new Random();
+    private final Difficulty DIFFICULTY;
+    private long seed;
+
+    /* Lookahead Buffer (a ring indexed by group number % CAPACITY, the current group's slot is never overwritten) */
+    private final float[] y = new float[CAPACITY], gap = new float[CAPACITY], spacing = new float[CAPACITY];
+    private int generated; // Amount of groups generated since the reset
+    private int current = -1; // Number of the group returned by the last next() (-1 before the first one)
+
+    /**
+     * Creates a generator of courses that never get harder.
+     *
+     * @param seed The seed of the course.
+     */
+    public CourseGenerator(long seed) {
+        this(seed, Difficulty.constant(World.PIPE_GAP, World.PIPE_SPACING));
+    }
+
+    /**
+     * @param seed       The seed of the course.
+     * @param difficulty How the gaps and spacing change with the score.
+     */
+    public CourseGenerator(long seed, Difficulty difficulty) {
+        DIFFICULTY = difficulty;
+        reset(seed);
+    }
+
+    /**
+     * Starts the same course again from its first group.
+     */
+    public void reset() {
+        reset(seed);
+    }
+
+    /**
+     * Starts a new course from its first group.
+     *
+     * @param seed The seed of the new course.
+     */
+    public void reset(long seed) {
+        this.seed = seed;
+        RANDOM.setSeed(seed);
+        generated = 0;
+        current = -1;
+        fill(CAPACITY - 1);
+    }
+
+    /**
+     * Makes a group of a course the current one, as if the course was generated up to it (e.g. to continue from a
+     * {@link WorldSnapshot}). Groups still buffered are only pointed at, the course is only generated again from its
+     * first group when the seed changed or the group isn't buffered anymore.
+     *
+     * @param seed  The seed of the course.
+     * @param index The number of the group to make current (-1 before the first one).
+     */
+    public void seek(long seed, int index) {
+        if (seed != this.seed || index < generated - CAPACITY) {
+            reset(seed);
+        }
+        if (index >= generated) {
+            fill(index + 1 - generated); // Only the last CAPACITY groups are kept
+        }
+        current = index;
+    }
+
+    /**
+     * Moves on to the next group, its values can then be read with the getters.
+     */
+    public void next() {
+        current++;
+        if (current == generated) { // Every buffered group was used without a refill, generate some right away
+            fill(BATCH);
+        }
+    }
+
+    /**
+     * Generates the next batch of groups into the slots of groups already passed, once a whole batch is free.
+     * Meant to be called outside the steps (e.g. once a frame is drawn), so they never use the random generator.
+     *
+     * @return Whether any group was generated.
+     */
+    public boolean refill() {
+        if (current + CAPACITY - generated < BATCH) {
+            return false;
+        }
+        fill(BATCH);
+        return true;
+    }
+
+    /**
+     * Generates the next groups into free slots of the buffer.
+     *
+     * @param count The amount of groups to generate, at most the amount of free slots.
+     */
+    private void fill(int count) {
+        for (int end = generated + count; generated < end; generated++) {
+            int i = generated % CAPACITY;
+            y[i] = PIPE_MIN_Y + RANDOM.nextFloat() * (PIPE_MAX_Y - PIPE_MIN_Y);
+            gap[i] = DIFFICULTY.gap(generated);
+            spacing[i] = DIFFICULTY.spacing(generated);
+        }
+    }
+
+    /**
+     * @return The number of the current group (which is also the score the bird reaches it with).
+     */
+    public int getIndex() {
+        return current;
+    }
+
+    /**
+     * @return The y-pos of the current group's bottom pipe.
+     */
+    public float getY() {
+        return y[current % CAPACITY];
+    }
+
+    /**
+     * @return The space between the bottom and top pipe of the current group.
+     */
+    public float getGap() {
+        return gap[current % CAPACITY];
+    }
+
+    /**
+     * @return The horizontal distance from the previous group to the current group.
+     */
+    public float getSpacing() {
+        return spacing[current % CAPACITY];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Difficulty getDifficulty() {
+        return DIFFICULTY;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * How the course gets harder as the score goes up: the gap between the pipes and the distance between
+ * pipe groups change linearly from their start values to their end values over a number of points.
+ * <p>
+ * Pipe group {@code n} (counted from 0) is the one the bird reaches with a score of {@code n},
+ * so the values for a score are the values of that group.
+ */
+public class Difficulty {
+    private final float START_GAP, END_GAP, START_SPACING, END_SPACING;
+    private final int RAMP_SCORE; // The score the end values are reached at
+
+    /**
+     * @param startGap     The gap of the first pipe group.
+     * @param endGap       The gap once the ramp score is reached.
+     * @param startSpacing The horizontal distance between the first pipe groups.
+     * @param endSpacing   The horizontal distance between pipe groups once the ramp score is reached.
+     * @param rampScore    The score the end values are reached at.
+     */
+    public Difficulty(float startGap, float endGap, float startSpacing, float endSpacing, int rampScore) {
+        if (startGap <= 0f || endGap <= 0f) {
+            throw new IllegalArgumentException("Gaps must be positive: " + startGap + ", " + endGap);
+        }
+        if (startSpacing <= 0f || endSpacing <= 0f) {
+            throw new IllegalArgumentException("Spacings must be positive: " + startSpacing + ", " + endSpacing);
+        }
+        if (rampScore < 0) {
+            throw new IllegalArgumentException("rampScore can't be negative: " + rampScore);
+        }
+        START_GAP = startGap;
+        END_GAP = endGap;
+        START_SPACING = startSpacing;
+        END_SPACING = endSpacing;
+        RAMP_SCORE = rampScore;
+    }
+
+    /**
+     * Creates a difficulty that never changes.
+     *
+     * @param gap     The space between the bottom and top pipe.
+     * @param spacing The horizontal distance between two pipe groups.
+     * @return The constant difficulty.
+     */
+    public static Difficulty constant(float gap, float spacing) {
+        return new Difficulty(gap, gap, spacing, spacing, 0);
+    }
+
+    /**
+     * @param score The score the bird reaches the pipe group with.
+     * @return The space between the bottom and top pipe of the group.
+     */
+    public float gap(int score) {
+        return START_GAP + (END_GAP - START_GAP) * progress(score);
+    }
+
+    /**
+     * @param score The score the bird reaches the pipe group with.
+     * @return The horizontal distance from the previous group to this group.
+     */
+    public float spacing(int score) {
+        return START_SPACING + (END_SPACING - START_SPACING) * progress(score);
+    }
+
+    /**
+     * @return The smallest distance between two pipe groups at any score (decides the amount of pipe slots).
+     */
+    public float getMinSpacing() {
+        return Math.min(START_SPACING, END_SPACING);
+    }
+
+    /**
+     * @return How far along the ramp a score is, from 0 to 1.
+     */
+    private float progress(int score) {
+        return RAMP_SCORE == 0 ? 1f : Math.min(1f, (float) score / RAMP_SCORE);
+    }
+}
@@ -0,0 +1,305 @@
+package com.rivelbop.flappybird.sim;
+
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands the {@link GameEvent}s of one publishing thread (the game loop) to any amount of subscribers, on that thread
+ * or on threads of their own, without allocation.
+ * <p>
+ * Every {@link Subscription} has a ring of its own: preallocated event slots, numbered by a sequence that only grows,
+ * filled with copies of the events of the types it handles. It handles everything published since its last drain in
+ * one batch, so each consumer (sounds, saving, UI, metrics, etc.) only pays for what happened instead of polling the
+ * game state, and a thread is only woken up by the events it handles. A slot is only reused once the subscription
+ * moved past it, so an event is never changed while it is handled. When a subscription falls a whole ring behind,
+ * its new events are dropped (and counted) instead of waiting for it, the other subscriptions miss nothing.
+ * <p>
+ * Publishing and draining take no locks. The latencies recorded by a thread of its own are copied under a lock
+ * once per batch, for whoever reads them.
+ */
+public class EventRing {
+    /**
+     * Handles the events of a subscription.
+     */
+    public interface Subscriber {
+        /**
+         * @param event The event, only valid during the call.
+         */
+        void onEvent(GameEvent event);
+    }
+
+    private final int CAPACITY;
+    private final GameEvent EVENT = new GameEvent(); // Filled by the publisher, then copied to the subscriptions
+    private volatile Subscription[] subscriptions = new Subscription[0]; // Replaced when subscribing
+    private volatile boolean isClosed;
+
+    /**
+     * @param capacity The amount of event slots of each subscription, a power of two.
+     */
+    public EventRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two: " + capacity);
+        }
+        CAPACITY = capacity;
+    }
+
+    /**
+     * Subscribes on the publishing thread: the events are only handled when {@link Subscription#drain()} is called.
+     * Events published before subscribing aren't handled.
+     *
+     * @param subscriber Handles the events.
+     * @param types      The types of the events handled, every type if none are given.
+     * @return The subscription to drain.
+     */
+    public Subscription subscribe(Subscriber subscriber, GameEvent.Type... types) {
+        return add(new Subscription(subscriber, null, types));
+    }
+
+    /**
+     * Subscribes on a thread of its own, woken up whenever an event it handles is published, so a slow subscriber
+     * (e.g. one writing files) never holds up the game loop. The thread stops once the ring is {@link #close() closed}.
+     *
+     * @param subscriber Handles the events.
+     * @param name       The name of the thread.
+     * @param types      The types of the events handled, every type if none are given.
+     * @return The subscription, drained by its thread.
+     */
+    public Subscription subscribe(Subscriber subscriber, String name, GameEvent.Type... types) {
+        Subscription subscription = new Subscription(subscriber, name, types);
+        add(subscription);
+        subscription.THREAD.start();
+        return subscription;
+    }
+
+    private synchronized Subscription add(Subscription subscription) {
+        if (isClosed) {
+            throw new IllegalStateException("The event ring is closed");
+        }
+        Subscription[] added = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        added[subscriptions.length] = subscription;
+        subscriptions = added;
+        return subscription;
+    }
+
+    /* Publishing (only called by the publishing thread) */
+
+    public void publishFlap(int tick) {
+        claim(GameEvent.Type.FLAP, tick);
+        publish();
+    }
+
+    /**
+     * @param tick  The step the bird scored on.
+     * @param score The score after passing the pipe group.
+     */
+    public void publishScore(int tick, int score) {
+        claim(GameEvent.Type.SCORE, tick).score = score;
+        publish();
+    }
+
+    /**
+     * @param tick  The step the bird died on.
+     * @param cause What the bird hit.
+     */
+    public void publishHit(int tick, World.DeathCause cause) {
+        claim(GameEvent.Type.HIT, tick).cause = cause;
+        publish();
+    }
+
+    /**
+     * @param tick        The step the bird died on.
+     * @param score       The final score.
+     * @param seed        The seed of the course.
+     * @param recording   The recorded run, or null if it wasn't recorded.
+     * @param isPlayerRun Whether a player flew the run (not a watched replay or a bot).
+     */
+    public void publishDeath(int tick, int score, long seed, ReplayRecorder.Recording recording,
+                             boolean isPlayerRun) {
+        GameEvent event = claim(GameEvent.Type.DEATH, tick);
+        event.score = score;
+        event.seed = seed;
+        event.recording = recording;
+        event.isPlayerRun = isPlayerRun;
+        publish();
+    }
+
+    /**
+     * @param seed The seed of the new course.
+     */
+    public void publishRestart(long seed) {
+        claim(GameEvent.Type.RESTART, 0).seed = seed;
+        publish();
+    }
+
+    /**
+     * @return The event to fill, copied to the subscriptions by {@link #publish()}.
+     */
+    private GameEvent claim(GameEvent.Type type, int tick) {
+        EVENT.set(type, tick);
+        return EVENT;
+    }
+
+    private void publish() {
+        EVENT.time = System.nanoTime();
+        int type = 1 << EVENT.type.ordinal();
+        for (Subscription subscription : subscriptions) {
+            if ((subscription.TYPES & type) != 0) {
+                subscription.offer(EVENT);
+            }
+        }
+    }
+
+    /**
+     * Stops the threads of the subscriptions once they handled every published event, and waits for them.
+     */
+    public void close() {
+        Subscription[] stopped;
+        synchronized (this) {
+            isClosed = true;
+            stopped = subscriptions;
+        }
+        boolean isInterrupted = false;
+        for (Subscription subscription : stopped) {
+            if (subscription.THREAD == null) {
+                continue;
+            }
+            LockSupport.unpark(subscription.THREAD);
+            while (subscription.THREAD.isAlive()) {
+                try {
+                    subscription.THREAD.join();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The events of one subscriber, along with the time they took to be handled.
+     */
+    public class Subscription {
+        private final Subscriber SUBSCRIBER;
+        private final int TYPES; // The handled GameEvent.Types, one bit per type
+        private final GameEvent[] SLOTS = new GameEvent[CAPACITY];
+        private final AtomicLong
+            PUBLISHED = new AtomicLong(), // The sequence of the next event, all before are readable
+            CURSOR = new AtomicLong(); // The sequence of the next event to handle, all before can be reused
+        private final Thread THREAD; // Null when drained by the publishing thread
+        private final LatencyHistogram LATENCY = new LatencyHistogram(); // Only used by the draining thread
+        private final LatencyHistogram SNAPSHOT; // Guarded by itself, copied after each batch of a thread, else null
+        private volatile int snapshotCount; // How many times the snapshot was copied
+        private int copiedSnapshotCount; // The snapshot last read by copyLatency()
+
+        /* Only used by the publishing thread */
+        private long knownCursor; // The cursor when last looked at
+        private long droppedCount;
+
+        private Subscription(Subscriber subscriber, String name, GameEvent.Type[] types) {
+            SUBSCRIBER = subscriber;
+            int mask = 0;
+            for (GameEvent.Type type : types) {
+                mask |= 1 << type.ordinal();
+            }
+            TYPES = types.length == 0 ? -1 : mask;
+            for (int i = 0; i < CAPACITY; i++) {
+                SLOTS[i] = new GameEvent();
+            }
+            if (name == null) {
+                THREAD = null;
+                SNAPSHOT = null;
+            } else {
+                THREAD = new Thread(this::run, name);
+                THREAD.setDaemon(true);
+                SNAPSHOT = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * Copies an event to the next slot, or drops it when the subscription is a whole ring behind.
+         */
+        private void offer(GameEvent event) {
+            long next = PUBLISHED.get();
+            if (next - knownCursor >= CAPACITY) {
+                knownCursor = CURSOR.get();
+                if (next - knownCursor >= CAPACITY) {
+                    droppedCount++;
+                    return;
+                }
+            }
+            SLOTS[(int) next & (CAPACITY - 1)].set(event);
+            PUBLISHED.lazySet(next + 1L); // The event is written before it becomes readable
+            if (THREAD != null) {
+                LockSupport.unpark(THREAD);
+            }
+        }
+
+        /**
+         * Handles every event published since the last drain. Only called by the subscribing thread.
+         *
+         * @return How many events were handled.
+         */
+        public int drain() {
+            long cursor = CURSOR.get(), published = PUBLISHED.get();
+            if (cursor == published) {
+                return 0;
+            }
+            for (long sequence = cursor; sequence < published; sequence++) {
+                GameEvent event = SLOTS[(int) sequence & (CAPACITY - 1)];
+                SUBSCRIBER.onEvent(event);
+                LATENCY.record(System.nanoTime() - event.time);
+                event.recording = null; // Not kept alive by the slot until it is reused
+            }
+            CURSOR.lazySet(published); // Hands the slots back to the publisher once they are all handled
+            if (SNAPSHOT != null) {
+                synchronized (SNAPSHOT) {
+                    SNAPSHOT.set(LATENCY);
+                }
+                snapshotCount++; // Only written by this thread
+            }
+            return (int) (published - cursor);
+        }
+
+        private void run() {
+            while (!isClosed) {
+                if (drain() == 0) {
+                    LockSupport.park(this); // Until the next event (or close())
+                }
+            }
+            drain(); // Everything published before closing
+        }
+
+        /**
+         * The latencies of a thread of its own are only copied (under a lock) when it handled events since the last
+         * call, so always pass the same histogram, from the publishing thread.
+         *
+         * @param into Receives the time from publishing each event until it was handled.
+         */
+        public void copyLatency(LatencyHistogram into) {
+            if (SNAPSHOT == null) { // Drained by this thread
+                into.set(LATENCY);
+                return;
+            }
+            int count = snapshotCount;
+            if (count != copiedSnapshotCount) {
+                synchronized (SNAPSHOT) {
+                    into.set(SNAPSHOT);
+                }
+                copiedSnapshotCount = count;
+            }
+        }
+
+        /**
+         * @return How many events this subscription dropped because it was a whole ring behind (only read it on the
+         * publishing thread).
+         */
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * Turns variable frame times into a whole number of fixed-size simulation ticks.
+ * Leftover time is carried over to the next frame, and the fraction of a tick it represents
+ * is used to interpolate between the previous and current simulation states when rendering.
+ */
+public class FixedTimestep {
+    // Frames longer than this (GC pause, window drag, etc.) are clamped to avoid running hundreds of ticks at once
+    private static final float MAX_FRAME_TIME = 0.25f;
+
+    private final int ticksPerSecond;
+    private final float tickTime; // Length of one tick in seconds
+    private float accumulator; // Frame time that hasn't been simulated yet
+
+    /**
+     * @param ticksPerSecond How many simulation ticks to run per second (e.g. 120).
+     */
+    public FixedTimestep(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be positive: " + ticksPerSecond);
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        tickTime = 1f / ticksPerSecond;
+    }
+
+    /**
+     * Adds the frame time to the accumulator and consumes as many whole ticks as possible.
+     *
+     * @param frameTime The time since the last frame in seconds.
+     * @return The number of ticks to simulate this frame.
+     */
+    public int advance(float frameTime) {
+        accumulator += Math.min(frameTime, MAX_FRAME_TIME);
+        int ticks = (int) (accumulator / tickTime);
+        accumulator -= ticks * tickTime;
+        return ticks;
+    }
+
+    /**
+     * @return How far the leftover time is into the next tick, from 0 (previous state) to 1 (current state).
+     */
+    public float alpha() {
+        return Math.min(accumulator / tickTime, 1f);
+    }
+
+    /**
+     * Drops any leftover time (used when the simulation is reset).
+     */
+    public void reset() {
+        accumulator = 0f;
+    }
+
+    /**
+     * @return The length of one tick in seconds.
+     */
+    public float getTickTime() {
+        return tickTime;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
@@ -0,0 +1,83 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * The tunable physics of a game: how the bird falls, flaps and rotates, how fast the pipes and ground scroll,
+ * and the gaps and spacing of the pipes (see {@link Difficulty}). Read by the {@link World} and {@link Population}
+ * on every step instead of the constants, so parameter sets can be compared side by side (e.g. by a tournament).
+ * Immutable, so one config can be shared by any amount of worlds on any thread.
+ */
+public final class GameConfig {
+    /**
+     * The physics the game is played with.
+     */
+    public static final GameConfig DEFAULT = new GameConfig(World.GRAVITY, World.FLAP_FORCE, World.ROT_ACCEL,
+        World.PIPE_SPEED, World.GROUND_SPEED, Difficulty.constant(World.PIPE_GAP, World.PIPE_SPACING));
+
+    private final float GRAVITY, FLAP_FORCE, ROT_ACCEL, PIPE_SPEED, GROUND_SPEED;
+    private final Difficulty DIFFICULTY;
+
+    /**
+     * @param gravity     The constant downward acceleration of the bird (negative).
+     * @param flapForce   The velocity the bird is set to when it flaps (positive).
+     * @param rotAccel    The acceleration applied to the rotation of the bird when falling (negative).
+     * @param pipeSpeed   The speed the pipes move at (negative, they move left).
+     * @param groundSpeed The speed the ground moves at (negative, it moves left).
+     * @param difficulty  How the gaps and spacing of the pipes change with the score.
+     */
+    public GameConfig(float gravity, float flapForce, float rotAccel, float pipeSpeed, float groundSpeed,
+                      Difficulty difficulty) {
+        if (!(gravity < 0f)) {
+            throw new IllegalArgumentException("gravity must be negative: " + gravity);
+        }
+        if (!(flapForce > 0f)) {
+            throw new IllegalArgumentException("flapForce must be positive: " + flapForce);
+        }
+        if (!(rotAccel < 0f)) {
+            throw new IllegalArgumentException("rotAccel must be negative: " + rotAccel);
+        }
+        if (!(pipeSpeed < 0f) || !(groundSpeed < 0f)) {
+            throw new IllegalArgumentException("Speeds must be negative: " + pipeSpeed + ", " + groundSpeed);
+        }
+        if (difficulty == null) {
+            throw new IllegalArgumentException("difficulty can't be null");
+        }
+        GRAVITY = gravity;
+        FLAP_FORCE = flapForce;
+        ROT_ACCEL = rotAccel;
+        PIPE_SPEED = pipeSpeed;
+        GROUND_SPEED = groundSpeed;
+        DIFFICULTY = difficulty;
+    }
+
+    /**
+     * @param difficulty How the gaps and spacing of the pipes change with the score.
+     * @return A copy of this config with another difficulty.
+     */
+    public GameConfig withDifficulty(Difficulty difficulty) {
+        return new GameConfig(GRAVITY, FLAP_FORCE, ROT_ACCEL, PIPE_SPEED, GROUND_SPEED, difficulty);
+    }
+
+    public float getGravity() {
+        return GRAVITY;
+    }
+
+    public float getFlapForce() {
+        return FLAP_FORCE;
+    }
+
+    public float getRotAccel() {
+        return ROT_ACCEL;
+    }
+
+    public float getPipeSpeed() {
+        return PIPE_SPEED;
+    }
+
+    public float getGroundSpeed() {
+        return GROUND_SPEED;
+    }
+
+    public Difficulty getDifficulty() {
+        return DIFFICULTY;
+    }
+}
@@ -0,0 +1,110 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * Something that happened in the game, published through an {@link EventRing}.
+ * Events are preallocated slots of the ring, filled in place by the publishing thread, so a subscriber must not
+ * keep one after handling it.
+ */
+public final class GameEvent {
+    /**
+     * What happened, decides which values of the event are set.
+     */
+    public enum Type {
+        FLAP, // The bird flapped (also starts the game)
+        SCORE, // The bird passed a pipe group: score
+        HIT, // The bird hit the ground or a pipe: cause
+        DEATH, // The run is over: score, seed, recording and whether a player flew it
+        RESTART // The game went back to the start menu: seed of the new course
+    }
+
+    Type type;
+    int tick, score;
+    long seed, time;
+    World.DeathCause cause;
+    ReplayRecorder.Recording recording;
+    boolean isPlayerRun;
+
+    GameEvent() {
+    }
+
+    /**
+     * Clears the values of the previous event of the slot.
+     */
+    void set(Type type, int tick) {
+        this.type = type;
+        this.tick = tick;
+        score = 0;
+        seed = 0L;
+        cause = null;
+        recording = null;
+        isPlayerRun = false;
+    }
+
+    /**
+     * Copies every value of another event.
+     */
+    void set(GameEvent other) {
+        type = other.type;
+        tick = other.tick;
+        score = other.score;
+        seed = other.seed;
+        time = other.time;
+        cause = other.cause;
+        recording = other.recording;
+        isPlayerRun = other.isPlayerRun;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The step the event happened on, counted from the start of the game (see {@link World#getRoundTick()}).
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return The score after a {@link Type#SCORE} or the final score of a {@link Type#DEATH}.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return The seed of the course of a {@link Type#DEATH} or {@link Type#RESTART}.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return What the bird hit, for a {@link Type#HIT}.
+     */
+    public World.DeathCause getCause() {
+        return cause;
+    }
+
+    /**
+     * @return The recorded run of a {@link Type#DEATH}, or null if it wasn't recorded. Only one subscriber may turn it
+     * into a replay.
+     */
+    public ReplayRecorder.Recording getRecording() {
+        return recording;
+    }
+
+    /**
+     * @return Whether a player flew the run of a {@link Type#DEATH} (not a watched replay or a bot), so it is ranked.
+     */
+    public boolean isPlayerRun() {
+        return isPlayerRun;
+    }
+
+    /**
+     * @return When the event was published, from {@link System#nanoTime()}.
+     */
+    public long getTime() {
+        return time;
+    }
+}
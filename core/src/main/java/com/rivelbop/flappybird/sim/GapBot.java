@@ -0,0 +1,70 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * A simple bot that plays the game by flapping whenever the bird falls below the middle of the next gap.
+ * Good enough to score regularly, used to drive the game without a player (checks, benchmarks, etc.).
+ */
+public class GapBot implements Population.Controller {
+    private final float OFFSET; // How far below the middle of the gap the bird may fall before flapping
+
+    public GapBot() {
+        this(60f);
+    }
+
+    /**
+     * @param offset How far below the middle of the gap the bird may fall before flapping.
+     */
+    public GapBot(float offset) {
+        OFFSET = offset;
+    }
+
+    /**
+     * Decides whether to flap this tick. Also starts the game when it is on the start menu.
+     *
+     * @param world The world to play.
+     * @return Whether the bird should flap.
+     */
+    public boolean shouldFlap(World world) {
+        if (!world.isStarted()) {
+            return true;
+        }
+        return world.getBirdY() < nextGapY(world) - OFFSET && world.getBirdVelocity() <= 0f;
+    }
+
+    @Override
+    public void decide(Population population, Course course, int tick, int from, int to, boolean[] flaps) {
+        float threshold = nextGapY(course) - OFFSET;
+        for (int i = from; i < to; i++) {
+            flaps[i] = population.getBirdY(i) < threshold && population.getBirdVelocity(i) <= 0f;
+        }
+    }
+
+    /**
+     * Finds the middle of the gap of the closest pipe group that the bird hasn't passed yet.
+     *
+     * @param world The world to look at.
+     * @return The y-pos of the middle of the next gap (the middle of the screen if there is none).
+     */
+    public static float nextGapY(World world) {
+        return nextGapY(world.getCourse());
+    }
+
+    /**
+     * @param course The course to look at.
+     * @return The y-pos of the middle of the next gap (the middle of the screen if there is none).
+     */
+    public static float nextGapY(Course course) {
+        float nextX = Float.MAX_VALUE, gapY = World.HEIGHT / 2f;
+        for (int i = 0; i < course.getPipeCount(); i++) {
+            float x = course.getPipeX(i);
+            // Right edge of the pipe (scaled around its center) hasn't passed the left edge of the bird yet
+            float right = x + World.PIPE_WIDTH * (World.PIPE_SCALE + 1f) / 2f;
+            if (right > World.BIRD_X - World.BIRD_WIDTH * World.BIRD_SCALE / 2f && x < nextX) {
+                nextX = x;
+                // Top edge of the bottom pipe (scaled around its center) plus half of the gap
+                gapY = course.getPipeY(i) + World.PIPE_HEIGHT * (World.PIPE_SCALE + 1f) / 2f + course.getPipeGap(i) / 2f;
+            }
+        }
+        return gapY;
+    }
+}
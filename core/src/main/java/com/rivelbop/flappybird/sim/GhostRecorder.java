@@ -0,0 +1,146 @@
+package com.rivelbop.flappybird.sim;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simulates runs tick by tick and keeps the y-pos and rotation of the bird after every tick,
+ * then writes them as a ghost file read by a {@link GhostStream}.
+ */
+public class GhostRecorder {
+    /**
+     * Decides whether the bird flaps on a tick of a recorded run.
+     */
+    private interface Flaps {
+        boolean flap(World world, int tick);
+    }
+
+    private final int TICK_RATE;
+    private final List<short[]> Y = new ArrayList<>(), ROTATION = new ArrayList<>(); // One array per ghost
+
+    /**
+     * @param tickRate How many ticks are simulated per second (must match the game the ghosts are raced in).
+     */
+    public GhostRecorder(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("The tick rate must be positive");
+        }
+        TICK_RATE = tickRate;
+    }
+
+    /**
+     * Adds a recorded run as a ghost.
+     *
+     * @param replay The run, which must have been played at the recorder's tick rate.
+     * @param masks  The collision masks the run was played with, or null for bounding boxes only.
+     */
+    public void add(Replay replay, CollisionMasks masks) {
+        if (replay.getTickRate() != TICK_RATE) {
+            throw new IllegalArgumentException("The replay was played at " + replay.getTickRate()
+                + " ticks per second instead of " + TICK_RATE);
+        }
+        World world = new World(replay.getSeed(), replay.getPipeSpacing());
+        world.setCollisionMasks(masks);
+        record(world, replay.getTickCount(), (w, tick) -> replay.isFlapTick(tick));
+    }
+
+    /**
+     * Adds a run played by a bot as a ghost (e.g. to race against many ghosts without as many recorded runs).
+     *
+     * @param seed     The seed of the course.
+     * @param bot      The bot playing the run.
+     * @param maxTicks The most ticks to simulate if the bot doesn't die.
+     * @param masks    The collision masks, or null for bounding boxes only.
+     */
+    public void add(long seed, GapBot bot, int maxTicks, CollisionMasks masks) {
+        World world = new World(seed);
+        world.setCollisionMasks(masks);
+        record(world, maxTicks, (w, tick) -> bot.shouldFlap(w)); // Also starts the game
+    }
+
+    private void record(World world, int maxTicks, Flaps flaps) {
+        float delta = 1f / TICK_RATE;
+        short[] y = new short[maxTicks], rotation = new short[maxTicks];
+        int ticks = 0;
+        while (ticks < maxTicks && !world.isDead()) {
+            world.step(delta, flaps.flap(world, ticks));
+            y[ticks] = (short) Math.round(world.getBirdY() * GhostStream.Y_SCALE);
+            rotation[ticks] = (short) Math.round(world.getBirdRotation() * GhostStream.ROTATION_SCALE);
+            ticks++;
+        }
+        if (ticks > 0) {
+            Y.add(Arrays.copyOf(y, ticks));
+            ROTATION.add(Arrays.copyOf(rotation, ticks));
+        }
+    }
+
+    /**
+     * @return How many ghosts were added.
+     */
+    public int size() {
+        return Y.size();
+    }
+
+    /**
+     * Writes every ghost to a file, replacing it if it exists.
+     *
+     * @param path       The file to write.
+     * @param chunkTicks The ticks read at once by a {@link GhostStream} (more ticks means fewer, larger reads).
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path path, int chunkTicks) throws IOException {
+        if (chunkTicks <= 0) {
+            throw new IllegalArgumentException("A chunk must hold at least one tick");
+        }
+        // Longest runs first, so the ghosts alive on a tick are always the first ones
+        Integer[] order = new Integer[Y.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(Y.get(b).length, Y.get(a).length));
+
+        try (OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(file));
+            data.writeInt(GhostStream.MAGIC);
+            data.writeByte(GhostStream.VERSION);
+            data.writeInt(TICK_RATE);
+            data.writeInt(chunkTicks);
+            data.writeInt(order.length);
+            for (int ghost : order) {
+                data.writeInt(Y.get(ghost).length);
+            }
+
+            short startY = (short) Math.round(World.BIRD_START_Y * GhostStream.Y_SCALE); // Before the first tick
+            int longest = order.length == 0 ? 0 : Y.get(order[0]).length;
+            for (int start = 0; start < longest; start += chunkTicks) {
+                writeSamples(data, Y, order, start, chunkTicks, startY);
+                writeSamples(data, ROTATION, order, start, chunkTicks, (short) 0);
+            }
+            data.flush();
+        }
+    }
+
+    /**
+     * Writes the samples of a chunk, preceded by the sample before it, for every ghost alive on its first tick.
+     * Ghosts that die during the chunk repeat their last sample.
+     */
+    private static void writeSamples(DataOutputStream data, List<short[]> samples, Integer[] order, int start,
+                                     int chunkTicks, short initial) throws IOException {
+        for (int ghost : order) {
+            short[] ghostSamples = samples.get(ghost);
+            if (ghostSamples.length <= start) {
+                break; // Every following ghost is dead as well
+            }
+            for (int tick = start - 1; tick < start + chunkTicks; tick++) {
+                data.writeShort(tick < 0 ? initial : ghostSamples[Math.min(tick, ghostSamples.length - 1)]);
+            }
+        }
+    }
+}
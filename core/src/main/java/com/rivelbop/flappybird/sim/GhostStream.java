@@ -0,0 +1,278 @@
+package com.rivelbop.flappybird.sim;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the trajectories of ghost birds (earlier runs raced by the player) from a file written by a
+ * {@link GhostRecorder}, one chunk of ticks at a time. The next chunk is read on a reader thread while the
+ * current one is used, so only two chunks are ever in memory, however many ghosts and ticks the file holds.
+ * The render thread never waits for the file: the chunk is handed over with an atomic request (no task or future is
+ * allocated), and a chunk that isn't read yet is reported by {@link #seek(int)} so its frame goes on without it.
+ * <p>
+ * A sample is the state of a ghost after a tick (sample 0 is the tick that started its game). Ghosts are sorted
+ * from the longest run to the shortest, so the ghosts still alive on a sample are always the first ones.
+ * <p>
+ * <u>File format (big-endian):</u> magic ({@code "FBGH"}), version (byte), tick rate (int), ticks per chunk (int),
+ * ghost count (int), the sample count of every ghost (ints, descending), then every chunk: the y-pos samples of
+ * each ghost alive at its first tick, then their rotation samples (shorts, see {@link #Y_SCALE} and
+ * {@link #ROTATION_SCALE}). A chunk also repeats the last sample of the previous chunk (the start position
+ * for the first chunk), so two consecutive samples can always be interpolated within a chunk.
+ * Only used from the render thread (besides the reader thread, which only reads the spare chunk).
+ */
+public class GhostStream implements Closeable {
+    static final int MAGIC = 0x46424748; // "FBGH"
+    static final byte VERSION = 1;
+    static final float
+        Y_SCALE = 8f, // Y-pos samples are stored in 1/8 pixels
+        ROTATION_SCALE = 100f; // Rotation samples are stored in 1/100 degrees
+    private static final int IDLE = -1; // No chunk requested
+
+    private final FileChannel CHANNEL;
+    private final int TICK_RATE, CHUNK_TICKS, STRIDE; // Samples per ghost in a chunk (one more than the ticks)
+    private final int[] LENGTHS; // Samples of every ghost, descending
+    private final long[] OFFSETS; // File position of every chunk
+    private final AtomicInteger REQUEST = new AtomicInteger(IDLE); // The chunk the reader reads into the spare one
+    private final Thread READER;
+    private volatile boolean isOpen = true;
+    private volatile IOException failure; // Of the last read, reported by seek()
+
+    private Chunk current, spare; // The chunk being used, and the one read in the background
+
+    /**
+     * Opens a ghost file and starts reading its first chunk.
+     *
+     * @param path The file to read.
+     * @throws IOException If the file can't be read or isn't a ghost file.
+     */
+    public GhostStream(Path path) throws IOException {
+        CHANNEL = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            // Not closed, which would close the channel (only read with absolute positions afterwards)
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(CHANNEL)));
+            if (header.readInt() != MAGIC || header.readByte() != VERSION) {
+                throw new IOException(path + " isn't a ghost file");
+            }
+            TICK_RATE = header.readInt();
+            CHUNK_TICKS = header.readInt();
+            int ghostCount = header.readInt();
+            if (TICK_RATE <= 0 || CHUNK_TICKS <= 0 || ghostCount < 0) {
+                throw new IOException(path + " is corrupted");
+            }
+            STRIDE = CHUNK_TICKS + 1;
+
+            LENGTHS = new int[ghostCount];
+            for (int i = 0; i < ghostCount; i++) {
+                LENGTHS[i] = header.readInt();
+                if (LENGTHS[i] <= 0 || i > 0 && LENGTHS[i] > LENGTHS[i - 1]) {
+                    throw new IOException(path + " is corrupted");
+                }
+            }
+
+            int chunkCount = ghostCount == 0 ? 0 : (LENGTHS[0] + CHUNK_TICKS - 1) / CHUNK_TICKS;
+            OFFSETS = new long[chunkCount];
+            long offset = 4L + 1L + 4L * 3L + 4L * ghostCount;
+            for (int c = 0; c < chunkCount; c++) {
+                OFFSETS[c] = offset;
+                offset += getAliveCount(c * CHUNK_TICKS) * (long) STRIDE * 4L; // Two shorts per sample
+            }
+            if (CHANNEL.size() < offset) {
+                throw new IOException(path + " ended early");
+            }
+        } catch (IOException e) {
+            CHANNEL.close();
+            throw e;
+        }
+
+        int capacity = LENGTHS.length * STRIDE;
+        current = new Chunk(capacity);
+        spare = new Chunk(capacity);
+        READER = new Thread(this::run, "GhostStream");
+        READER.setDaemon(true);
+        READER.start();
+        rewind();
+    }
+
+    /**
+     * Starts reading the first chunk in the background (e.g. while the start menu is shown).
+     */
+    public void rewind() {
+        if (current.index != 0 && !isReading()) {
+            prefetch(0); // Otherwise requested by seek() once the chunk being read is done
+        }
+    }
+
+    /**
+     * Makes the chunk holding a sample (and the one before it) current, then starts reading the next chunk.
+     * Never waits for the file: if the chunk wasn't read in the background yet, it is requested (when it isn't
+     * being read already) and the samples can't be used on this frame.
+     *
+     * @param sample The sample that will be read, from 0.
+     * @return Whether the samples can be read, i.e. the chunk is current.
+     * @throws IOException If the chunk couldn't be read.
+     */
+    public boolean seek(int sample) throws IOException {
+        int index = sample / CHUNK_TICKS;
+        if (index == current.index || index >= OFFSETS.length) {
+            return true;
+        }
+        if (isReading()) {
+            return false; // Still reading, maybe another chunk (e.g. the one after the last chunk before a rewind)
+        }
+        IOException failed = failure;
+        if (failed != null) {
+            failure = null;
+            throw failed;
+        }
+        if (spare.index != index) { // E.g. a chunk was skipped
+            prefetch(index);
+            return false;
+        }
+
+        Chunk used = current;
+        current = spare;
+        spare = used;
+        if (index + 1 < OFFSETS.length) {
+            prefetch(index + 1);
+        }
+        return true;
+    }
+
+    private boolean isReading() {
+        return REQUEST.get() != IDLE;
+    }
+
+    /**
+     * Requests a chunk from the reader thread, which must be idle.
+     */
+    private void prefetch(int index) {
+        REQUEST.set(index); // Hands the spare chunk over
+        LockSupport.unpark(READER);
+    }
+
+    private void run() {
+        while (isOpen) {
+            int index = REQUEST.get();
+            if (index == IDLE) {
+                LockSupport.park(this); // Until the next request (or close())
+                continue;
+            }
+            try {
+                spare.read(index);
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException | Error e) {
+                // Reported like a failed read: a dead reader would leave the request pending forever
+                failure = new IOException("Couldn't read chunk " + index + " of the ghost file", e);
+            }
+            REQUEST.set(IDLE); // Hands the chunk (or the failure) back
+        }
+    }
+
+    /**
+     * @param sample The sample.
+     * @return How many ghosts are still alive on the sample (the first ones).
+     */
+    public int getAliveCount(int sample) {
+        int low = 0, high = LENGTHS.length; // Binary search of the first ghost that is dead on the sample
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (LENGTHS[middle] > sample) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param ghost  The ghost, which must be alive on the sample.
+     * @param sample The sample, within the current chunk (see {@link #seek(int)}) or right before it.
+     * @return The center y-pos of the ghost.
+     */
+    public float getY(int ghost, int sample) {
+        return current.Y[index(ghost, sample)] / Y_SCALE;
+    }
+
+    /**
+     * @param ghost  The ghost, which must be alive on the sample.
+     * @param sample The sample, within the current chunk (see {@link #seek(int)}) or right before it.
+     * @return The rotation of the ghost in degrees.
+     */
+    public float getRotation(int ghost, int sample) {
+        return current.ROTATION[index(ghost, sample)] / ROTATION_SCALE;
+    }
+
+    private int index(int ghost, int sample) {
+        return ghost * STRIDE + sample - current.index * CHUNK_TICKS + 1; // The previous sample comes first
+    }
+
+    public int getTickRate() {
+        return TICK_RATE;
+    }
+
+    public int getGhostCount() {
+        return LENGTHS.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isOpen = false;
+        LockSupport.unpark(READER);
+        CHANNEL.close(); // Also ends a read in progress
+    }
+
+    /**
+     * The samples of every ghost alive during a chunk of ticks.
+     */
+    private class Chunk {
+        private final short[] Y, ROTATION;
+        private final ByteBuffer BUFFER;
+        private final ShortBuffer SHORTS; // View of the buffer, created once instead of for every read
+        private int index = -1; // The chunk, -1 if none was read
+
+        private Chunk(int capacity) {
+            Y = new short[capacity];
+            ROTATION = new short[capacity];
+            BUFFER = ByteBuffer.allocate(capacity * 2);
+            SHORTS = BUFFER.asShortBuffer();
+        }
+
+        private void read(int index) throws IOException {
+            this.index = -1;
+            int samples = getAliveCount(index * CHUNK_TICKS) * STRIDE;
+            long position = OFFSETS[index];
+            readFully(position, samples);
+            ((Buffer) SHORTS).clear(); // Buffer's method, the overrides don't exist on Java 8
+            SHORTS.get(Y, 0, samples);
+            readFully(position + samples * 2L, samples);
+            ((Buffer) SHORTS).clear();
+            SHORTS.get(ROTATION, 0, samples);
+            this.index = index;
+        }
+
+        private void readFully(long position, int samples) throws IOException {
+            ((Buffer) BUFFER).clear().limit(samples * 2);
+            while (BUFFER.hasRemaining()) {
+                int read = CHANNEL.read(BUFFER, position + BUFFER.position());
+                if (read < 0) {
+                    throw new EOFException("The ghost file ended early");
+                }
+            }
+            ((Buffer) BUFFER).flip();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.rivelbop.flappybird.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.rivelbop.flappybird.sim.World.*;
+
+/**
+ * Many birds flying the same pipe course at once, for training and tuning (e.g. evolving a controller).
+ * Birds are stored as primitive arrays instead of objects and stepped in tight loops with the same physics
+ * as {@link World#updateBird(float, boolean)}, so a bird of the population scores exactly like a {@link World}
+ * with the same seed and flaps would.
+ * <p>
+ * Large populations are split into chunks simulated on a fork-join pool. Every chunk flies its own copy of the
+ * course (generated from the same seed), so chunks never wait for each other.
+ */
+public class Population {
+    private static final int CHUNK_SIZE = 4096; // Smallest amount of birds worth a task (and a copy of the course)
+
+    /**
+     * Decides which birds flap on a tick. Called once per tick for each chunk of birds, possibly on several
+     * threads at once, so it must not change any shared state.
+     */
+    public interface Controller {
+        /**
+         * @param population The birds, only the range [from, to) may be looked at.
+         * @param course     The course the birds are flying, as it is on this tick.
+         * @param tick       The index of the tick, starting at 0.
+         * @param from       The index of the first bird of the chunk.
+         * @param to         The index right after the last bird of the chunk.
+         * @param flaps      Set to true for every bird of the range that should flap (cleared before each call).
+         */
+        void decide(Population population, Course course, int tick, int from, int to, boolean[] flaps);
+    }
+
+    private final long SEED;
+    private final GameConfig CONFIG;
+    private CollisionMasks masks; // Shared by every copy of the course (read-only)
+
+    /* Bird State (one entry per bird) */
+    private final float[] y, velocity, rotation, rotVel;
+    private final boolean[] alive;
+    private final int[] score;
+    private final boolean[] flaps; // Decisions of the current tick
+
+    /**
+     * Creates a population flying a course that never gets harder.
+     *
+     * @param size The amount of birds.
+     * @param seed The seed of the course.
+     */
+    public Population(int size, long seed) {
+        this(size, seed, Difficulty.constant(PIPE_GAP, PIPE_SPACING));
+    }
+
+    /**
+     * @param size       The amount of birds.
+     * @param seed       The seed of the course.
+     * @param difficulty How the gaps and spacing of the course change with the score.
+     */
+    public Population(int size, long seed, Difficulty difficulty) {
+        this(size, seed, GameConfig.DEFAULT.withDifficulty(difficulty));
+    }
+
+    /**
+     * @param size   The amount of birds.
+     * @param seed   The seed of the course.
+     * @param config The physics of the birds and the difficulty of the course.
+     */
+    public Population(int size, long seed, GameConfig config) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        SEED = seed;
+        CONFIG = config;
+        y = new float[size];
+        velocity = new float[size];
+        rotation = new float[size];
+        rotVel = new float[size];
+        alive = new boolean[size];
+        score = new int[size];
+        flaps = new boolean[size];
+        reset();
+    }
+
+    /**
+     * Puts every bird back at the start position, alive and without score.
+     */
+    public void reset() {
+        for (int i = 0; i < y.length; i++) {
+            y[i] = BIRD_START_Y;
+            velocity[i] = rotation[i] = rotVel[i] = 0f;
+            alive[i] = true;
+            score[i] = 0;
+        }
+    }
+
+    /**
+     * Flies every bird on the common fork-join pool, see {@link #run(Controller, int, float, ForkJoinPool)}.
+     */
+    public void run(Controller controller, int maxTicks, float delta) {
+        run(controller, maxTicks, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Resets and flies every bird until all of them are dead or the tick limit is reached.
+     * The birds behave like a {@link World} that was started on the first tick.
+     *
+     * @param controller Decides which birds flap.
+     * @param maxTicks   The maximum amount of ticks to simulate.
+     * @param delta      The time to simulate per tick in seconds.
+     * @param pool       The pool to simulate the chunks on.
+     */
+    public void run(Controller controller, int maxTicks, float delta, ForkJoinPool pool) {
+        reset();
+        pool.invoke(new Chunk(controller, maxTicks, delta, 0, y.length));
+    }
+
+    /**
+     * Simulates a range of birds on its own copy of the course, or splits it in half when it is too large.
+     */
+    private class Chunk extends RecursiveAction {
+        private final Controller CONTROLLER;
+        private final int MAX_TICKS, FROM, TO;
+        private final float DELTA;
+
+        private Chunk(Controller controller, int maxTicks, float delta, int from, int to) {
+            CONTROLLER = controller;
+            MAX_TICKS = maxTicks;
+            DELTA = delta;
+            FROM = from;
+            TO = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (TO - FROM > CHUNK_SIZE * 2) {
+                int middle = (FROM + TO) >>> 1;
+                invokeAll(new Chunk(CONTROLLER, MAX_TICKS, DELTA, FROM, middle),
+                    new Chunk(CONTROLLER, MAX_TICKS, DELTA, middle, TO));
+            } else {
+                simulate(CONTROLLER, MAX_TICKS, DELTA, FROM, TO);
+            }
+        }
+    }
+
+    /**
+     * Flies a range of birds on a fresh copy of the course.
+     */
+    private void simulate(Controller controller, int maxTicks, float delta, int from, int to) {
+        Difficulty difficulty = CONFIG.getDifficulty();
+        Course course = new Course(new CourseGenerator(SEED, difficulty),
+            Course.pipeCountFor(difficulty.getMinSpacing()), CONFIG.getPipeSpeed());
+        course.setCollisionMasks(masks);
+
+        int living = to - from;
+        for (int tick = 0; tick < maxTicks && living > 0; tick++) {
+            for (int i = from; i < to; i++) {
+                flaps[i] = false;
+            }
+            controller.decide(this, course, tick, from, to, flaps);
+
+            // Kill the birds touching the ground or a pipe (only test pipes when one is close enough to matter)
+            boolean nearPipe = course.isNearBird();
+            for (int i = from; i < to; i++) {
+                if (alive[i] && (y[i] - BIRD_HEIGHT / 2f <= GROUND_TOP || nearPipe && course.collides(y[i], rotation[i]))) {
+                    alive[i] = false;
+                    living--;
+                }
+            }
+
+            updateBirds(delta, from, to);
+            course.updatePipes(delta);
+            if (course.updateScore()) {
+                // Every living bird is at the same x-pos, so they all passed the group
+                for (int i = from; i < to; i++) {
+                    if (alive[i]) {
+                        score[i]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies gravity and rotation to the living birds of a range, exactly like {@link World#updateBird(float, boolean)}.
+     * Dead birds are frozen where they died.
+     */
+    private void updateBirds(float delta, int from, int to) {
+        float maxY = HEIGHT - BIRD_HEIGHT / 2f;
+        float flapForce = CONFIG.getFlapForce(), gravity = CONFIG.getGravity(), rotAccel = CONFIG.getRotAccel();
+        for (int i = from; i < to; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+            float v = (flaps[i] ? flapForce : velocity[i]) + gravity * delta;
+            velocity[i] = v;
+            y[i] = Math.min(y[i] + v * delta, maxY); // Keep the bird right under the top of the screen
+
+            if (v > 0f) { // The bird is not falling
+                rotation[i] = MAX_DEG;
+                rotVel[i] = 0f;
+            } else if (v < 0f) { // The bird is falling
+                if (rotation[i] > -90f) {
+                    rotVel[i] += rotAccel * delta;
+                    rotation[i] += rotVel[i] * delta;
+                } else {
+                    rotation[i] = -90f;
+                }
+            }
+        }
+    }
+
+    /**
+     * Enables pixel-precise collisions for every bird.
+     *
+     * @param masks The shapes of the bird and pipes, or null to only use bounding boxes.
+     */
+    public void setCollisionMasks(CollisionMasks masks) {
+        this.masks = masks;
+    }
+
+    public int size() {
+        return y.length;
+    }
+
+    public float getBirdY(int i) {
+        return y[i];
+    }
+
+    public float getBirdVelocity(int i) {
+        return velocity[i];
+    }
+
+    public float getBirdRotation(int i) {
+        return rotation[i];
+    }
+
+    public boolean isAlive(int i) {
+        return alive[i];
+    }
+
+    public int getScore(int i) {
+        return score[i];
+    }
+
+    /**
+     * @return The amount of birds still alive.
+     */
+    public int getAliveCount() {
+        int count = 0;
+        for (boolean isAlive : alive) {
+            if (isAlive) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The highest score of any bird.
+     */
+    public int getBestScore() {
+        int best = 0;
+        for (int s : score) {
+            best = Math.max(best, s);
+        }
+        return best;
+    }
+}
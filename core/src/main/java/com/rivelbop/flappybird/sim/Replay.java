@@ -0,0 +1,240 @@
+package com.rivelbop.flappybird.sim;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A recorded run: everything needed to simulate it again tick by tick.
+ * The pipe layout only depends on the seed of its {@link CourseGenerator}, so besides a few settings
+ * only the ticks the bird flapped on are stored (usually a few bytes per pipe group passed).
+ * <p>
+ * <u>File format (big-endian):</u> magic ({@code "FBRP"}), version (byte), seed (long), tick rate (int),
+ * pipe spacing (float), score (int), then the tick count, the flap count and the distance between consecutive
+ * flap ticks (the first one counted from tick 0), all as variable-length unsigned ints (7 bits per byte).
+ */
+public class Replay {
+    private static final int MAGIC = 0x46425250; // "FBRP"
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final long SEED;
+    private final int TICK_RATE;
+    private final float PIPE_SPACING;
+    private final int[] FLAP_TICKS; // Ascending
+    private final int TICK_COUNT; // Ticks from the start of the game to the death of the bird (included)
+    private final int SCORE;
+
+    /**
+     * @param seed        The seed of the course.
+     * @param tickRate    How many ticks were simulated per second.
+     * @param pipeSpacing The horizontal distance between two pipe groups.
+     * @param flapTicks   The ticks the bird flapped on, in ascending order (tick 0 starts the game).
+     * @param tickCount   The amount of ticks that were simulated.
+     * @param score       The score of the run.
+     */
+    public Replay(long seed, int tickRate, float pipeSpacing, int[] flapTicks, int tickCount, int score) {
+        for (int i = 0; i < flapTicks.length; i++) {
+            if (flapTicks[i] < 0 || flapTicks[i] >= tickCount || i > 0 && flapTicks[i] <= flapTicks[i - 1]) {
+                throw new IllegalArgumentException("Flap ticks must be ascending and within [0, " + tickCount + ")");
+            }
+        }
+        SEED = seed;
+        TICK_RATE = tickRate;
+        PIPE_SPACING = pipeSpacing;
+        FLAP_TICKS = flapTicks;
+        TICK_COUNT = tickCount;
+        SCORE = score;
+    }
+
+    /**
+     * Simulates the run again as fast as possible.
+     *
+     * @param masks The collision masks the run was played with, or null for bounding boxes only.
+     * @return The world after the last recorded tick.
+     */
+    public World simulate(CollisionMasks masks) {
+        return simulate(masks, false);
+    }
+
+    /**
+     * Simulates the run again and checks that it ends the way it was recorded: started by its first tick, with the
+     * recorded score, and with the bird dying on the last tick (not before).
+     *
+     * @param masks The collision masks the run was played with, or null for bounding boxes only.
+     * @return Whether the recorded run was reproduced.
+     */
+    public boolean verify(CollisionMasks masks) {
+        World world = simulate(masks, true);
+        return world.isDead() && world.getRoundTick() == TICK_COUNT && world.getScore() == SCORE;
+    }
+
+    /**
+     * @param isStoppedOnDeath Whether to stop simulating once the bird died.
+     * @return The world after the last recorded tick, or after the tick the bird died on.
+     */
+    private World simulate(CollisionMasks masks, boolean isStoppedOnDeath) {
+        World world = new World(SEED, PIPE_SPACING);
+        world.setCollisionMasks(masks);
+
+        float delta = 1f / TICK_RATE;
+        int nextFlap = 0;
+        for (int tick = 0; tick < TICK_COUNT && !(isStoppedOnDeath && world.isDead()); tick++) {
+            boolean flap = nextFlap < FLAP_TICKS.length && FLAP_TICKS[nextFlap] == tick;
+            if (flap) {
+                nextFlap++;
+            }
+            world.step(delta, flap);
+        }
+        return world;
+    }
+
+    /**
+     * Writes the replay to a file, replacing it if it exists.
+     *
+     * @param path The file to write.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(MAGIC).put(VERSION).putLong(SEED).putInt(TICK_RATE).putFloat(PIPE_SPACING).putInt(SCORE);
+            putVarInt(buffer, TICK_COUNT);
+            putVarInt(buffer, FLAP_TICKS.length);
+
+            int previous = 0;
+            for (int tick : FLAP_TICKS) {
+                if (buffer.remaining() < 5) { // A var int takes 5 bytes at most
+                    flush(channel, buffer);
+                }
+                putVarInt(buffer, tick - previous);
+                previous = tick;
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Reads a replay written by {@link #write(Path)}.
+     *
+     * @param path The file to read.
+     * @return The replay.
+     * @throws IOException If the file can't be read or isn't a valid replay.
+     */
+    public static Replay read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException(path + " ended early");
+                }
+            }
+            ((Buffer) buffer).flip(); // Buffer's method, ByteBuffer's override doesn't exist on Java 8
+
+            try {
+                if (buffer.getInt() != MAGIC) {
+                    throw new IOException(path + " isn't a replay");
+                }
+                byte version = buffer.get();
+                if (version != VERSION) {
+                    throw new IOException(path + " uses the unsupported replay version " + version);
+                }
+                long seed = buffer.getLong();
+                int tickRate = buffer.getInt();
+                float pipeSpacing = buffer.getFloat();
+                int score = buffer.getInt();
+                int tickCount = getVarInt(buffer);
+                int flapCount = getVarInt(buffer);
+                // At most one flap per tick, each taking at least a byte (checked before allocating anything)
+                if (tickCount < 0 || flapCount < 0 || flapCount > tickCount || flapCount > buffer.remaining()) {
+                    throw new IOException(path + " is corrupted: " + flapCount + " flaps in " + tickCount
+                        + " ticks");
+                }
+
+                int[] flapTicks = new int[flapCount];
+                int tick = 0;
+                for (int i = 0; i < flapTicks.length; i++) {
+                    tick += getVarInt(buffer);
+                    flapTicks[i] = tick;
+                }
+                return new Replay(seed, tickRate, pipeSpacing, flapTicks, tickCount, score);
+            } catch (RuntimeException e) { // Truncated data or invalid values
+                throw new IOException(path + " is corrupted", e);
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80)); // More bytes follow
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) { // No more bytes follow
+                return value;
+            }
+        }
+        throw new IllegalStateException("Var int is longer than 5 bytes");
+    }
+
+    public long getSeed() {
+        return SEED;
+    }
+
+    public int getTickRate() {
+        return TICK_RATE;
+    }
+
+    public float getPipeSpacing() {
+        return PIPE_SPACING;
+    }
+
+    public int getTickCount() {
+        return TICK_COUNT;
+    }
+
+    public int getFlapCount() {
+        return FLAP_TICKS.length;
+    }
+
+    /**
+     * @param tick The index of the tick.
+     * @return Whether the bird flapped on that tick.
+     */
+    public boolean isFlapTick(int tick) {
+        return Arrays.binarySearch(FLAP_TICKS, tick) >= 0;
+    }
+
+    /**
+     * @param i The index of the flap.
+     * @return The tick of the flap.
+     */
+    public int getFlapTick(int i) {
+        return FLAP_TICKS[i];
+    }
+
+    public int getScore() {
+        return SCORE;
+    }
+}
@@ -0,0 +1,119 @@
+package com.rivelbop.flappybird.sim;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the flaps of a run tick by tick so it can be saved as a {@link Replay}.
+ * <p>
+ * A finished run is handed over as a {@link Recording}, which is only copied into a replay by the thread saving it,
+ * so the recording thread never allocates when a run ends. Turning a recording into a replay gives it back to the
+ * recorder, whose next runs reuse its flap buffer (which only grows when a run flaps more than any run before).
+ * A new recording is only created when every spare one is still waiting to be saved.
+ */
+public class ReplayRecorder {
+    private static final int SPARE_RECORDINGS = 2; // Finished runs that may wait to be saved without allocating
+
+    private final AtomicReferenceArray<Recording> SPARES = new AtomicReferenceArray<>(SPARE_RECORDINGS);
+    private Recording recording; // The run being recorded, null when not recording
+
+    public ReplayRecorder() {
+        for (int i = 0; i < SPARE_RECORDINGS; i++) {
+            SPARES.set(i, new Recording());
+        }
+    }
+
+    /**
+     * Starts recording a new run, discarding the current one.
+     *
+     * @param seed The seed of the course the run is flown on.
+     */
+    public void begin(long seed) {
+        if (recording == null) {
+            recording = acquire();
+        }
+        recording.seed = seed;
+        recording.flapCount = recording.tickCount = 0;
+    }
+
+    /**
+     * Records a simulated tick.
+     *
+     * @param flap Whether the bird was told to flap on this tick.
+     */
+    public void record(boolean flap) {
+        Recording recording = this.recording;
+        if (flap) {
+            if (recording.flapCount == recording.flapTicks.length) {
+                recording.flapTicks = Arrays.copyOf(recording.flapTicks, recording.flapCount * 2);
+            }
+            recording.flapTicks[recording.flapCount++] = recording.tickCount;
+        }
+        recording.tickCount++;
+    }
+
+    /**
+     * Stops recording.
+     *
+     * @param tickRate    How many ticks were simulated per second.
+     * @param pipeSpacing The horizontal distance between two pipe groups.
+     * @param score       The score of the run.
+     * @return The recorded run, to turn into a replay with {@link Recording#toReplay()} (on any thread).
+     */
+    public Recording finish(int tickRate, float pipeSpacing, int score) {
+        Recording finished = recording;
+        recording = null;
+        finished.tickRate = tickRate;
+        finished.pipeSpacing = pipeSpacing;
+        finished.score = score;
+        return finished;
+    }
+
+    public boolean isRecording() {
+        return recording != null;
+    }
+
+    private Recording acquire() {
+        for (int i = 0; i < SPARE_RECORDINGS; i++) {
+            Recording spare = SPARES.getAndSet(i, null);
+            if (spare != null) {
+                return spare;
+            }
+        }
+        return new Recording(); // The finished runs weren't saved yet
+    }
+
+    private void release(Recording recording) {
+        for (int i = 0; i < SPARE_RECORDINGS; i++) {
+            if (SPARES.compareAndSet(i, null, recording)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * A finished run, which still holds the recorder's flap buffer.
+     */
+    public final class Recording {
+        private int[] flapTicks = new int[256];
+        private int flapCount, tickCount, tickRate, score;
+        private long seed;
+        private float pipeSpacing;
+
+        private Recording() {
+        }
+
+        /**
+         * Copies the run into a replay and gives the recording back to its recorder, so it must be called once and
+         * the recording not used afterwards.
+         *
+         * @return The recorded run.
+         */
+        public Replay toReplay() {
+            Replay replay = new Replay(seed, tickRate, pipeSpacing, Arrays.copyOf(flapTicks, flapCount), tickCount,
+                score);
+            release(this);
+            return replay;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.rivelbop.flappybird.sim;
+
+import com.rivelbop.flappybird.profiling.FrameProfiler;
+
+import java.util.Random;
+
+/**
+ * The whole game simulation: bird physics, pipe scrolling (see {@link Course}), collisions and scoring.
+ * Only depends on plain Java, so it can be stepped without a window, GL context or audio device.
+ * The {@link com.rivelbop.flappybird.FlappyBird} sprites simply mirror the state stored here.
+ * <p>
+ * All positions use the same coordinates as the sprites: the bird is tracked by its center,
+ * pipes by the bottom-left corner of the (unscaled) bottom pipe sprite.
+ */
+public class World {
+    /* Dimensions */
+    // Create a 9/16 aspect ratio (similar to a mobile device)
+    public static final int WIDTH = 480, HEIGHT = WIDTH * 16 / 9;
+    public static final float
+        GROUND_TOP = 120f, // The y-pos of the top of the ground ("ground.png" scaled to the screen width)
+        GROUND_SPEED = -250f; // The speed the ground moves
+
+    /* Bird */
+    public static final float
+        BIRD_X = WIDTH / 4f, // The bird stays on the left side of the screen
+        BIRD_START_Y = HEIGHT / 2f + 100f, // Above the half-way y-pos to avoid logo sprite obstruction
+        BIRD_WIDTH = 34f, BIRD_HEIGHT = 24f, // Size of "bird_N.png"
+        BIRD_SCALE = 2f, // The texture is too small, double the size of the sprite
+        GRAVITY = -900f, // Constant downward acceleration
+        FLAP_FORCE = 450f, // Value to set velocity to when the bird flaps
+        MAX_DEG = 25f, // The maximum upwards angle the bird can reach when flapped
+        ROT_ACCEL = -200f; // The acceleration applied to the rotation of the bird when falling
+
+    /* Pipes */
+    public static final float
+        PIPE_WIDTH = 52f, PIPE_HEIGHT = 320f, // Size of "pipe.png"
+        PIPE_SCALE = 2f, // The texture is too small, double the size of the sprite
+        PIPE_GAP = 200f, // Default space between the bottom and top pipe
+        PIPE_SPEED = -250f,
+        PIPE_MIN_Y = -HEIGHT / 3f, PIPE_MAX_Y = HEIGHT / 8f, // Range of the bottom pipe's random y-pos
+        PIPE_SPACING = WIDTH, // Default horizontal distance between two pipe groups
+        PIPE_OFF_SCREEN_X = -PIPE_WIDTH * PIPE_SCALE; // Groups left of this x-pos are recycled
+
+    /* Step Events (returned as bit flags by step(), and published as GameEvents when an EventRing is set) */
+    public static final int
+        FLAP = 1, // The bird flapped
+        SCORE = 1 << 1, // The bird passed a pipe group
+        HIT = 1 << 2; // The bird hit the ground or a pipe and died
+
+    /**
+     * What the bird hit when it died.
+     */
+    public enum DeathCause {
+        GROUND, PIPE
+    }
+
+    /* Bird State */
+    private float
+        birdY, // Center y-pos of the bird
+        velocity, // Keeps track of the bird's current velocity to apply
+        rotation, // The bird's current rotation in degrees
+        rotVel; // Keeps track of the bird's current rotation velocity to apply
+
+    private final GameConfig CONFIG; // The physics read by every step
+    private final Course course; // The pipes the bird flies through
+
+    private float groundX; // Scroll offset of the ground, always within (-WIDTH, 0]
+
+    /* Previous State (before the last step, used to interpolate the rendered positions) */
+    private float prevBirdY, prevRotation, prevGroundX;
+
+    private boolean isStarted, isDead;
+    private DeathCause deathCause; // Null while the bird is alive
+    private int score;
+    private int roundTick; // Steps since the game started
+
+    private EventRing events; // Receives the events of every step, null unless set
+
+    private FrameProfiler profiler = FrameProfiler.DISABLED; // Times the collisions and pipes
+
+    /**
+     * Creates a world with a randomly seeded pipe layout.
+     */
+    public World() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Creates a world whose pipe layout is generated from a seed.
+     * Using the same seed makes every run with the same inputs identical.
+     *
+     * @param seed The seed of the pipe layout.
+     */
+    public World(long seed) {
+        this(seed, PIPE_SPACING);
+    }
+
+    /**
+     * Creates a world with a custom distance between pipe groups.
+     * Just enough pipe group slots are allocated to always keep the screen filled.
+     *
+     * @param seed        The seed of the pipe layout.
+     * @param pipeSpacing The horizontal distance between two pipe groups.
+     */
+    public World(long seed, float pipeSpacing) {
+        this(seed, GameConfig.DEFAULT.withDifficulty(Difficulty.constant(PIPE_GAP, pipeSpacing)));
+    }
+
+    /**
+     * Creates a world with custom physics, whose pipe layout is generated from a seed.
+     *
+     * @param seed   The seed of the pipe layout.
+     * @param config The physics and difficulty of the world.
+     */
+    public World(long seed, GameConfig config) {
+        this(new CourseGenerator(seed, config.getDifficulty()), config);
+    }
+
+    /**
+     * Creates a world whose pipe groups (and how they get harder) come from a generator.
+     *
+     * @param generator The generator of the pipe groups.
+     */
+    public World(CourseGenerator generator) {
+        this(generator, GameConfig.DEFAULT.withDifficulty(generator.getDifficulty()));
+    }
+
+    private World(CourseGenerator generator, GameConfig config) {
+        CONFIG = config;
+        // Places its pipes off-screen already
+        course = new Course(generator, Course.pipeCountFor(generator.getDifficulty().getMinSpacing()),
+            config.getPipeSpeed());
+        resetBird();
+    }
+
+    /**
+     * Puts the world back into the start menu state: bird in the air, pipes off-screen and no score.
+     * The same course is flown again.
+     */
+    public void reset() {
+        course.reset();
+        resetBird();
+    }
+
+    /**
+     * Puts the world back into the start menu state with a new course.
+     *
+     * @param seed The seed of the new pipe layout.
+     */
+    public void reset(long seed) {
+        course.reset(seed);
+        resetBird();
+    }
+
+    /**
+     * Puts the bird (and ground) back into the start menu state, the course is left untouched.
+     */
+    private void resetBird() {
+        birdY = BIRD_START_Y;
+        velocity = rotVel = rotation = 0f;
+
+        groundX = 0f;
+        isStarted = isDead = false;
+        deathCause = null;
+        score = roundTick = 0;
+        savePrevious();
+        if (events != null) {
+            events.publishRestart(course.getGenerator().getSeed());
+        }
+    }
+
+    /**
+     * Copies the state of the world into a snapshot (e.g. to simulate ahead of it on another thread).
+     *
+     * @param into The snapshot to overwrite, made for this world's pipe count.
+     * @param tick The step the world is at, as counted by the caller.
+     * @param time When the snapshot is taken, from {@link System#nanoTime()}.
+     */
+    public void capture(WorldSnapshot into, long tick, long time) {
+        into.tick = tick;
+        into.time = time;
+        into.birdY = birdY;
+        into.velocity = velocity;
+        into.rotation = rotation;
+        into.rotVel = rotVel;
+        into.groundX = groundX;
+        into.isStarted = isStarted;
+        into.isDead = isDead;
+        into.deathCause = deathCause;
+        into.score = score;
+        into.roundTick = roundTick;
+        course.capture(into);
+    }
+
+    /**
+     * Continues from a snapshot instead of the current state (the course's generator is moved to the snapshot's
+     * course and group).
+     *
+     * @param snapshot The snapshot to continue from, captured from a world with the same pipe count.
+     */
+    public void restore(WorldSnapshot snapshot) {
+        birdY = snapshot.birdY;
+        velocity = snapshot.velocity;
+        rotation = snapshot.rotation;
+        rotVel = snapshot.rotVel;
+        groundX = snapshot.groundX;
+        isStarted = snapshot.isStarted;
+        isDead = snapshot.isDead;
+        deathCause = snapshot.deathCause;
+        score = snapshot.score;
+        roundTick = snapshot.roundTick;
+        course.restore(snapshot);
+        savePrevious();
+    }
+
+    /**
+     * Remembers the current positions so they can be interpolated after the next step.
+     */
+    private void savePrevious() {
+        prevBirdY = birdY;
+        prevRotation = rotation;
+        prevGroundX = groundX;
+        course.savePrevious();
+    }
+
+    /**
+     * Advances the simulation by a single step.
+     * A flap before the game is started starts the game (and flaps the bird).
+     *
+     * @param delta The time to simulate in seconds.
+     * @param flap  Whether the player pressed the flap button this step.
+     * @return The events that happened during this step, see {@link #FLAP}, {@link #SCORE} and {@link #HIT}
+     * (also published to the event ring, if one is set).
+     */
+    public int step(float delta, boolean flap) {
+        savePrevious();
+
+        if (!isStarted) {
+            if (!flap) {
+                updateGround(delta); // The ground keeps moving on the start menu
+                return 0;
+            }
+            isStarted = true;
+        }
+        roundTick++;
+
+        int stepEvents = 0;
+
+        // If the bird is not dead and touches the ground or collides with any pipe
+        profiler.begin(FrameProfiler.Phase.COLLISION);
+        DeathCause hit = isDead ? null : isGrounded() ? DeathCause.GROUND : collides() ? DeathCause.PIPE : null;
+        profiler.end(FrameProfiler.Phase.COLLISION);
+        if (hit != null) {
+            isDead = true;
+            deathCause = hit;
+            stepEvents |= HIT;
+            if (events != null) {
+                events.publishHit(roundTick, hit);
+            }
+        }
+
+        if (!isDead) {
+            updateGround(delta); // Update the ground movement when the bird isn't dead
+        }
+
+        // Update the bird's movement when it doesn't hit the ground
+        if (!isGrounded() && updateBird(delta, flap && !isDead)) {
+            stepEvents |= FLAP;
+            if (events != null) {
+                events.publishFlap(roundTick);
+            }
+        }
+
+        if (!isDead) {
+            profiler.begin(FrameProfiler.Phase.PIPES);
+            course.updatePipes(delta);
+            profiler.end(FrameProfiler.Phase.PIPES);
+        }
+
+        if (course.updateScore()) {
+            score++;
+            stepEvents |= SCORE;
+            if (events != null) {
+                events.publishScore(roundTick, score);
+            }
+        }
+        return stepEvents;
+    }
+
+    /**
+     * Applies gravity and rotation to the bird.
+     *
+     * @param delta The time to simulate in seconds.
+     * @param flap  Whether the bird should flap.
+     * @return Whether the bird flapped.
+     */
+    public boolean updateBird(float delta, boolean flap) {
+        if (flap) {
+            velocity = CONFIG.getFlapForce();
+        }
+
+        // Apply gravity to the bird
+        velocity += CONFIG.getGravity() * delta;
+        birdY += velocity * delta;
+
+        float maxY = HEIGHT - BIRD_HEIGHT / 2f;
+        if (birdY > maxY) { // If the bird goes off the top of the screen
+            birdY = maxY; // Move the bird back in bounds (right under top)
+        }
+
+        if (velocity > 0f) { // The bird is not falling
+            rotation = MAX_DEG; // Snap the bird's rotation to the max upward degree
+            rotVel = 0f; // Reset the rotation velocity
+        } else if (velocity < 0f) { // The bird is falling
+            if (rotation > -90f) { // The bird has not entirely rotated to face directly down
+                rotVel += CONFIG.getRotAccel() * delta; // Add the rotation acceleration to the current rotation velocity
+                rotation += rotVel * delta; // Rotate the bird using the rotation velocity
+            } else {
+                rotation = -90f; // Just for a perfect 90 degrees! ;)
+            }
+        }
+        return flap;
+    }
+
+    private void updateGround(float delta) {
+        groundX += CONFIG.getGroundSpeed() * delta;
+        if (groundX <= -WIDTH) { // Loop the ground seamlessly
+            groundX += WIDTH;
+        }
+    }
+
+    /**
+     * Checks if the bird collides with any pipe of the course (see {@link Course#collides(float, float)}).
+     *
+     * @return Whether the bird collides with any pipe.
+     */
+    public boolean collides() {
+        return course.collides(birdY, rotation);
+    }
+
+    /**
+     * @param bottomY The y-pos of the bottom pipe.
+     * @param gap     The space between the bottom and top pipe.
+     * @return The y-pos of the top pipe, placed right above the gap.
+     */
+    public static float topPipeY(float bottomY, float gap) {
+        return bottomY + PIPE_HEIGHT * PIPE_SCALE + gap;
+    }
+
+    /**
+     * Enables pixel-precise collisions, bounding boxes are still used to skip pipes that are far away.
+     *
+     * @param masks The shapes of the bird and pipes, or null to only use bounding boxes.
+     */
+    public void setCollisionMasks(CollisionMasks masks) {
+        course.setCollisionMasks(masks);
+    }
+
+    /**
+     * @param profiler Times the collision checks and pipe updates of every step.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Publishes the events of every step (and a {@link GameEvent.Type#RESTART} on every reset) from now on.
+     * The steps must then all be simulated on the ring's publishing thread.
+     *
+     * @param events The ring to publish to, or null to stop publishing.
+     */
+    public void setEventRing(EventRing events) {
+        this.events = events;
+    }
+
+    /**
+     * @return Whether the bottom of the bird touches the ground.
+     */
+    public boolean isGrounded() {
+        return birdY - BIRD_HEIGHT / 2f <= GROUND_TOP;
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public boolean isDead() {
+        return isDead;
+    }
+
+    /**
+     * @return What the bird hit when it died, or null while it is alive.
+     */
+    public DeathCause getDeathCause() {
+        return deathCause;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return How many steps were simulated since the game started (0 on the start menu).
+     */
+    public int getRoundTick() {
+        return roundTick;
+    }
+
+    public float getBirdY() {
+        return birdY;
+    }
+
+    /**
+     * @param alpha How far to interpolate from the previous (0) to the current (1) step.
+     * @return The interpolated center y-pos of the bird.
+     */
+    public float getBirdY(float alpha) {
+        return prevBirdY + (birdY - prevBirdY) * alpha;
+    }
+
+    public float getBirdVelocity() {
+        return velocity;
+    }
+
+    public float getBirdRotation() {
+        return rotation;
+    }
+
+    /**
+     * @param alpha How far to interpolate from the previous (0) to the current (1) step.
+     * @return The interpolated rotation of the bird in degrees.
+     */
+    public float getBirdRotation(float alpha) {
+        return prevRotation + (rotation - prevRotation) * alpha;
+    }
+
+    /**
+     * @return The physics and difficulty of the world.
+     */
+    public GameConfig getConfig() {
+        return CONFIG;
+    }
+
+    /**
+     * @return The pipes the bird flies through.
+     */
+    public Course getCourse() {
+        return course;
+    }
+
+    public int getPipeCount() {
+        return course.getPipeCount();
+    }
+
+    public float getPipeX(int i) {
+        return course.getPipeX(i);
+    }
+
+    /**
+     * @param i     The index of the pipe group.
+     * @param alpha How far to interpolate from the previous (0) to the current (1) step.
+     * @return The interpolated x-pos of the pipe group.
+     */
+    public float getPipeX(int i, float alpha) {
+        return course.getPipeX(i, alpha);
+    }
+
+    public float getPipeY(int i) {
+        return course.getPipeY(i);
+    }
+
+    public float getPipeGap(int i) {
+        return course.getPipeGap(i);
+    }
+
+    public float getGroundX() {
+        return groundX;
+    }
+
+    /**
+     * @param alpha How far to interpolate from the previous (0) to the current (1) step.
+     * @return The interpolated scroll offset of the ground.
+     */
+    public float getGroundX(float alpha) {
+        float x = groundX;
+        if (x > prevGroundX) {
+            x -= WIDTH; // The ground looped, interpolate as if it kept going left
+        }
+        x = prevGroundX + (x - prevGroundX) * alpha;
+        return x <= -WIDTH ? x + WIDTH : x;
+    }
+}
@@ -0,0 +1,81 @@
+package com.rivelbop.flappybird.sim;
+
+/**
+ * A copy of everything a {@link World} needs to continue from one step (the bird, ground, score, pipe slots and where
+ * the course's generator is), taken with {@link World#capture(WorldSnapshot, long, long)} and put back with
+ * {@link World#restore(WorldSnapshot)}. A restored world places the same pipes as the captured one once it recycles
+ * a group, as long as both have the same difficulty.
+ * <p>
+ * Only the capturing thread writes a snapshot, so it can be handed to another thread that reads it without locks
+ * as long as it isn't captured into again meanwhile (e.g. through a triple buffer).
+ */
+public final class WorldSnapshot {
+    long tick, time;
+    float birdY, velocity, rotation, rotVel, groundX;
+    boolean isStarted, isDead;
+    World.DeathCause deathCause;
+    int score, roundTick;
+
+    /* Pipe Slots (copied from the Course) */
+    final float[] PIPE_X, PIPE_Y, PIPE_GAP;
+    final boolean[] PIPE_SCORED;
+    int firstPipe;
+    long seed; // Of the course
+    int groupIndex; // Of the generator's current group
+
+    /**
+     * @param pipeCount The amount of pipe group slots of the worlds that will be captured.
+     */
+    public WorldSnapshot(int pipeCount) {
+        PIPE_X = new float[pipeCount];
+        PIPE_Y = new float[pipeCount];
+        PIPE_GAP = new float[pipeCount];
+        PIPE_SCORED = new boolean[pipeCount];
+    }
+
+    /**
+     * @return The step the snapshot was captured after, as counted by the capturing code.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return When the snapshot was captured, from {@link System#nanoTime()}.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public float getBirdY() {
+        return birdY;
+    }
+
+    public float getBirdVelocity() {
+        return velocity;
+    }
+
+    public boolean isStarted() {
+        return isStarted;
+    }
+
+    public boolean isDead() {
+        return isDead;
+    }
+
+    public int getPipeCount() {
+        return PIPE_X.length;
+    }
+
+    public float getPipeX(int i) {
+        return PIPE_X[i];
+    }
+
+    public float getPipeY(int i) {
+        return PIPE_Y[i];
+    }
+
+    public float getPipeGap(int i) {
+        return PIPE_GAP[i];
+    }
+}
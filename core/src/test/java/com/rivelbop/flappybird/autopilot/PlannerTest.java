@@ -0,0 +1,37 @@
+package com.rivelbop.flappybird.autopilot;
+
+import com.rivelbop.flappybird.sim.GameConfig;
+import com.rivelbop.flappybird.sim.World;
+import com.rivelbop.flappybird.sim.WorldSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PlannerTest {
+    private static final long SEED = 44L;
+    private static final int TICK_RATE = 120;
+    private static final long BUDGET = TimeUnit.MILLISECONDS.toNanos(10L);
+
+    @Test
+    void plannedFlapsSurviveTheRealCoursePastItsRecycles() {
+        Planner planner = new Planner(TICK_RATE, GameConfig.DEFAULT, null);
+        FlapPlan plan = new FlapPlan(planner.getMaxLength());
+        World world = new World(SEED, GameConfig.DEFAULT);
+        WorldSnapshot snapshot = new WorldSnapshot(world.getPipeCount());
+        world.step(1f / TICK_RATE, true); // Starts the game
+
+        // Every pipe group is recycled a few times, and planned from a world of another course
+        long tick = 1L;
+        while (world.getScore() < 3 * world.getPipeCount()) {
+            world.capture(snapshot, tick, System.nanoTime());
+            planner.plan(snapshot, BUDGET, plan);
+            long end = tick + Math.max(1, plan.getLength() / 2); // Planned again before the plan runs out
+            for (; tick < end; tick++) {
+                world.step(1f / TICK_RATE, plan.isFlap(tick));
+                assertFalse(world.isDead(), "The bird died following the plan on step " + tick);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.rivelbop.flappybird.scores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScoreLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopeningRanksEveryAppendedRecord() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreLog log = ScoreLog.open(file, new Leaderboard(10));
+        log.append(records(5, 3, 8));
+        log.append(records(1));
+        log.close();
+
+        Leaderboard leaderboard = new Leaderboard(10);
+        log = ScoreLog.open(file, leaderboard);
+        log.close();
+        assertEquals(4, log.getRecordCount());
+        assertEquals(4L, leaderboard.getRunCount());
+        assertArrayEquals(new int[]{8, 5, 3, 1}, scores(leaderboard));
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOff() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreLog log = ScoreLog.open(file, new Leaderboard(10));
+        log.append(records(5, 3, 8));
+        log.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(ScoreLog.HEADER_SIZE + 2L * ScoreLog.RECORD_SIZE + 10L); // Crashed while appending
+        }
+
+        Leaderboard leaderboard = new Leaderboard(10);
+        log = ScoreLog.open(file, leaderboard);
+        assertEquals(2, log.getRecordCount());
+        assertArrayEquals(new int[]{5, 3}, scores(leaderboard));
+        assertEquals(ScoreLog.HEADER_SIZE + 2L * ScoreLog.RECORD_SIZE, Files.size(file));
+
+        log.append(records(4)); // Appended right after the last whole record
+        log.close();
+        leaderboard = new Leaderboard(10);
+        ScoreLog.open(file, leaderboard).close();
+        assertArrayEquals(new int[]{5, 4, 3}, scores(leaderboard));
+    }
+
+    @Test
+    void recordWithABadChecksumCutsOffEverythingAfterIt() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreLog log = ScoreLog.open(file, new Leaderboard(10));
+        log.append(records(5, 3, 8));
+        log.close();
+        flipByte(file, ScoreLog.HEADER_SIZE + ScoreLog.RECORD_SIZE + 6L); // In the seed of the second record
+
+        Leaderboard leaderboard = new Leaderboard(10);
+        ScoreLog.open(file, leaderboard).close();
+        assertArrayEquals(new int[]{5}, scores(leaderboard));
+        assertEquals(ScoreLog.HEADER_SIZE + ScoreLog.RECORD_SIZE, Files.size(file));
+    }
+
+    @Test
+    void corruptedHeaderIsRejected() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreLog log = ScoreLog.open(file, new Leaderboard(10));
+        log.append(records(5));
+        log.close();
+        flipByte(file, 10L); // In the dropped run count
+
+        assertThrows(IOException.class, () -> ScoreLog.open(file, new Leaderboard(10)));
+        assertEquals(ScoreLog.HEADER_SIZE + ScoreLog.RECORD_SIZE, Files.size(file)); // Left untouched
+    }
+
+    @Test
+    void headerTornWhileCreatingStartsANewLog() throws IOException {
+        Path file = directory.resolve("scores.log");
+        Files.write(file, new byte[ScoreLog.HEADER_SIZE - 1]);
+
+        Leaderboard leaderboard = new Leaderboard(10);
+        ScoreLog log = ScoreLog.open(file, leaderboard);
+        log.append(records(7));
+        log.close();
+        assertEquals(0L, leaderboard.getRunCount());
+
+        leaderboard = new Leaderboard(10);
+        ScoreLog.open(file, leaderboard).close();
+        assertArrayEquals(new int[]{7}, scores(leaderboard));
+    }
+
+    @Test
+    void staleTemporaryFileIsDeleted() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreLog log = ScoreLog.open(file, new Leaderboard(10));
+        log.append(records(5, 3));
+        log.close();
+        Path temporary = directory.resolve("scores.log.tmp"); // A compaction that crashed before moving it
+        Files.write(temporary, new byte[]{1, 2, 3});
+
+        Leaderboard leaderboard = new Leaderboard(10);
+        ScoreLog.open(file, leaderboard).close();
+        assertFalse(Files.exists(temporary));
+        assertArrayEquals(new int[]{5, 3}, scores(leaderboard));
+    }
+
+    @Test
+    void compactionKeepsTheRankedRecordsAndCountsTheOthers() throws IOException {
+        Path file = directory.resolve("scores.log");
+        Leaderboard leaderboard = new Leaderboard(3);
+        ScoreLog log = ScoreLog.open(file, leaderboard);
+        List<ScoreRecord> records = records(4, 9, 1, 7, 2, 6, 3);
+        log.append(records);
+        records.forEach(leaderboard::add);
+
+        log.compact(leaderboard);
+        assertEquals(3, log.getRecordCount());
+        assertEquals(ScoreLog.HEADER_SIZE + 3L * ScoreLog.RECORD_SIZE, Files.size(file));
+        log.append(records(8)); // Still appends to the compacted log
+        log.close();
+
+        Leaderboard reopened = new Leaderboard(3);
+        log = ScoreLog.open(file, reopened);
+        log.close();
+        assertEquals(4, log.getRecordCount());
+        assertEquals(8L, reopened.getRunCount()); // The 4 dropped runs come from the header
+        assertArrayEquals(new int[]{9, 8, 7}, scores(reopened));
+        assertEquals(records.get(1).getSeed(), reopened.get(0).getSeed());
+        assertEquals(records.get(1).getTime(), reopened.get(0).getTime());
+    }
+
+    @Test
+    void droppedRunsAddUpOverCompactions() throws IOException {
+        Path file = directory.resolve("scores.log");
+        Leaderboard leaderboard = new Leaderboard(2);
+        ScoreLog log = ScoreLog.open(file, leaderboard);
+        for (int round = 0; round < 3; round++) {
+            List<ScoreRecord> records = records(round, round + 10, round + 20);
+            log.append(records);
+            records.forEach(leaderboard::add);
+            log.compact(leaderboard);
+        }
+        log.close();
+
+        Leaderboard reopened = new Leaderboard(2);
+        ScoreLog.open(file, reopened).close();
+        assertEquals(9L, reopened.getRunCount());
+        assertArrayEquals(new int[]{22, 21}, scores(reopened));
+    }
+
+    @Test
+    void failedMoveKeepsTheOldLog() throws IOException {
+        Path file = directory.resolve("scores.log");
+        Leaderboard leaderboard = new Leaderboard(2);
+        ScoreLog log = ScoreLog.open(new ScoreLog(file) {
+            @Override
+            void moveOver(Path temporary, Path target) throws IOException {
+                throw new IOException("Moving " + temporary + " failed");
+            }
+        }, leaderboard);
+        List<ScoreRecord> records = records(5, 3, 8);
+        log.append(records);
+        records.forEach(leaderboard::add);
+
+        assertThrows(IOException.class, () -> log.compact(leaderboard));
+        assertEquals(3, log.getRecordCount());
+        log.append(records(6)); // Appended to the old log, which was opened again
+        log.close();
+
+        Leaderboard reopened = new Leaderboard(10);
+        ScoreLog.open(file, reopened).close();
+        assertFalse(Files.exists(directory.resolve("scores.log.tmp")));
+        assertEquals(4L, reopened.getRunCount());
+        assertArrayEquals(new int[]{8, 6, 5, 3}, scores(reopened));
+    }
+
+    /**
+     * @return Records with the given scores, each with its own seed and time.
+     */
+    private static List<ScoreRecord> records(int... scores) {
+        List<ScoreRecord> records = new ArrayList<>();
+        for (int score : scores) {
+            records.add(new ScoreRecord(score, score * 31L + 1L, 1_000L + score));
+        }
+        return records;
+    }
+
+    private static int[] scores(Leaderboard leaderboard) {
+        return Arrays.stream(leaderboard.top(leaderboard.size())).mapToInt(ScoreRecord::getScore).toArray();
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            buffer.put(0, (byte) ~buffer.get(0));
+            buffer.rewind();
+            channel.write(buffer, position);
+        }
+    }
+}
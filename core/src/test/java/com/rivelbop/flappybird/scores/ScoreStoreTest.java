@@ -0,0 +1,37 @@
+package com.rivelbop.flappybird.scores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void closingSavesEverySubmittedRun() throws IOException {
+        Path file = directory.resolve("scores.log");
+        ScoreStore store = new ScoreStore(file, 5, 8); // Compacted by the writer a few times
+        for (int score = 0; score < 100; score++) {
+            store.submit(score % 37, score);
+        }
+        assertEquals(36, store.getHighScore()); // Ranked right away, before anything was written
+        store.close();
+        assertTrue(Files.size(file) <= ScoreLog.HEADER_SIZE + (5L + 8L) * ScoreLog.RECORD_SIZE);
+
+        ScoreStore reopened = new ScoreStore(file, 5, 8);
+        reopened.close();
+        assertEquals(100L, reopened.getRunCount());
+        assertEquals(36, reopened.getHighScore());
+        assertEquals(store.getTop(5).length, reopened.getTop(5).length);
+        for (int rank = 0; rank < 5; rank++) {
+            assertEquals(store.getTop(5)[rank].getSeed(), reopened.getTop(5)[rank].getSeed());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rivelbop.flappybird.sim;
+
+import com.rivelbop.flappybird.profiling.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingTest {
+    private static final int CAPACITY = 8;
+
+    @Test
+    void slowSubscriberDropsItsEventsWhileTheOthersGetEveryOne() throws InterruptedException {
+        EventRing ring = new EventRing(CAPACITY);
+        CountDownLatch blocked = new CountDownLatch(1), released = new CountDownLatch(1);
+        List<Integer> slowTicks = new ArrayList<>(), ticks = new ArrayList<>(); // Read once the thread stopped
+        EventRing.Subscription slow = ring.subscribe(event -> {
+            slowTicks.add(event.getTick());
+            if (event.getTick() == 0) { // Stuck on the first event, so its ring fills up
+                blocked.countDown();
+                await(released);
+            }
+        }, "Slow subscriber");
+        EventRing.Subscription fast = ring.subscribe(event -> ticks.add(event.getTick()));
+
+        ring.publishFlap(0);
+        fast.drain();
+        assertTrue(blocked.await(5L, TimeUnit.SECONDS), "The slow subscriber didn't get the first event");
+        int published = 3 * CAPACITY;
+        for (int tick = 1; tick <= published; tick++) {
+            ring.publishFlap(tick);
+            fast.drain();
+        }
+        // The first event is still being handled, only the rest of its ring could be filled
+        assertEquals(published - (CAPACITY - 1), slow.getDroppedCount());
+        assertEquals(0L, fast.getDroppedCount());
+
+        released.countDown();
+        LatencyHistogram handled = new LatencyHistogram(); // Copied once a batch was handled and its slots reused
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (handled.getCount() < CAPACITY) {
+            assertTrue(System.nanoTime() < deadline, "The slow subscriber didn't catch up");
+            Thread.yield();
+            slow.copyLatency(handled);
+        }
+        ring.publishFlap(published + 1); // Not dropped anymore once the subscriber caught up
+        fast.drain();
+        ring.close();
+        assertArrayEquals(IntStream.rangeClosed(0, published + 1).toArray(), toArray(ticks));
+        int[] expected = IntStream.concat(IntStream.range(0, CAPACITY), IntStream.of(published + 1)).toArray();
+        assertArrayEquals(expected, toArray(slowTicks));
+    }
+
+    @Test
+    void eventsPublishedRightBeforeClosingAreHandled() {
+        for (int round = 0; round < 200; round++) { // The thread may be parked, draining or about to park
+            EventRing ring = new EventRing(CAPACITY);
+            List<Integer> ticks = new ArrayList<>(); // Read once the thread stopped
+            EventRing.Subscription subscription = ring.subscribe(event -> ticks.add(event.getTick()), "Subscriber",
+                GameEvent.Type.FLAP);
+            for (int tick = 0; tick < CAPACITY; tick++) { // Never a whole ring ahead, so nothing is dropped
+                ring.publishFlap(tick);
+            }
+            ring.publishRestart(round); // Not handled by the subscription
+            ring.close();
+
+            assertEquals(0L, subscription.getDroppedCount());
+            assertArrayEquals(IntStream.range(0, CAPACITY).toArray(), toArray(ticks));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int[] toArray(List<Integer> ticks) {
+        return ticks.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
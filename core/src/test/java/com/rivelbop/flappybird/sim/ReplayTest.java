@@ -0,0 +1,105 @@
+package com.rivelbop.flappybird.sim;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayTest {
+    private static final long SEED = 42L;
+    private static final int TICK_RATE = 120, FLAPPED_TICKS = 2_000; // The bot gives up afterwards
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordedRunVerifies() throws IOException {
+        Replay replay = play();
+        assertTrue(replay.verify(null));
+
+        Path file = directory.resolve("run.fbr");
+        replay.write(file);
+        Replay read = Replay.read(file);
+        assertTrue(read.verify(null));
+        assertEquals(replay.getTickCount(), read.getTickCount());
+        assertArrayEquals(flapTicks(replay), flapTicks(read));
+    }
+
+    @Test
+    void runThatDiedBeforeItsLastTickDoesNotVerify() {
+        Replay replay = play();
+        // The bird is dead (with the same score) on the extra ticks
+        Replay longer = new Replay(SEED, TICK_RATE, World.PIPE_SPACING, flapTicks(replay),
+            replay.getTickCount() + 30, replay.getScore());
+        assertFalse(longer.verify(null));
+    }
+
+    @Test
+    void truncatedFlapsDoNotVerify() {
+        Replay replay = play();
+        World world = replay.simulate(null);
+        int lastScoreTick = lastScoreTick(replay);
+        int[] flapTicks = flapTicks(replay);
+        int kept = 0;
+        while (kept < flapTicks.length && flapTicks[kept] <= lastScoreTick) {
+            kept++;
+        }
+        assertTrue(kept < flapTicks.length, "The bot didn't flap after its last point");
+
+        // Falls without the last flaps, but still dies with the recorded score
+        Replay truncated = new Replay(SEED, TICK_RATE, World.PIPE_SPACING, Arrays.copyOf(flapTicks, kept),
+            replay.getTickCount(), replay.getScore());
+        assertEquals(world.getScore(), truncated.simulate(null).getScore());
+        assertFalse(truncated.verify(null));
+    }
+
+    /**
+     * Plays a run with a bot that stops flapping after a while, so it always dies.
+     */
+    private static Replay play() {
+        World world = new World(SEED, World.PIPE_SPACING);
+        GapBot bot = new GapBot();
+        int[] flapTicks = new int[FLAPPED_TICKS];
+        int flapCount = 0, tick = 0;
+        while (!world.isDead()) {
+            boolean flap = tick < FLAPPED_TICKS && bot.shouldFlap(world); // Also starts the game
+            if (flap) {
+                flapTicks[flapCount++] = tick;
+            }
+            world.step(1f / TICK_RATE, flap);
+            tick++;
+        }
+        assertTrue(world.getScore() > 0, "The bot didn't score");
+        return new Replay(SEED, TICK_RATE, World.PIPE_SPACING, Arrays.copyOf(flapTicks, flapCount), tick,
+            world.getScore());
+    }
+
+    /**
+     * @return The tick the replay scored its last point on.
+     */
+    private static int lastScoreTick(Replay replay) {
+        World world = new World(SEED, World.PIPE_SPACING);
+        int last = -1;
+        for (int tick = 0; tick < replay.getTickCount(); tick++) {
+            if ((world.step(1f / TICK_RATE, replay.isFlapTick(tick)) & World.SCORE) != 0) {
+                last = tick;
+            }
+        }
+        return last;
+    }
+
+    private static int[] flapTicks(Replay replay) {
+        int[] ticks = new int[replay.getFlapCount()];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = replay.getFlapTick(i);
+        }
+        return ticks;
+    }
+}
@@ -0,0 +1,66 @@
+package com.rivelbop.flappybird.sim;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorldSnapshotTest {
+    private static final long SEED = 44L; // A course the simple bot gets far in
+    private static final float TICK_TIME = 1f / 120f;
+    private static final int PLAYED_TICKS = 1_500; // Recycles every pipe group a few times
+
+    @Test
+    void worldOfAnotherCourseContinuesTheCapturedOne() {
+        World world = new World(SEED);
+        WorldSnapshot snapshot = new WorldSnapshot(world.getPipeCount());
+        play(world, 300);
+        world.capture(snapshot, 0L, 0L);
+
+        World restored = new World(SEED + 1L);
+        restored.restore(snapshot);
+        assertFollows(world, restored);
+    }
+
+    @Test
+    void restoredEarlierSnapshotPlacesTheSamePipesAgain() {
+        World world = new World(SEED), played = new World(SEED);
+        WorldSnapshot snapshot = new WorldSnapshot(world.getPipeCount());
+        play(world, 300);
+        play(played, 300);
+        world.capture(snapshot, 0L, 0L);
+
+        play(world, PLAYED_TICKS); // Moves its generator far past the snapshot's group
+        world.restore(snapshot);
+        assertFollows(played, world);
+    }
+
+    /**
+     * Plays both worlds with the decisions of a bot playing the first one, checking that they stay identical.
+     */
+    private static void assertFollows(World world, World follower) {
+        GapBot bot = new GapBot();
+        int startScore = world.getScore();
+        for (int tick = 0; tick < PLAYED_TICKS && !world.isDead(); tick++) {
+            boolean flap = bot.shouldFlap(world);
+            assertEquals(world.step(TICK_TIME, flap), follower.step(TICK_TIME, flap));
+            for (int i = 0; i < world.getPipeCount(); i++) {
+                assertEquals(world.getPipeX(i), follower.getPipeX(i));
+                assertEquals(world.getPipeY(i), follower.getPipeY(i));
+                assertEquals(world.getPipeGap(i), follower.getPipeGap(i));
+            }
+            assertEquals(world.getBirdY(), follower.getBirdY());
+        }
+        assertTrue(world.getScore() > startScore + world.getPipeCount(), "No pipe group was recycled");
+        assertEquals(world.isDead(), follower.isDead());
+    }
+
+    private static void play(World world, int ticks) {
+        GapBot bot = new GapBot();
+        for (int tick = 0; tick < ticks; tick++) {
+            world.step(TICK_TIME, bot.shouldFlap(world));
+        }
+        assertFalse(world.isDead(), "The bot died");
+    }
+}
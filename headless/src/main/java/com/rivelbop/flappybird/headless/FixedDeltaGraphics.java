@@ -0,0 +1,48 @@
+package com.rivelbop.flappybird.headless;
+
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+
+/**
+ * Reports the same frame time and window size every frame, so the game sees a steady 60 FPS window
+ * no matter how fast the frames actually run (and every run plays out the same).
+ */
+public class FixedDeltaGraphics extends MockGraphics {
+    private final float DELTA;
+    private final int WIDTH, HEIGHT;
+
+    /**
+     * @param delta  The reported time between two frames in seconds.
+     * @param width  The reported width of the window.
+     * @param height The reported height of the window.
+     */
+    public FixedDeltaGraphics(float delta, int width, int height) {
+        DELTA = delta;
+        WIDTH = width;
+        HEIGHT = height;
+    }
+
+    @Override
+    public float getDeltaTime() {
+        return DELTA;
+    }
+
+    @Override
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    @Override
+    public int getHeight() {
+        return HEIGHT;
+    }
+
+    @Override
+    public int getBackBufferWidth() {
+        return WIDTH;
+    }
+
+    @Override
+    public int getBackBufferHeight() {
+        return HEIGHT;
+    }
+}
@@ -0,0 +1,87 @@
+package com.rivelbop.flappybird.headless;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.rivelbop.flappybird.sim.Replay;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Runs the game without a window, GL context or audio device, as fast as the CPU allows,
+ * to catch throughput regressions and leaks on machines without a display (e.g. CI), see {@link HeadlessRunner}.
+ * Must run with the assets folder as the working directory ({@code ./gradlew :headless:run} does).
+ * Exits with 1 if the run failed. Everything the game saves goes to a temporary home directory.
+ * <p>
+ * <u>Arguments:</u> {@code [--rounds <count>] [--replay <file>] [--max-heap-growth-mb <megabytes>]}
+ */
+public class HeadlessLauncher {
+    public static void main(String[] args) throws IOException {
+        int rounds = 200;
+        long maxHeapGrowth = 16L << 20;
+        Replay replay = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rounds":
+                    rounds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--replay":
+                    replay = Replay.read(Paths.get(args[i + 1]));
+                    break;
+                case "--max-heap-growth-mb":
+                    maxHeapGrowth = Long.parseLong(args[i + 1]) << 20;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (rounds < 1) {
+            throw new IllegalArgumentException("At least one round must be played");
+        }
+
+        useTemporaryHome();
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = 0; // Uncapped, the game only sees the fixed frame time
+        new HeadlessApplication(new HeadlessRunner(replay, rounds, maxHeapGrowth), configuration);
+    }
+
+    /**
+     * Keeps the high score, replays and profiles of a run out of the player's (read by the backend's files):
+     * points the home directory at a temporary directory, deleted when the JVM exits.
+     * Must be called before the application starts.
+     */
+    public static void useTemporaryHome() throws IOException {
+        Path home = Files.createTempDirectory("flappybird-headless");
+        System.setProperty("user.home", home.toString());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(home)));
+    }
+
+    /**
+     * Deletes a directory and everything in it, ignoring failures (it is only a temporary directory).
+     */
+    private static void delete(Path directory) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Couldn't delete " + directory + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.rivelbop.flappybird.headless;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.profiling.StartupMetrics;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.Replay;
+import com.rivelbop.flappybird.sim.World;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays {@link FlappyBird} for a number of rounds as fast as possible (every frame reports the same 1/60 s),
+ * pressing space for a {@link GapBot}, or only to restart a watched replay.
+ * <p>
+ * The first rounds warm up the JIT and fill the caches. Afterwards the frame rate, the GC activity
+ * and the heap still in use after a full GC are measured, and the run fails when that heap grew
+ * more than allowed (something is kept alive from round to round) or a replay doesn't reproduce its score.
+ */
+class HeadlessRunner implements ApplicationListener {
+    private static final float DELTA = 1f / 60f; // The frame time reported to the game
+    private static final int MAX_ROUND_FRAMES = 60 * 60 * 10; // A round lasting longer means the bird can't die
+
+    private final FlappyBird GAME;
+    private final Replay REPLAY; // Null when the bot plays
+    private final GapBot BOT = new GapBot();
+    private final ScriptedInput INPUT = new ScriptedInput();
+    private final int ROUNDS, WARMUP_ROUNDS;
+    private final long MAX_HEAP_GROWTH;
+
+    private int rounds, roundFrames, failures;
+    private long frames, bestScore, totalScore;
+
+    /* Measured after the warm-up */
+    private long startNanos, startFrames, startHeap, startGcCount, startGcMillis;
+    private boolean isMeasuring;
+
+    /**
+     * @param replay        The run to watch every round, or null to let the bot play.
+     * @param rounds        How many rounds to play.
+     * @param maxHeapGrowth How many bytes the heap in use may grow between the end of the warm-up and the end.
+     */
+    HeadlessRunner(Replay replay, int rounds, long maxHeapGrowth) {
+        GAME = replay == null ? new FlappyBird() : new FlappyBird(replay);
+        // Measures the startup from the launch of the JVM, like the desktop launcher
+        GAME.setLaunchTime(System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L);
+        REPLAY = replay;
+        ROUNDS = rounds;
+        WARMUP_ROUNDS = Math.max(1, rounds / 10);
+        MAX_HEAP_GROWTH = maxHeapGrowth;
+    }
+
+    @Override
+    public void create() {
+        // Replace the backend's mocks (which have no GL at all) before the game loads anything
+        GL20 gl = StubGL20.create();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.graphics = new FixedDeltaGraphics(DELTA, FlappyBird.WIDTH, FlappyBird.HEIGHT);
+        Gdx.input = INPUT;
+
+        GAME.create();
+        GAME.resize(FlappyBird.WIDTH, FlappyBird.HEIGHT);
+    }
+
+    @Override
+    public void render() {
+        World world = GAME.getWorld();
+        if (world == null) { // Still loading, there is nothing to press yet
+            INPUT.setPressed(false);
+            GAME.render();
+            return;
+        }
+        if (world.isDead()) {
+            if (endRound(world.getScore())) {
+                return;
+            }
+            INPUT.setPressed(true); // Restarts
+        } else if (++roundFrames > MAX_ROUND_FRAMES) {
+            System.err.println("Round " + (rounds + 1) + " didn't end after " + MAX_ROUND_FRAMES + " frames");
+            failures++;
+            finish();
+            return;
+        } else {
+            // A watched run flaps by itself, it only has to be restarted
+            INPUT.setPressed(REPLAY == null && BOT.shouldFlap(world));
+        }
+
+        GAME.render();
+        frames++;
+    }
+
+    /**
+     * Counts a finished round, starts measuring after the warm-up and stops after the last round.
+     *
+     * @param score The score of the round.
+     * @return Whether the run is over.
+     */
+    private boolean endRound(int score) {
+        rounds++;
+        roundFrames = 0;
+        totalScore += score;
+        bestScore = Math.max(bestScore, score);
+        if (REPLAY != null && score != REPLAY.getScore()) {
+            System.err.println("Round " + rounds + " scored " + score + " instead of the replay's " + REPLAY.getScore());
+            failures++;
+        }
+
+        if (rounds == WARMUP_ROUNDS && !isMeasuring) {
+            startHeap = usedHeapAfterGc();
+            startGcCount = gcCount();
+            startGcMillis = gcMillis();
+            startFrames = frames;
+            startNanos = System.nanoTime();
+            isMeasuring = true;
+        }
+        if (rounds >= ROUNDS) {
+            finish();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Prints the report and exits.
+     */
+    private void finish() {
+        Gdx.app.exit();
+        StartupMetrics startup = GAME.getStartupMetrics();
+        System.out.printf("Startup: first frame after %.1f ms, interactive after %.1f ms%n",
+            startup.getTimeToFirstFrame() / 1e6, startup.getTimeToInteractive() / 1e6);
+        if (!isMeasuring) { // Failed during the warm-up
+            return;
+        }
+
+        // Read everything before the final GC, which shouldn't count
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long measuredFrames = frames - startFrames;
+        long gcCount = gcCount() - startGcCount, gcMillis = gcMillis() - startGcMillis;
+        long endHeap = usedHeapAfterGc(), growth = endHeap - startHeap;
+
+        System.out.printf("Played %d round(s) (%d warm-up), best score %d, average score %.1f%n",
+            rounds, WARMUP_ROUNDS, bestScore, (double) totalScore / rounds);
+        System.out.printf("Frames: %d in %.3f s, %.0f frames/s (%.1f us/frame)%n",
+            measuredFrames, seconds, measuredFrames / seconds, seconds * 1e6 / Math.max(1L, measuredFrames));
+        System.out.printf("GC: %d collection(s), %d ms (%.2f%% of the time)%n",
+            gcCount, gcMillis, gcMillis / (seconds * 10.0));
+        System.out.printf("Heap in use after GC: %.2f MB -> %.2f MB (%+.2f MB, max %.2f MB)%n",
+            startHeap / 1e6, endHeap / 1e6, growth / 1e6, MAX_HEAP_GROWTH / 1e6);
+
+        if (growth > MAX_HEAP_GROWTH) {
+            System.err.println("The heap in use grew by more than " + MAX_HEAP_GROWTH + " bytes, something leaks");
+            failures++;
+        }
+    }
+
+    /**
+     * @return The bytes of heap still in use after asking for a full GC (a few times, so finalizers and
+     * soft references settle).
+     */
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static long gcCount() {
+        long count = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, gc.getCollectionCount()); // -1 when unsupported
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0L, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        // The window never changes size
+    }
+
+    @Override
+    public void pause() {
+        GAME.pause();
+    }
+
+    @Override
+    public void resume() {
+        GAME.resume();
+    }
+
+    @Override
+    public void dispose() {
+        GAME.dispose();
+        if (failures > 0) { // A leak, a replay mismatch or a round that didn't end
+            System.exit(1);
+        }
+    }
+}
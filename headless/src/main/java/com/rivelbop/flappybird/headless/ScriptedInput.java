@@ -0,0 +1,28 @@
+package com.rivelbop.flappybird.headless;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+
+/**
+ * Reports a press of the space bar on the frames chosen by its runner (e.g. {@link HeadlessRunner}), and nothing else.
+ */
+public class ScriptedInput extends MockInput {
+    private boolean isPressed; // Whether space is "just pressed" during the current frame
+
+    /**
+     * @param isPressed Whether space is pressed during the next frame.
+     */
+    public void setPressed(boolean isPressed) {
+        this.isPressed = isPressed;
+    }
+
+    @Override
+    public boolean isKeyPressed(int key) {
+        return key == Input.Keys.SPACE && isPressed;
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return key == Input.Keys.SPACE && isPressed;
+    }
+}
@@ -0,0 +1,54 @@
+package com.rivelbop.flappybird.lwjgl3.jfr;
+
+import com.rivelbop.flappybird.profiling.FrameProfiler;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.Locale;
+
+/**
+ * Emits a JDK Flight Recorder event for every timed frame phase, so frame spikes can be lined up with GC pauses,
+ * JIT compilations, etc. in a recording (e.g. {@code -XX:StartFlightRecording}).
+ * Compiled for Java 11 (the first release with the JFR API) and only loaded when the JVM has it,
+ * see {@code Lwjgl3Launcher}.
+ */
+public class JfrPhaseListener implements FrameProfiler.Listener {
+    @Name("com.rivelbop.flappybird.FramePhase")
+    @Label("Frame Phase")
+    @Description("Time spent in a phase of a game frame")
+    @Category("FlappyBird")
+    @StackTrace(false) // Always emitted from the same place
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    private final String[] NAMES; // Phase names, created once instead of per event
+
+    public JfrPhaseListener() {
+        FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+        NAMES = new String[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            NAMES[i] = phases[i].name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Override
+    public void phaseTimed(FrameProfiler.Phase phase, long nanos) {
+        PhaseEvent event = new PhaseEvent(); // Usually scalar replaced by the JIT when not recording
+        if (event.isEnabled()) {
+            event.phase = NAMES[phase.ordinal()];
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+}
@@ -3,24 +3,67 @@ package com.rivelbop.flappybird.lwjgl3;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.FramePacer;
+import com.rivelbop.flappybird.profiling.FrameProfiler;
+import com.rivelbop.flappybird.sim.Replay;
 
-/** Launches the desktop (LWJGL3) application. */
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+/**
+ * Launches the desktop (LWJGL3) application.
+ * Pass {@code --replay <file>} to watch a recorded run instead of playing,
+ * or {@code --startup-benchmark} to exit once the game is interactive (see {@link StartupBenchmark}).
+ * Vsync paces the frames while playing, and the game slows them down on the menus (see {@link FramePacer}).
+ * Launch with {@code -Dflappybird.vsync=false} to let the game time every frame at the display's refresh rate instead
+ * (e.g. where vsync doesn't work).
+ */
 public class Lwjgl3Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        createApplication(args);
+    }
+
+    private static Lwjgl3Application createApplication(String[] args) throws IOException {
+        FlappyBird game = args.length == 2 && args[0].equals("--replay")
+            ? new FlappyBird(Replay.read(Paths.get(args[1])))
+            : new FlappyBird();
+        // The startup metrics include starting the JVM
+        game.setLaunchTime(System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L);
+        addJfrListener(game);
+        boolean isVsync = !"false".equals(System.getProperty("flappybird.vsync")); // On unless turned off
+        int refreshRate = Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate;
+        // With vsync, the swap already waits for the display, only the idle frames are slowed down
+        game.setFramePacer(new FramePacer(isVsync ? 0 : refreshRate, FramePacer.DEFAULT_IDLE_FRAME_RATE));
+        boolean isBenchmark = args.length == 1 && args[0].equals("--startup-benchmark");
+        return new Lwjgl3Application(isBenchmark ? new StartupBenchmark(game) : game,
+            getDefaultConfiguration(isVsync, refreshRate));
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new FlappyBird(), getDefaultConfiguration());
+    /**
+     * Emits the frame profiler's phase times as Flight Recorder events when the JVM supports them (Java 11+).
+     * The listener is compiled separately, so it is loaded by name.
+     */
+    private static void addJfrListener(FlappyBird game) {
+        try {
+            Class<?> listener = Class.forName("com.rivelbop.flappybird.lwjgl3.jfr.JfrPhaseListener");
+            game.getProfiler().setListener((FrameProfiler.Listener) listener.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Older JVM, or one without JFR: the profiler still works without events
+        }
     }
 
-    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
+    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration(boolean isVsync, int refreshRate) {
         Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
         configuration.setTitle("FlappyBird");
-        configuration.useVsync(true);
-        configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+        configuration.useVsync(isVsync);
+        // Without vsync, the FramePacer alone limits rendering. With it, the backend's limit only matters when the
+        // driver ignores vsync. The logic runs at a fixed tick rate either way (see FlappyBird.DEFAULT_TICK_RATE)
+        configuration.setForegroundFPS(isVsync ? refreshRate + 1 : 0);
         configuration.setWindowedMode(FlappyBird.WIDTH, FlappyBird.HEIGHT);
+        // Smaller OpenAL buffers for the AudioMixer's device: 6 * 256 frames is 35 ms instead of the default 104 ms
+        configuration.setAudioConfig(16, 256, 6);
         configuration.setWindowIcon("libgdx128.png", "libgdx64.png", "libgdx32.png", "libgdx16.png");
         return configuration;
     }
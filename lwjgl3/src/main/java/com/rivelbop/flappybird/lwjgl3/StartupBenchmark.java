@@ -0,0 +1,83 @@
+package com.rivelbop.flappybird.lwjgl3;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.profiling.StartupMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Runs the game until its first interactive frame, then prints its startup times and peak resident memory
+ * on one line and exits, so builds can be compared (see the {@code compareStartup} and {@code compareCdsStartup}
+ * tasks).
+ * <p>
+ * <u>Output:</u> {@code startup first_frame_ms=<ms> interactive_ms=<ms> peak_rss_kb=<kB, -1 if unknown>}
+ */
+public class StartupBenchmark implements ApplicationListener {
+    private final FlappyBird GAME;
+    private boolean isReported;
+
+    /**
+     * @param game The game to measure.
+     */
+    public StartupBenchmark(FlappyBird game) {
+        GAME = game;
+    }
+
+    @Override
+    public void create() {
+        GAME.create();
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        GAME.resize(width, height);
+    }
+
+    @Override
+    public void render() {
+        GAME.render();
+        StartupMetrics startup = GAME.getStartupMetrics();
+        if (!isReported && startup.isComplete()) {
+            isReported = true;
+            System.out.printf("startup first_frame_ms=%.1f interactive_ms=%.1f peak_rss_kb=%d%n",
+                startup.getTimeToFirstFrame() / 1e6, startup.getTimeToInteractive() / 1e6, peakResidentKb());
+            Gdx.app.exit();
+        }
+    }
+
+    /**
+     * @return The most memory the process ever had resident in kilobytes, or -1 where it can't be read (Linux only).
+     */
+    private static long peakResidentKb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmHWM:")) { // "VmHWM:    123456 kB"
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1L;
+    }
+
+    @Override
+    public void pause() {
+        GAME.pause();
+    }
+
+    @Override
+    public void resume() {
+        GAME.resume();
+    }
+
+    @Override
+    public void dispose() {
+        GAME.dispose();
+    }
+}
@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.InputStreamReader;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.lwjgl.system.JNI.invokePPP;
 import static org.lwjgl.system.JNI.invokePPZ;
@@ -44,6 +45,8 @@ import static org.lwjgl.system.macosx.ObjCRuntime.sel_getUid;
 public class StartupHelper {
 
     private static final String JVM_RESTARTED_ARG = "jvmIsRestarted";
+    // The class data sharing archive dumped next to the installed game JAR by the cdsArchive task
+    private static final String CDS_ARCHIVE = "FlappyBird.jsa";
 
     private StartupHelper() {
         throw new UnsupportedOperationException();
@@ -141,6 +144,7 @@ public class StartupHelper {
         jvmArgs.add("-XstartOnFirstThread");
         jvmArgs.add("-D" + JVM_RESTARTED_ARG + "=true");
         jvmArgs.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        addCdsArchive(jvmArgs);
         jvmArgs.add("-cp");
         jvmArgs.add(System.getProperty("java.class.path"));
         String mainClass = System.getenv("JAVA_MAIN_CLASS_" + pid);
@@ -180,6 +184,28 @@ public class StartupHelper {
         return true;
     }
 
+    /**
+     * Makes the new JVM map the class data sharing archive next to the game JAR
+     * when this one wasn't started with an archive (e.g. with {@code java -jar}),
+     * so it doesn't parse and verify every class again. JVMs that can't use the
+     * archive start without it.
+     *
+     * @param jvmArgs the arguments of the new JVM, the archive is added to them
+     */
+    private static void addCdsArchive(List<String> jvmArgs) {
+        for (String arg : jvmArgs) {
+            if (arg.startsWith("-XX:SharedArchiveFile=")) return; // Already passed on
+        }
+        String classPath = System.getProperty("java.class.path");
+        // The archive only covers the JAR, any other class path would make the JVM ignore it
+        if (!classPath.endsWith(".jar") || classPath.contains(File.pathSeparator)) return;
+        File archive = new File(new File(classPath).getAbsoluteFile().getParentFile(), CDS_ARCHIVE);
+        if (archive.isFile()) {
+            jvmArgs.add("-XX:SharedArchiveFile=" + archive.getPath());
+            jvmArgs.add("-Xshare:auto");
+        }
+    }
+
     /**
      * Starts a new JVM if the application was started on macOS without the
      * {@code -XstartOnFirstThread} argument. Returns whether a new JVM was
@@ -0,0 +1,205 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.headless.FixedDeltaGraphics;
+import com.rivelbop.flappybird.headless.HeadlessLauncher;
+import com.rivelbop.flappybird.headless.ScriptedInput;
+import com.rivelbop.flappybird.headless.StubGL20;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.GhostRecorder;
+import com.rivelbop.flappybird.sim.World;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Fails the build if a steady-state game frame allocates.
+ * Plays {@link FlappyBird} headlessly (see HeadlessLauncher), every frame rendered through a GL stub, and measures
+ * the bytes allocated by the render thread with the {@code ThreadMXBean} allocation counters, in two phases:
+ * <ul>
+ * <li>a simple bot presses space like a player would (steps, events, sounds, score labels, bird, pipes, ground,
+ * ghosts, batch, restarts)</li>
+ * <li>the autopilot plays by itself (snapshots published to the planner thread and plans followed every step)</li>
+ * </ul>
+ * Every frame is measured, the ones a run ends on included (the saving thread copies the recorded run).
+ * A small ghost file is baked into the temporary home first, so the ghosts are streamed and drawn as well.
+ * Must run with the assets folder as the working directory. Run by the {@code checkAllocations} Gradle task.
+ */
+public class AllocationCheck implements ApplicationListener {
+    private static final int
+        WARMUP_FRAMES = 20_000, // Lets the JIT compile the frame before measuring (loading frames not included)
+        MEASURED_FRAMES = 5_000;
+    private static final int
+        GHOSTS = 16, // Baked into the temporary home
+        GHOST_CHUNK_TICKS = 60; // Small chunks, so the measured frames hand many of them over
+    private static final float DELTA = 1f / 60f; // The frame time reported to the game
+
+    /**
+     * Who plays the game.
+     */
+    private enum Phase {
+        PLAYER, // The bot presses space
+        AUTOPILOT // Nobody presses, the attract mode plays
+    }
+
+    private final com.sun.management.ThreadMXBean THREADS;
+    private final ScriptedInput INPUT = new ScriptedInput();
+    private final GapBot BOT = new GapBot();
+    private long thread; // The render thread
+    private long overhead; // The bytes allocated by reading the counter twice
+
+    private Phase phase = Phase.PLAYER;
+    private FlappyBird game;
+    private int frames, rounds;
+    private long allocated;
+    private boolean isFailed;
+
+    private AllocationCheck(com.sun.management.ThreadMXBean threads) {
+        THREADS = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation counters aren't supported by this JVM, skipping the check");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        HeadlessLauncher.useTemporaryHome(); // The runs recorded by the bot aren't the player's
+        bakeGhosts();
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = 0; // Uncapped, the game only sees the fixed frame time
+        new HeadlessApplication(new AllocationCheck(threads), configuration);
+    }
+
+    /**
+     * Writes the ghosts of a few bots where the game looks for them (in the temporary home directory).
+     * Bounding boxes are enough, the ghosts are only drawn.
+     */
+    private static void bakeGhosts() throws IOException {
+        GhostRecorder recorder = new GhostRecorder(FlappyBird.DEFAULT_TICK_RATE);
+        for (int i = 0; i < GHOSTS; i++) {
+            // Each bot flaps at another height (like the bots of GhostBaker), at most for three minutes
+            recorder.add(i, new GapBot(45f + i * 2f), 180 * FlappyBird.DEFAULT_TICK_RATE, null);
+        }
+        Path file = Paths.get(System.getProperty("user.home"), ".flappybird", "ghosts.fbg");
+        Files.createDirectories(file.getParent());
+        recorder.write(file, GHOST_CHUNK_TICKS);
+    }
+
+    @Override
+    public void create() {
+        // Replace the backend's mocks (which have no GL at all) before the game loads anything
+        GL20 gl = StubGL20.create();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.graphics = new FixedDeltaGraphics(DELTA, FlappyBird.WIDTH, FlappyBird.HEIGHT);
+        Gdx.input = INPUT;
+
+        thread = Thread.currentThread().getId();
+        // Reading the counter may allocate by itself, measure that first so it can be subtracted
+        overhead = THREADS.getThreadAllocatedBytes(thread);
+        overhead = THREADS.getThreadAllocatedBytes(thread) - overhead;
+
+        startGame();
+    }
+
+    /**
+     * Creates the game of the current phase (the autopilot is only enabled at launch).
+     */
+    private void startGame() {
+        System.setProperty("flappybird.autopilot", String.valueOf(phase == Phase.AUTOPILOT));
+        game = new FlappyBird();
+        game.create();
+        game.resize(FlappyBird.WIDTH, FlappyBird.HEIGHT);
+        frames = rounds = 0;
+        allocated = 0L;
+    }
+
+    @Override
+    public void render() {
+        World world = game.getWorld();
+        if (world == null) { // Still loading
+            INPUT.setPressed(false);
+            game.render();
+            return;
+        }
+
+        boolean wasAlive = !world.isDead();
+        // Restart like the player would, the autopilot restarts by itself (a press would take the game from it)
+        INPUT.setPressed(phase == Phase.PLAYER && (world.isDead() || BOT.shouldFlap(world)));
+        boolean isMeasured = frames >= WARMUP_FRAMES;
+        long before = isMeasured ? THREADS.getThreadAllocatedBytes(thread) : 0L;
+        game.render();
+        long bytes = isMeasured ? THREADS.getThreadAllocatedBytes(thread) - before - overhead : 0L;
+
+        if (wasAlive && world.isDead()) {
+            rounds++;
+        }
+        allocated += bytes;
+        if (++frames == WARMUP_FRAMES + MEASURED_FRAMES) {
+            endPhase();
+        }
+    }
+
+    /**
+     * Reports the frames of the phase, then starts the next one or exits after the last.
+     */
+    private void endPhase() {
+        String player = phase.name().toLowerCase(Locale.ROOT);
+        System.out.println("Played by the " + player + ": allocated " + allocated + " bytes over " + MEASURED_FRAMES
+            + " frames (" + rounds + " rounds)");
+        if (allocated > 0L) {
+            System.err.println("A frame played by the " + player + " allocates " + (double) allocated / MEASURED_FRAMES
+                + " bytes on average");
+            isFailed = true;
+        }
+        if (rounds == 0) { // E.g. the autopilot never started the game
+            System.err.println("No round was played by the " + player);
+            isFailed = true;
+        }
+
+        game.dispose();
+        if (phase == Phase.PLAYER) {
+            phase = Phase.AUTOPILOT;
+            startGame();
+        } else {
+            game = null;
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        // The window never changes size
+    }
+
+    @Override
+    public void pause() {
+    }
+
+    @Override
+    public void resume() {
+    }
+
+    @Override
+    public void dispose() {
+        if (game != null) { // Closed before the last phase ended
+            game.dispose();
+        }
+        if (isFailed) {
+            System.exit(1);
+        }
+    }
+}
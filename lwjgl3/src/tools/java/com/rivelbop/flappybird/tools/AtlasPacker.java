@@ -0,0 +1,45 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.tools.texturepacker.TexturePacker;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Packs the game's images into one texture atlas at build time, so a frame is drawn from a single texture
+ * and the {@link com.badlogic.gdx.graphics.g2d.SpriteBatch} never flushes to switch textures.
+ * Each region is named after its image without the extension (see {@code AssetCache.region(String)} in core).
+ * Run by the {@code packAtlas} Gradle task.
+ * <p>
+ * <u>Arguments:</u> {@code <assets dir> <atlas name> <image name>...}
+ */
+public class AtlasPacker {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: AtlasPacker <assets dir> <atlas name> <image name>...");
+            System.exit(1);
+        }
+
+        TexturePacker.Settings settings = new TexturePacker.Settings();
+        settings.maxWidth = settings.maxHeight = 2048; // Everything fits in one page (font page included)
+        settings.paddingX = settings.paddingY = 2;
+        settings.duplicatePadding = true; // Scaled sprites don't sample their neighbours' pixels
+        settings.useIndexes = false; // Keeps "bird_0" as it is instead of turning it into "bird" index 0
+        // Whitespace is kept, the collision masks are computed from the original images
+
+        File assets = new File(args[0]);
+        TexturePacker packer = new TexturePacker(settings);
+        for (int i = 2; i < args.length; i++) {
+            File file = new File(assets, args[i] + ".png");
+            BufferedImage image = ImageIO.read(file);
+            if (image == null) {
+                throw new IOException("Couldn't read " + file);
+            }
+            packer.addImage(image, args[i]);
+        }
+        packer.pack(assets, args[1]);
+        System.out.println("Packed " + (args.length - 2) + " image(s) into " + new File(assets, args[1] + ".atlas"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.rivelbop.flappybird.tools;
+
+import com.rivelbop.flappybird.headless.HeadlessLauncher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The session recorded by the {@code cdsClassList} Gradle task (with {@code -XX:DumpLoadedClassList}):
+ * loads the classes of the desktop launcher and backend, which a session without a display can't start,
+ * then plays a few rounds headlessly (see HeadlessLauncher) so the game's own classes are loaded.
+ * The classes are only loaded, never initialized, so no native library is needed.
+ * <p>
+ * <u>Arguments:</u> those of HeadlessLauncher
+ */
+public final class ClassListSession {
+    // The packages the desktop launcher uses up to its first frame (LWJGL has many more bindings than the game needs)
+    private static final String[] DESKTOP_PACKAGES = {
+        "com/rivelbop/flappybird/lwjgl3/",
+        "com/badlogic/gdx/backends/lwjgl3/",
+        "org/lwjgl/system/",
+        "org/lwjgl/glfw/",
+        "org/lwjgl/openal/",
+        "org/lwjgl/opengl/GL" // The core profiles (GL11 to GL46) and GLCapabilities, not the extensions
+    };
+
+    private ClassListSession() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int loaded = 0;
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            for (String name : classNames(new File(entry))) {
+                if (isDesktopClass(name) && load(name.substring(0, name.length() - 6).replace('/', '.'))) {
+                    loaded++;
+                }
+            }
+        }
+        System.out.println("Loaded " + loaded + " desktop class(es), playing a headless session");
+
+        HeadlessLauncher.main(args);
+    }
+
+    private static boolean isDesktopClass(String name) {
+        if (name.startsWith("org/lwjgl/") && name.indexOf('/', 10) < 0) { // The root package (e.g. BufferUtils)
+            return true;
+        }
+        for (String prefix : DESKTOP_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean load(String className) {
+        try {
+            Class.forName(className, false, ClassListSession.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false; // Needs a class that isn't there on this platform
+        }
+    }
+
+    /**
+     * @param entry A class path entry.
+     * @return The paths of the class files in it (e.g. {@code org/lwjgl/Version.class}).
+     */
+    private static List<String> classNames(File entry) throws IOException {
+        if (entry.isDirectory()) {
+            Path root = entry.toPath();
+            try (Stream<Path> files = Files.walk(root)) {
+                return files.map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+                    .filter(ClassListSession::isClassFile)
+                    .collect(Collectors.toList());
+            }
+        }
+        if (!entry.getName().endsWith(".jar") || !entry.isFile()) {
+            return Collections.emptyList();
+        }
+        try (JarFile jar = new JarFile(entry)) {
+            List<String> names = new ArrayList<>();
+            for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                String name = entries.nextElement().getName();
+                if (isClassFile(name)) {
+                    names.add(name);
+                }
+            }
+            return names;
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        // Multi-release versions and module descriptors are found through the base class
+        return name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class");
+    }
+}
@@ -0,0 +1,91 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
+import com.rivelbop.flappybird.assets.FontLoader;
+
+/**
+ * Pre-renders a TrueType font into BMFont files (a ".fnt" file plus its page images) at build time,
+ * so the game can load it as a regular {@link com.badlogic.gdx.graphics.g2d.BitmapFont}.
+ * Run by the {@code bakeFonts} Gradle task.
+ * <p>
+ * <u>Arguments:</u> {@code <ttf file> <output dir> <characters> <size>...}
+ */
+public class FontBaker extends ApplicationAdapter {
+    private static final int PAGE_SIZE = 512; // Width and height of each page image
+
+    private final FileHandle TTF, OUTPUT_DIR;
+    private final String CHARACTERS;
+    private final int[] SIZES;
+
+    private FontBaker(FileHandle ttf, FileHandle outputDir, String characters, int[] sizes) {
+        TTF = ttf;
+        OUTPUT_DIR = outputDir;
+        CHARACTERS = characters;
+        SIZES = sizes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: FontBaker <ttf file> <output dir> <characters> <size>...");
+            System.exit(1);
+        }
+
+        int[] sizes = new int[args.length - 3];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Integer.parseInt(args[i + 3]);
+        }
+
+        // The headless backend loads the natives required by Pixmap and FreeType (no window or GL needed)
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1; // Only create() is needed
+        new HeadlessApplication(new FontBaker(new FileHandle(args[0]), new FileHandle(args[1]), args[2], sizes),
+            configuration);
+    }
+
+    @Override
+    public void create() {
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(TTF);
+        try {
+            for (int size : SIZES) {
+                bake(generator, size);
+            }
+        } finally {
+            generator.dispose();
+            Gdx.app.exit();
+        }
+    }
+
+    private void bake(FreeTypeFontGenerator generator, int size) {
+        PixmapPacker packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 2, false);
+
+        FreeTypeFontGenerator.FreeTypeFontParameter parameter = new FreeTypeFontGenerator.FreeTypeFontParameter();
+        parameter.size = size;
+        parameter.characters = CHARACTERS;
+        parameter.packer = packer; // Glyphs are packed into pixmaps instead of textures (no GL context)
+        FreeTypeFontGenerator.FreeTypeBitmapFontData data = generator.generateData(parameter);
+
+        // Must produce the name FontLoader looks for
+        FileHandle fnt = OUTPUT_DIR.child(FontLoader.bakedPath(TTF.name(), size));
+        String pageName = fnt.nameWithoutExtension();
+
+        BitmapFontWriter.FontInfo info = new BitmapFontWriter.FontInfo();
+        info.face = TTF.nameWithoutExtension();
+        info.size = size;
+        info.padding = new BitmapFontWriter.Padding(1, 1, 1, 1);
+
+        String[] pages = BitmapFontWriter.writePixmaps(packer.getPages(), OUTPUT_DIR, pageName);
+        BitmapFontWriter.writeFont(data, pages, fnt, info, PAGE_SIZE, PAGE_SIZE);
+        Gdx.app.log("FontBaker", "Baked " + fnt.path() + " (" + pages.length + " page(s))");
+
+        packer.dispose();
+        data.dispose();
+    }
+}
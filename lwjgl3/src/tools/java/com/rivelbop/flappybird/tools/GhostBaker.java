@@ -0,0 +1,142 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.assets.MaskLoader;
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.GhostRecorder;
+import com.rivelbop.flappybird.sim.Replay;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates recorded runs (and optionally runs played by bots, e.g. to race thousands of ghosts) and writes their
+ * trajectories into the ghost file the game streams its ghost birds from (see GhostStream).
+ * Replays played at another tick rate than the game's default are skipped.
+ * Run by the {@code bakeGhosts} Gradle task, with the assets folder as the working directory
+ * (the collision masks are built from the images).
+ * <p>
+ * <u>Arguments:</u> {@code <ghost file> [--bots <count>] [<replay file or directory>...]}
+ */
+public class GhostBaker extends ApplicationAdapter {
+    private static final int
+        CHUNK_TICKS = 240, // Two seconds of every ghost per read
+        BOT_SECONDS = 120; // The longest run of a bot
+
+    private final Path OUTPUT;
+    private final int BOTS;
+    private final List<String> PATHS;
+    private boolean isFailed;
+
+    private GhostBaker(Path output, int bots, List<String> paths) {
+        OUTPUT = output;
+        BOTS = bots;
+        PATHS = paths;
+    }
+
+    public static void main(String[] args) {
+        List<String> paths = new ArrayList<>();
+        int bots = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--bots") && i + 1 < args.length) {
+                bots = Integer.parseInt(args[++i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (args.length == 0 || bots < 0) {
+            System.err.println("Usage: GhostBaker <ghost file> [--bots <count>] [<replay file or directory>...]");
+            System.exit(1);
+        }
+
+        // The headless backend loads the natives required by Pixmap (no window or GL needed)
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1; // Only create() is needed
+        new HeadlessApplication(new GhostBaker(Paths.get(args[0]), bots, paths), configuration);
+    }
+
+    @Override
+    public void create() {
+        try {
+            CollisionMasks masks = MaskLoader.load();
+            GhostRecorder recorder = new GhostRecorder(FlappyBird.DEFAULT_TICK_RATE);
+
+            List<Path> files = new ArrayList<>();
+            for (String path : PATHS) {
+                collect(Paths.get(path), files);
+            }
+            int replays = 0;
+            for (Path file : files) {
+                try {
+                    Replay replay = Replay.read(file);
+                    if (replay.getTickRate() != FlappyBird.DEFAULT_TICK_RATE) {
+                        System.err.println("Skipping " + file + ", played at " + replay.getTickRate()
+                            + " ticks per second");
+                        continue;
+                    }
+                    recorder.add(replay, masks);
+                    replays++;
+                } catch (IOException e) {
+                    System.err.println("Couldn't read " + file + ": " + e.getMessage());
+                }
+            }
+
+            Random random = new Random();
+            for (int i = 0; i < BOTS; i++) {
+                // Each bot flaps at a slightly different height, so they don't all fly the same line
+                GapBot bot = new GapBot(45f + random.nextFloat() * 30f);
+                recorder.add(random.nextLong(), bot, BOT_SECONDS * FlappyBird.DEFAULT_TICK_RATE, masks);
+            }
+
+            Path parent = OUTPUT.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            recorder.write(OUTPUT, CHUNK_TICKS);
+            System.out.printf("Baked %d ghost(s) (%d replay(s), %d bot(s)) into %s (%d kB)%n",
+                recorder.size(), replays, BOTS, OUTPUT, Files.size(OUTPUT) / 1024L);
+        } catch (IOException e) {
+            System.err.println("Couldn't bake the ghosts: " + e.getMessage());
+            isFailed = true;
+        } finally {
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (isFailed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Adds a replay file, or every replay file of a directory (nothing if it doesn't exist, e.g. no run was played).
+     */
+    private static void collect(Path path, List<Path> files) throws IOException {
+        if (!Files.exists(path)) {
+            System.err.println("Skipping " + path + ", it doesn't exist");
+            return;
+        }
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.fbr")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.rivelbop.flappybird.assets.MaskLoader;
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.Replay;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fast-forwards recorded runs without rendering and checks that every one of them reproduces its recorded score.
+ * Exits with 1 if any replay doesn't match (or can't be read), so suspicious scores can be audited in bulk.
+ * Run by the {@code verifyReplays} Gradle task, with the assets folder as the working directory
+ * (the collision masks are built from the images).
+ * <p>
+ * <u>Arguments:</u> {@code <replay file or directory>...}
+ */
+public class ReplayVerifier extends ApplicationAdapter {
+    private final String[] PATHS;
+    private int failures;
+
+    private ReplayVerifier(String[] paths) {
+        PATHS = paths;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayVerifier <replay file or directory>...");
+            System.exit(1);
+        }
+
+        // The headless backend loads the natives required by Pixmap (no window or GL needed)
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1; // Only create() is needed
+        new HeadlessApplication(new ReplayVerifier(args), configuration);
+    }
+
+    @Override
+    public void create() {
+        try {
+            List<Path> files = new ArrayList<>();
+            for (String path : PATHS) {
+                collect(Paths.get(path), files);
+            }
+
+            // Read everything first so only the simulation is timed
+            List<Replay> replays = new ArrayList<>(files.size());
+            List<Path> replayFiles = new ArrayList<>(files.size());
+            for (Path file : files) {
+                try {
+                    replays.add(Replay.read(file));
+                    replayFiles.add(file);
+                } catch (IOException e) {
+                    System.err.println("Couldn't read " + file + ": " + e.getMessage());
+                    failures++;
+                }
+            }
+
+            CollisionMasks masks = MaskLoader.load();
+            long ticks = 0L, start = System.nanoTime();
+            for (int i = 0; i < replays.size(); i++) {
+                Replay replay = replays.get(i);
+                if (!replay.verify(masks)) {
+                    System.err.println(replayFiles.get(i) + " doesn't reproduce its score of " + replay.getScore());
+                    failures++;
+                }
+                ticks += replay.getTickCount();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("Verified %d replay(s) (%d ticks) in %.3f s: %.0f replays/s, %.0f ticks/s, %d failure(s)%n",
+                replays.size(), ticks, seconds, replays.size() / seconds, ticks / seconds, failures);
+        } catch (IOException e) {
+            System.err.println("Couldn't list the replays: " + e.getMessage());
+            failures++;
+        } finally {
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Adds a replay file, or every replay file of a directory.
+     */
+    private static void collect(Path path, List<Path> files) throws IOException {
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.fbr")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.backends.lwjgl3.audio.OggInputStream;
+import com.rivelbop.flappybird.audio.AudioMixer;
+import com.rivelbop.flappybird.audio.PcmClip;
+import com.rivelbop.flappybird.audio.SoundEffect;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Decodes the Ogg Vorbis sound effects into {@link PcmClip}s at build time, so the {@link AudioMixer}
+ * only has to copy samples while the game runs. Mono sounds are duplicated into both channels.
+ * Run by the {@code bakeSounds} Gradle task.
+ * <p>
+ * <u>Arguments:</u> {@code <assets dir>}
+ */
+public class SoundBaker {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SoundBaker <assets dir>");
+            System.exit(1);
+        }
+
+        File assets = new File(args[0]);
+        for (SoundEffect effect : SoundEffect.values()) {
+            PcmClip clip;
+            try (InputStream input = new BufferedInputStream(new FileInputStream(new File(assets, effect.getPath())))) {
+                clip = decode(input, effect.getPath());
+            }
+            File output = new File(assets, effect.getPcmPath());
+            try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(output))) {
+                clip.write(stream);
+            }
+            System.out.println("Baked " + output + " (" + clip.getFrames() + " frames)");
+        }
+    }
+
+    private static PcmClip decode(InputStream input, String name) throws IOException {
+        OggInputStream ogg = new OggInputStream(input);
+        if (ogg.getSampleRate() != AudioMixer.SAMPLE_RATE) {
+            throw new IOException(name + " must be resampled to " + AudioMixer.SAMPLE_RATE + " Hz");
+        }
+        int channels = ogg.getChannels();
+        if (channels != 1 && channels != 2) {
+            throw new IOException(name + " has " + channels + " channels, only mono and stereo are supported");
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read; (read = ogg.read(buffer, 0, buffer.length)) > 0; ) {
+            bytes.write(buffer, 0, read);
+        }
+        ogg.close();
+
+        // The decoder writes 16-bit samples in the platform's byte order
+        ShortBuffer decoded = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.nativeOrder()).asShortBuffer();
+        int frames = decoded.remaining() / channels;
+        short[] samples = new short[frames * 2];
+        for (int frame = 0; frame < frames; frame++) {
+            short left = decoded.get();
+            samples[frame * 2] = left;
+            samples[frame * 2 + 1] = channels == 2 ? decoded.get() : left;
+        }
+        return new PcmClip(samples);
+    }
+}
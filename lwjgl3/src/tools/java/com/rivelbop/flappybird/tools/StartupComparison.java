@@ -0,0 +1,192 @@
+package com.rivelbop.flappybird.tools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches two builds of the game alternately with {@code --startup-benchmark} (see StartupBenchmark in lwjgl3)
+ * and prints the median startup times and peak resident memory of both, e.g. the JVM build against the native image
+ * or against the JVM with a class data sharing archive.
+ * Each build is launched once before measuring, so its files are in the page cache like on a kiosk that already
+ * started it once. Everything the game saves goes to a temporary home directory (passed as -Duser.home through
+ * {@code JDK_JAVA_OPTIONS}, so a command may also be a start script; {@code {home}} in a command is replaced by it,
+ * e.g. for a native image, which doesn't read that variable).
+ * Exits with 1 if a launch fails, or if the JVM logged (with {@code -Xlog:class+path}) that the class path doesn't
+ * match the one its class data sharing archive was dumped with, which would make it start without the archive.
+ * Run by the {@code compareStartup} and {@code compareCdsStartup} Gradle tasks (needs a display).
+ * <p>
+ * <u>Arguments:</u> {@code [--target-ms <ms>] <runs> <name> [<variable>=<value>]... <command>... -- <name> ...},
+ * where the variables are added to the environment of the command.
+ */
+public final class StartupComparison {
+    private static final long TIMEOUT_SECONDS = 60L;
+
+    private StartupComparison() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        double targetMs = -1.0; // Time to interactive aimed for by the second build, none by default
+        if (arguments.size() >= 2 && arguments.get(0).equals("--target-ms")) {
+            targetMs = Double.parseDouble(arguments.get(1));
+            arguments.subList(0, 2).clear();
+        }
+        int separator = arguments.indexOf("--");
+        if (arguments.size() < 5 || separator < 3 || separator > arguments.size() - 3) {
+            System.err.println("Usage: StartupComparison [--target-ms <ms>] <runs> <name> [<variable>=<value>]... "
+                + "<command>... -- <name> [<variable>=<value>]... <command>...");
+            System.exit(1);
+        }
+        int runs = Integer.parseInt(arguments.get(0));
+        if (runs < 1) {
+            throw new IllegalArgumentException("At least one run is needed");
+        }
+
+        Path home = Files.createTempDirectory("flappybird-startup");
+        String firstName = arguments.get(1), secondName = arguments.get(separator + 1);
+        List<String> first = benchmarkCommand(arguments.subList(2, separator), home);
+        List<String> second = benchmarkCommand(arguments.subList(separator + 2, arguments.size()), home);
+
+        launch(first);
+        launch(second);
+        double[][] firstResults = new double[3][runs], secondResults = new double[3][runs];
+        for (int i = 0; i < runs; i++) {
+            store(launch(first), firstResults, i);
+            store(launch(second), secondResults, i);
+        }
+
+        double[] firstMedians = medians(firstResults), secondMedians = medians(secondResults);
+        int width = Math.max(firstName.length(), secondName.length()) + 2;
+        System.out.printf("Median of %d launch(es)%n", runs);
+        System.out.printf("%-" + width + "s first frame   interactive   peak RSS%n", "");
+        printRow(firstName, width, firstMedians);
+        printRow(secondName, width, secondMedians);
+        String memory = firstMedians[2] > 0.0
+            ? String.format(" with %.0f%% of the memory", 100.0 * secondMedians[2] / firstMedians[2])
+            : "";
+        System.out.printf("%s is interactive %.2fx sooner than %s%s%n",
+            secondName, firstMedians[1] / secondMedians[1], firstName, memory);
+        if (targetMs >= 0.0) {
+            System.out.printf("%s time to interactive is %s the %.0f ms target%n",
+                secondName, secondMedians[1] <= targetMs ? "within" : "above", targetMs);
+        }
+    }
+
+    /**
+     * @param command The environment variables, the executable and its options.
+     * @param home    The home directory the game saves to.
+     * @return The command with the home directory in its environment (and instead of {@code {home}}) and the
+     * benchmark argument at the end.
+     */
+    private static List<String> benchmarkCommand(List<String> command, Path home) {
+        List<String> benchmark = new ArrayList<>();
+        benchmark.add("JDK_JAVA_OPTIONS=\"-Duser.home=" + home + '"'); // Read by the java launcher (JDK 9 or later)
+        for (String token : command) {
+            benchmark.add(token.replace("{home}", home.toString()));
+        }
+        benchmark.add("--startup-benchmark");
+        return benchmark;
+    }
+
+    private static void printRow(String name, int width, double[] medians) {
+        System.out.printf("%-" + width + "s %8.1f ms   %8.1f ms   %s%n", name, medians[0], medians[1],
+            megabytes(medians[2]));
+    }
+
+    /**
+     * Runs the game until it is interactive.
+     *
+     * @param command The environment variables and the command launching the game.
+     * @return The first frame (ms), interactive (ms) and peak resident memory (kB) times printed by the game.
+     */
+    private static double[] launch(List<String> command) throws IOException, InterruptedException {
+        Map<String, String> environment = new HashMap<>();
+        int start = 0;
+        for (String token; start < command.size() && isVariable(token = command.get(start)); start++) {
+            environment.put(token.substring(0, token.indexOf('=')), token.substring(token.indexOf('=') + 1));
+        }
+
+        File output = File.createTempFile("flappybird-startup", ".txt");
+        try {
+            ProcessBuilder builder = new ProcessBuilder(command.subList(start, command.size()))
+                .redirectErrorStream(true)
+                .redirectOutput(output);
+            builder.environment().putAll(environment);
+            Process process = builder.start();
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                fail(command, "didn't start within " + TIMEOUT_SECONDS + " s", output);
+            }
+
+            List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.contains("[class,path]") && line.contains("mismatch")) { // e.g. "APP classpath mismatch"
+                    fail(command, "doesn't use its class data sharing archive", output);
+                }
+            }
+            for (String line : lines) {
+                if (line.startsWith("startup ")) { // "startup first_frame_ms=... interactive_ms=... peak_rss_kb=..."
+                    String[] fields = line.substring(8).split(" ");
+                    double[] result = new double[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        result[i] = Double.parseDouble(fields[i].substring(fields[i].indexOf('=') + 1));
+                    }
+                    return result;
+                }
+            }
+            fail(command, "exited with " + process.exitValue() + " without reporting its startup", output);
+            return null; // Unreachable
+        } finally {
+            if (!output.delete()) {
+                output.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * @return Whether a token of a command is an environment variable assignment (e.g. {@code JAVA_OPTS=-Xshare:on}).
+     */
+    private static boolean isVariable(String token) {
+        int equals = token.indexOf('=');
+        return equals > 0 && token.substring(0, equals).matches("[A-Za-z_][A-Za-z0-9_]*");
+    }
+
+    private static void fail(List<String> command, String reason, File output) throws IOException {
+        System.err.println(String.join(" ", command) + " " + reason + ":");
+        for (String line : Files.readAllLines(output.toPath(), StandardCharsets.UTF_8)) {
+            System.err.println("  " + line);
+        }
+        System.exit(1);
+    }
+
+    private static void store(double[] result, double[][] results, int run) {
+        for (int i = 0; i < results.length; i++) {
+            results[i][run] = result[i];
+        }
+    }
+
+    private static double[] medians(double[][] results) {
+        double[] medians = new double[results.length];
+        for (int i = 0; i < results.length; i++) {
+            double[] sorted = results[i].clone();
+            Arrays.sort(sorted);
+            int middle = sorted.length / 2;
+            medians[i] = sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+        }
+        return medians;
+    }
+
+    private static String megabytes(double kilobytes) {
+        return kilobytes < 0.0 ? "unknown" : String.format("%.1f MB", kilobytes / 1024.0);
+    }
+}
@@ -0,0 +1,399 @@
+package com.rivelbop.flappybird.tools;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.rivelbop.flappybird.FlappyBird;
+import com.rivelbop.flappybird.assets.MaskLoader;
+import com.rivelbop.flappybird.sim.CollisionMasks;
+import com.rivelbop.flappybird.sim.Difficulty;
+import com.rivelbop.flappybird.sim.GameConfig;
+import com.rivelbop.flappybird.sim.GapBot;
+import com.rivelbop.flappybird.sim.World;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plays every combination of a grid of physics (see {@link GameConfig}), seeds and bot policies as a headless game,
+ * and prints the scores of every parameter set and policy: mean, percentiles and what the birds died of.
+ * Used to tune the physics constants.
+ * <p>
+ * The games are split into tasks on a fork-join pool (work stealing keeps every core busy however long the games
+ * last). Every game only touches its own world and result slot, and the masks are read-only, so the throughput
+ * scales with the cores. Each parameter set and policy flies the same seeds, and every game only depends on its seed,
+ * so the results are identical whatever the amount of threads.
+ * Run by the {@code tournament} Gradle task, with the assets folder as the working directory
+ * (the collision masks are built from the images).
+ * <p>
+ * <u>Arguments:</u> every option takes a comma-separated list of values, and every combination is played.
+ * <ul>
+ *     <li>{@code --gravity}, {@code --flap-force}, {@code --rot-accel}, {@code --pipe-speed} (the ground scrolls
+ *     along), {@code --gap} and {@code --spacing}: the physics, the game's values by default.</li>
+ *     <li>{@code --bots}: the policies, {@code gap:<offset>} (a {@link GapBot}) or {@code random:<flaps per second>}.
+ *     </li>
+ * </ul>
+ * And {@code [--seeds <count>] [--seed <first seed>] [--seconds <longest game>] [--threads <count>]
+ * [--output <csv file>]}.
+ */
+public class Tournament extends ApplicationAdapter {
+    private static final int GAMES_PER_TASK = 4; // Small enough to balance games of very different lengths
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final byte SURVIVED = 0, GROUND = 1, PIPE = 2; // Outcomes of a game
+
+    /**
+     * Decides the flaps of a bot. Shared by every game, so it must not keep any state.
+     */
+    private interface Policy {
+        /**
+         * @param world  The world being played.
+         * @param random The random numbers of the game (seeded from the game's seed).
+         * @return Whether the bird should flap this tick.
+         */
+        boolean shouldFlap(World world, Random random);
+    }
+
+    private final Grid GRID;
+    private boolean isFailed;
+
+    private Tournament(Grid grid) {
+        GRID = grid;
+    }
+
+    public static void main(String[] args) {
+        Grid grid;
+        try {
+            grid = new Grid(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Tournament [--gravity <values>] [--flap-force <values>] [--rot-accel <values>]"
+                + " [--pipe-speed <values>] [--gap <values>] [--spacing <values>] [--bots <gap:offset|random:rate>,...]"
+                + " [--seeds <count>] [--seed <first seed>] [--seconds <longest game>] [--threads <count>]"
+                + " [--output <csv file>]");
+            System.exit(1);
+            return;
+        }
+
+        // The headless backend loads the natives required by Pixmap (no window or GL needed)
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        configuration.updatesPerSecond = -1; // Only create() is needed
+        new HeadlessApplication(new Tournament(grid), configuration);
+    }
+
+    @Override
+    public void create() {
+        try {
+            CollisionMasks masks = MaskLoader.load();
+            int games = GRID.CONFIGS.size() * GRID.POLICIES.size() * GRID.SEEDS.length;
+            int[] scores = new int[games];
+            byte[] outcomes = new byte[games];
+            long[] ticks = new long[games];
+
+            ForkJoinPool pool = new ForkJoinPool(GRID.THREADS);
+            long start = System.nanoTime();
+            try {
+                pool.invoke(new Games(masks, scores, outcomes, ticks, 0, games));
+            } finally {
+                pool.shutdown();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(scores, outcomes);
+            long totalTicks = 0L;
+            for (long t : ticks) {
+                totalTicks += t;
+            }
+            System.out.printf(Locale.ROOT, "Played %d game(s) (%d ticks) on %d thread(s) in %.3f s: %.0f games/s,"
+                + " %.0f ticks/s%n", games, totalTicks, GRID.THREADS, seconds, games / seconds, totalTicks / seconds);
+        } catch (IOException e) {
+            System.err.println("Couldn't write the results: " + e.getMessage());
+            isFailed = true;
+        } finally {
+            Gdx.app.exit();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (isFailed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a range of games, or splits it in half when it is too large.
+     * Game {@code i} is seed {@code i % seeds} of policy {@code i / seeds % policies} of config
+     * {@code i / seeds / policies}.
+     */
+    private class Games extends RecursiveAction {
+        private final CollisionMasks MASKS;
+        private final int[] SCORES;
+        private final byte[] OUTCOMES;
+        private final long[] TICKS;
+        private final int FROM, TO;
+
+        private Games(CollisionMasks masks, int[] scores, byte[] outcomes, long[] ticks, int from, int to) {
+            MASKS = masks;
+            SCORES = scores;
+            OUTCOMES = outcomes;
+            TICKS = ticks;
+            FROM = from;
+            TO = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (TO - FROM > GAMES_PER_TASK) {
+                int middle = (FROM + TO) >>> 1;
+                invokeAll(new Games(MASKS, SCORES, OUTCOMES, TICKS, FROM, middle),
+                    new Games(MASKS, SCORES, OUTCOMES, TICKS, middle, TO));
+                return;
+            }
+            int seeds = GRID.SEEDS.length, policies = GRID.POLICIES.size();
+            for (int i = FROM; i < TO; i++) {
+                play(i, GRID.CONFIGS.get(i / seeds / policies), GRID.POLICIES.get(i / seeds % policies),
+                    GRID.SEEDS[i % seeds]);
+            }
+        }
+
+        /**
+         * Plays one game until the bird dies or the longest game is over, and stores its result in slot {@code i}.
+         */
+        private void play(int i, GameConfig config, Policy policy, long seed) {
+            World world = new World(seed, config);
+            world.setCollisionMasks(MASKS);
+            Random random = new Random(seed);
+            float tickTime = 1f / FlappyBird.DEFAULT_TICK_RATE;
+
+            int tick = 0;
+            while (tick < GRID.MAX_TICKS && !world.isDead()) {
+                world.step(tickTime, policy.shouldFlap(world, random));
+                tick++;
+            }
+            SCORES[i] = world.getScore();
+            OUTCOMES[i] = world.getDeathCause() == null ? SURVIVED
+                : world.getDeathCause() == World.DeathCause.GROUND ? GROUND : PIPE;
+            TICKS[i] = tick;
+        }
+    }
+
+    /**
+     * Prints the statistics of every parameter set and policy, and writes them to the CSV file if one was given.
+     */
+    private void report(int[] scores, byte[] outcomes) throws IOException {
+        List<String> rows = new ArrayList<>();
+        rows.add("gravity,flap_force,rot_accel,pipe_speed,gap,spacing,bot,games,mean,p50,p90,p99,max,"
+            + "ground_deaths,pipe_deaths,survived");
+        System.out.printf(Locale.ROOT, "%8s %8s %8s %8s %6s %7s %-12s %8s %6s %6s %6s %6s %7s %7s %8s%n",
+            "gravity", "flap", "rot", "speed", "gap", "spacing", "bot", "mean", "p50", "p90", "p99", "max",
+            "ground", "pipe", "survived");
+
+        int seeds = GRID.SEEDS.length;
+        int[] sorted = new int[seeds];
+        for (int c = 0; c < GRID.CONFIGS.size(); c++) {
+            GameConfig config = GRID.CONFIGS.get(c);
+            float gap = config.getDifficulty().gap(0), spacing = config.getDifficulty().spacing(0);
+            for (int p = 0; p < GRID.POLICIES.size(); p++) {
+                int first = (c * GRID.POLICIES.size() + p) * seeds;
+                System.arraycopy(scores, first, sorted, 0, seeds);
+                Arrays.sort(sorted);
+                long sum = 0L;
+                int[] causes = new int[3];
+                for (int i = first; i < first + seeds; i++) {
+                    sum += scores[i];
+                    causes[outcomes[i]]++;
+                }
+                double mean = (double) sum / seeds;
+                int p50 = percentile(sorted, PERCENTILES[0]), p90 = percentile(sorted, PERCENTILES[1]),
+                    p99 = percentile(sorted, PERCENTILES[2]), max = sorted[seeds - 1];
+                String bot = GRID.POLICY_NAMES.get(p);
+
+                System.out.printf(Locale.ROOT, "%8.1f %8.1f %8.1f %8.1f %6.1f %7.1f %-12s %8.2f %6d %6d %6d %6d %7d"
+                        + " %7d %8d%n", config.getGravity(), config.getFlapForce(), config.getRotAccel(),
+                    config.getPipeSpeed(), gap, spacing, bot, mean, p50, p90, p99, max, causes[GROUND], causes[PIPE],
+                    causes[SURVIVED]);
+                rows.add(String.format(Locale.ROOT, "%s,%s,%s,%s,%s,%s,%s,%d,%.3f,%d,%d,%d,%d,%d,%d,%d",
+                    config.getGravity(), config.getFlapForce(), config.getRotAccel(), config.getPipeSpeed(), gap,
+                    spacing, bot, seeds, mean, p50, p90, p99, max, causes[GROUND], causes[PIPE], causes[SURVIVED]));
+            }
+        }
+
+        if (GRID.OUTPUT != null) {
+            Path parent = GRID.OUTPUT.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(GRID.OUTPUT, StandardCharsets.UTF_8))) {
+                for (String row : rows) {
+                    writer.println(row);
+                }
+            }
+            System.out.println("Wrote " + GRID.OUTPUT);
+        }
+    }
+
+    /**
+     * @param sorted   The scores, sorted.
+     * @param fraction The fraction of scores at or below the returned one (nearest rank).
+     * @return The percentile of the scores.
+     */
+    private static int percentile(int[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * The parsed arguments: every parameter set, policy and seed to combine.
+     */
+    private static class Grid {
+        private final List<GameConfig> CONFIGS = new ArrayList<>();
+        private final List<Policy> POLICIES = new ArrayList<>();
+        private final List<String> POLICY_NAMES = new ArrayList<>();
+        private final long[] SEEDS;
+        private final int MAX_TICKS, THREADS;
+        private final Path OUTPUT;
+
+        private Grid(String[] args) {
+            GameConfig defaults = GameConfig.DEFAULT;
+            float[] gravity = {defaults.getGravity()}, flapForce = {defaults.getFlapForce()},
+                rotAccel = {defaults.getRotAccel()}, pipeSpeed = {defaults.getPipeSpeed()},
+                gap = {World.PIPE_GAP}, spacing = {World.PIPE_SPACING};
+            String bots = "gap:60";
+            int seeds = 100, seconds = 120, threads = Runtime.getRuntime().availableProcessors();
+            long firstSeed = 0L;
+            Path output = null;
+
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing the value of " + args[i]);
+                }
+                String value = args[++i];
+                try {
+                    switch (args[i - 1]) {
+                        case "--gravity":
+                            gravity = parseFloats(value);
+                            break;
+                        case "--flap-force":
+                            flapForce = parseFloats(value);
+                            break;
+                        case "--rot-accel":
+                            rotAccel = parseFloats(value);
+                            break;
+                        case "--pipe-speed":
+                            pipeSpeed = parseFloats(value);
+                            break;
+                        case "--gap":
+                            gap = parseFloats(value);
+                            break;
+                        case "--spacing":
+                            spacing = parseFloats(value);
+                            break;
+                        case "--bots":
+                            bots = value;
+                            break;
+                        case "--seeds":
+                            seeds = Integer.parseInt(value);
+                            break;
+                        case "--seed":
+                            firstSeed = Long.parseLong(value);
+                            break;
+                        case "--seconds":
+                            seconds = Integer.parseInt(value);
+                            break;
+                        case "--threads":
+                            threads = Integer.parseInt(value);
+                            break;
+                        case "--output":
+                            output = Paths.get(value);
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unknown option: " + args[i - 1]);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid value of " + args[i - 1] + ": " + value);
+                }
+            }
+            if (seeds <= 0 || seconds <= 0 || threads <= 0) {
+                throw new IllegalArgumentException("--seeds, --seconds and --threads must be positive");
+            }
+
+            for (float g : gravity) {
+                for (float f : flapForce) {
+                    for (float r : rotAccel) {
+                        for (float s : pipeSpeed) {
+                            for (float gp : gap) {
+                                for (float sp : spacing) {
+                                    // The ground scrolls along with the pipes
+                                    CONFIGS.add(new GameConfig(g, f, r, s, s, Difficulty.constant(gp, sp)));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            for (String bot : bots.split(",")) {
+                POLICIES.add(parsePolicy(bot.trim()));
+                POLICY_NAMES.add(bot.trim());
+            }
+
+            // Every parameter set and policy flies the same courses, so they are compared on equal terms
+            SEEDS = new long[seeds];
+            for (int i = 0; i < seeds; i++) {
+                SEEDS[i] = firstSeed + i;
+            }
+            MAX_TICKS = seconds * FlappyBird.DEFAULT_TICK_RATE;
+            THREADS = threads;
+            OUTPUT = output;
+        }
+
+        private static float[] parseFloats(String values) {
+            String[] parts = values.split(",");
+            float[] floats = new float[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                floats[i] = Float.parseFloat(parts[i].trim());
+            }
+            return floats;
+        }
+
+        private static Policy parsePolicy(String bot) {
+            int colon = bot.indexOf(':');
+            String name = colon < 0 ? bot : bot.substring(0, colon);
+            float value;
+            try {
+                value = colon < 0 ? Float.NaN : Float.parseFloat(bot.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid bot: " + bot);
+            }
+
+            switch (name) {
+                case "gap": {
+                    GapBot gapBot = Float.isNaN(value) ? new GapBot() : new GapBot(value);
+                    return (world, random) -> gapBot.shouldFlap(world);
+                }
+                case "random": {
+                    if (!(value > 0f)) {
+                        throw new IllegalArgumentException("A random bot needs a positive rate: " + bot);
+                    }
+                    float chance = value / FlappyBird.DEFAULT_TICK_RATE; // Of flapping on any tick
+                    // Always starts the game, then flaps at random while falling
+                    return (world, random) -> !world.isStarted()
+                        || world.getBirdVelocity() <= 0f && random.nextFloat() < chance;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown bot: " + bot);
+            }
+        }
+    }
+}